@@ -0,0 +1,40 @@
+package com.example.taktik.config;
+
+import com.example.taktik.util.EngagementVelocityScorer;
+import com.example.taktik.util.FeedScorer;
+import com.example.taktik.util.FollowAffinityScorer;
+import com.example.taktik.util.RecencyDecayScorer;
+import com.example.taktik.util.ViewCountScorer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Feed ranking signals. Any additional FeedScorer bean is added to the ranking automatically.
+@Configuration
+public class RankingConfig {
+
+    @Bean
+    public FeedScorer recencyScorer(
+            @Value("${feed.ranking.recency.weight:3.0}") double weight,
+            @Value("${feed.ranking.recency.half-life-hours:12}") double halfLifeHours) {
+        return new RecencyDecayScorer(weight, halfLifeHours);
+    }
+
+    @Bean
+    public FeedScorer velocityScorer(
+            @Value("${feed.ranking.velocity.weight:1.0}") double weight,
+            @Value("${feed.ranking.velocity.comment-weight:2.0}") double commentWeight,
+            @Value("${feed.ranking.velocity.window-hours:24}") double windowHours) {
+        return new EngagementVelocityScorer(weight, commentWeight, windowHours);
+    }
+
+    @Bean
+    public FeedScorer viewCountScorer(@Value("${feed.ranking.views.weight:0.2}") double weight) {
+        return new ViewCountScorer(weight);
+    }
+
+    @Bean
+    public FeedScorer affinityScorer(@Value("${feed.ranking.affinity.weight:1.5}") double weight) {
+        return new FollowAffinityScorer(weight);
+    }
+}
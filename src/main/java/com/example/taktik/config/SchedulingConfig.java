@@ -0,0 +1,10 @@
+package com.example.taktik.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled maintenance jobs (flushes, eviction, reconciliation)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,14 +1,23 @@
 package com.example.taktik.controller;
 
 import com.example.taktik.dto.CommentDTO;
+import com.example.taktik.dto.CommentPageDTO;
 import com.example.taktik.model.Comment;
 import com.example.taktik.service.CommentService;
 import com.example.taktik.service.DTOMapperService;
+import com.example.taktik.util.KeysetCursor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -17,40 +26,108 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
 public class CommentController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_PREVIEW_SIZE = 10;
+    private static final int MAX_TREE_DEPTH = 8;
+    private static final int MAX_TREE_CHILDREN = 50;
+    private static final int MAX_TREE_NODES = 1000;
+    private static final int MAX_SEARCH_OFFSET = 1000;
+
     @Autowired
     private CommentService commentService;
 
     @Autowired
     private DTOMapperService dtoMapperService;
 
-    // Get all comments for a video
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Get the comment thread of a video: a page of top-level comments, each with a preview of its replies
     @GetMapping("/video/{videoId}")
-    public ResponseEntity<List<CommentDTO>> getCommentsByVideo(@PathVariable String videoId) {
-        List<Comment> comments = commentService.getCommentsByVideoId(videoId);
-        List<CommentDTO> commentDTOs = comments.stream()
-                .map(dtoMapperService::convertToCommentDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(commentDTOs);
+    public ResponseEntity<CommentPageDTO> getCommentsByVideo(
+            @PathVariable String videoId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "3") int previewSize) {
+        return getTopLevelComments(videoId, cursor, size, previewSize);
     }
 
-    // Get top-level comments for a video (no parent comments)
+    // Get top-level comments for a video (no parent comments), one keyset page at a time, newest first
     @GetMapping("/video/{videoId}/top-level")
-    public ResponseEntity<List<CommentDTO>> getTopLevelComments(@PathVariable String videoId) {
-        List<Comment> comments = commentService.getTopLevelCommentsByVideoId(videoId);
-        List<CommentDTO> commentDTOs = comments.stream()
-                .map(dtoMapperService::convertToCommentDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(commentDTOs);
+    public ResponseEntity<CommentPageDTO> getTopLevelComments(
+            @PathVariable String videoId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "0") int previewSize) {
+        int pageSize = clampPageSize(size);
+        int previewLimit = Math.max(0, Math.min(previewSize, MAX_PREVIEW_SIZE));
+        try {
+            // Fetch one extra row to know whether another page exists
+            List<Comment> comments = commentService.getTopLevelCommentsPage(videoId, cursor, pageSize + 1);
+            CommentPageDTO page = toCommentPage(comments, pageSize);
+            if (previewLimit > 0) {
+                // One windowed query for the whole page; replyCount says whether more replies follow
+                List<String> parentIds = page.getComments().stream().map(CommentDTO::getId).collect(Collectors.toList());
+                Map<String, List<Comment>> previews = commentService.getReplyPreviews(parentIds, previewLimit);
+                for (CommentDTO comment : page.getComments()) {
+                    List<Comment> replies = previews.getOrDefault(comment.getId(), List.of());
+                    comment.setReplyPreview(replies.stream()
+                            .map(dtoMapperService::convertToCommentDTO)
+                            .collect(Collectors.toList()));
+                    if (!replies.isEmpty() && comment.getReplyCount() != null && comment.getReplyCount() > replies.size()) {
+                        Comment last = replies.get(replies.size() - 1);
+                        comment.setRepliesCursor(new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+                    }
+                }
+            }
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
-    // Get replies to a specific comment
+    // Get a video's newest top-level comments with their reply trees, bounded by depth and replies per comment,
+    // in a single query
+    @GetMapping("/video/{videoId}/tree")
+    public ResponseEntity<List<CommentDTO>> getCommentTreeByVideo(
+            @PathVariable String videoId,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "3") int depth,
+            @RequestParam(defaultValue = "10") int children) {
+        int maxDepth = clampTreeDepth(depth);
+        List<Object[]> rows = commentService.getVideoCommentTreeRows(videoId, clampPageSize(size), maxDepth,
+                clampTreeChildren(children), MAX_TREE_NODES);
+        return ResponseEntity.ok(dtoMapperService.convertToCommentTree(rows, maxDepth));
+    }
+
+    // Get the reply tree under a comment, bounded by depth and replies per comment, in a single query
+    @GetMapping("/{commentId}/tree")
+    public ResponseEntity<CommentDTO> getCommentTree(
+            @PathVariable String commentId,
+            @RequestParam(defaultValue = "3") int depth,
+            @RequestParam(defaultValue = "10") int children) {
+        int maxDepth = clampTreeDepth(depth);
+        List<Object[]> rows = commentService.getCommentTreeRows(commentId, maxDepth, clampTreeChildren(children), MAX_TREE_NODES);
+        List<CommentDTO> tree = dtoMapperService.convertToCommentTree(rows, maxDepth);
+        if (tree.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(tree.get(0));
+    }
+
+    // Get replies to a specific comment, one keyset page at a time, oldest first
     @GetMapping("/{commentId}/replies")
-    public ResponseEntity<List<CommentDTO>> getReplies(@PathVariable String commentId) {
-        List<Comment> replies = commentService.getRepliesByCommentId(commentId);
-        List<CommentDTO> commentDTOs = replies.stream()
-                .map(dtoMapperService::convertToCommentDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(commentDTOs);
+    public ResponseEntity<CommentPageDTO> getReplies(
+            @PathVariable String commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        int pageSize = clampPageSize(size);
+        try {
+            List<Comment> replies = commentService.getRepliesPage(commentId, cursor, pageSize + 1);
+            return ResponseEntity.ok(toCommentPage(replies, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     // Get comment by ID
@@ -114,14 +191,69 @@ public class CommentController {
         return ResponseEntity.ok(commentDTOs);
     }
 
-    // Search comments by content
-    @GetMapping("/search")
-    public ResponseEntity<List<CommentDTO>> searchComments(@RequestParam String query) {
-        List<Comment> comments = commentService.searchCommentsByContent(query);
-        List<CommentDTO> commentDTOs = comments.stream()
+    // Full-text search of comments, best matches first, optionally within one video. The page is streamed
+    // out as a JSON array while rows are read instead of being collected first.
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> searchComments(
+            @RequestParam String query,
+            @RequestParam(required = false) String videoId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (query.isBlank() || page < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = clampPageSize(size);
+        // Relevance pages are offset-based, so bound how deep a client can go. Rejected here, before the 200 and
+        // the opening '[' are committed, since an error once rows are streaming can only truncate the body
+        if ((long) page * pageSize >= MAX_SEARCH_OFFSET) {
+            return ResponseEntity.badRequest().build();
+        }
+        int offset = page * pageSize;
+        int limit = Math.min(pageSize, MAX_SEARCH_OFFSET - offset);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                commentService.searchComments(query, videoId, limit, offset, row -> {
+                    try {
+                        objectMapper.writeValue(json, dtoMapperService.convertSearchRow(row));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok(body);
+    }
+
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private int clampTreeDepth(int depth) {
+        return Math.max(0, Math.min(depth, MAX_TREE_DEPTH));
+    }
+
+    private int clampTreeChildren(int children) {
+        return Math.max(1, Math.min(children, MAX_TREE_CHILDREN));
+    }
+
+    // Build a page from up to pageSize + 1 comments in keyset order
+    private CommentPageDTO toCommentPage(List<Comment> comments, int pageSize) {
+        boolean hasMore = comments.size() > pageSize;
+        List<Comment> page = hasMore ? comments.subList(0, pageSize) : comments;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Comment last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<CommentDTO> commentDTOs = page.stream()
                 .map(dtoMapperService::convertToCommentDTO)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(commentDTOs);
+        return new CommentPageDTO(commentDTOs, nextCursor, hasMore);
     }
 
     // DTOs
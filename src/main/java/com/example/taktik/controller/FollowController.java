@@ -7,13 +7,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/follows")
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
 public class FollowController {
 
+    private static final int MAX_BATCH_SIZE = 100;
+
     @Autowired
     private FollowService followService;
 
@@ -46,6 +51,21 @@ public class FollowController {
         return ResponseEntity.ok(isFollowing);
     }
 
+    // Check a page of users at once: userId -> followed, in request order
+    @GetMapping("/check/batch")
+    public ResponseEntity<Map<String, Boolean>> isFollowingUsers(@RequestParam String followerId,
+                                                                 @RequestParam List<String> userIds) {
+        if (userIds.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        Set<String> followed = followService.getFollowedUserIds(followerId, userIds);
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            result.put(userId, followed.contains(userId));
+        }
+        return ResponseEntity.ok(result);
+    }
+
     // Get followers of a user
     @GetMapping("/{userId}/followers")
     public ResponseEntity<List<User>> getFollowers(@PathVariable String userId) {
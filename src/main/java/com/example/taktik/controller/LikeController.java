@@ -12,7 +12,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -20,30 +23,32 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
 public class LikeController {
 
+    private static final int MAX_BATCH_SIZE = 100;
+
     @Autowired
     private LikeService likeService;
 
     @Autowired
     private DTOMapperService dtoMapperService;
 
-    // Like a video
+    // Like a video (accepted at once and written with the next batch)
     @PostMapping
-    public ResponseEntity<LikeDTO> likeVideo(@RequestBody LikeRequest likeRequest) {
+    public ResponseEntity<LikeResponse> likeVideo(@RequestBody LikeRequest likeRequest) {
         try {
-            Like like = likeService.likeVideo(likeRequest.getUserId(), likeRequest.getVideoId());
-            LikeDTO likeDTO = dtoMapperService.convertToLikeDTO(like);
-            return ResponseEntity.ok(likeDTO);
+            likeService.submitLike(likeRequest.getUserId(), likeRequest.getVideoId());
+            long likeCount = likeService.getLikeCountByVideoId(likeRequest.getVideoId());
+            return ResponseEntity.accepted().body(new LikeResponse(true, likeCount));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
-    // Unlike a video
+    // Unlike a video (accepted at once and written with the next batch)
     @DeleteMapping
     public ResponseEntity<Void> unlikeVideo(@RequestBody LikeRequest likeRequest) {
         try {
-            likeService.unlikeVideo(likeRequest.getUserId(), likeRequest.getVideoId());
-            return ResponseEntity.noContent().build();
+            likeService.submitUnlike(likeRequest.getUserId(), likeRequest.getVideoId());
+            return ResponseEntity.accepted().build();
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -56,6 +61,21 @@ public class LikeController {
         return ResponseEntity.ok(hasLiked);
     }
 
+    // Check a page of videos at once: videoId -> liked, in request order
+    @GetMapping("/check/batch")
+    public ResponseEntity<Map<String, Boolean>> haveUserLikedVideos(@RequestParam String userId,
+                                                                    @RequestParam List<String> videoIds) {
+        if (videoIds.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        Set<String> liked = likeService.getLikedVideoIds(userId, videoIds);
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        for (String videoId : videoIds) {
+            result.put(videoId, liked.contains(videoId));
+        }
+        return ResponseEntity.ok(result);
+    }
+
     // Get like count for a video
     @GetMapping("/video/{videoId}/count")
     public ResponseEntity<Long> getLikeCount(@PathVariable String videoId) {
@@ -114,7 +134,7 @@ public class LikeController {
     @PostMapping("/toggle")
     public ResponseEntity<LikeResponse> toggleLike(@RequestBody LikeRequest likeRequest) {
         try {
-            boolean isLiked = likeService.toggleLike(likeRequest.getUserId(), likeRequest.getVideoId());
+            boolean isLiked = likeService.submitToggle(likeRequest.getUserId(), likeRequest.getVideoId());
             long likeCount = likeService.getLikeCountByVideoId(likeRequest.getVideoId());
             return ResponseEntity.ok(new LikeResponse(isLiked, likeCount));
         } catch (Exception e) {
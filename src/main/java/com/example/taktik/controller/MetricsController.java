@@ -0,0 +1,167 @@
+package com.example.taktik.controller;
+
+import com.example.taktik.service.CounterReconciler;
+import com.example.taktik.service.LikeIngestBuffer;
+import com.example.taktik.service.LikedSetCache;
+import com.example.taktik.service.SearchResultCache;
+import com.example.taktik.service.UniqueViewerService;
+import com.example.taktik.service.UserTypeahead;
+import com.example.taktik.service.VideoSearchIndex;
+import com.example.taktik.service.ViewCountBuffer;
+import com.example.taktik.util.ExpiringLruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Operational counters for the in-memory buffers and indexes
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private ViewCountBuffer viewCountBuffer;
+
+    @Autowired
+    private UniqueViewerService uniqueViewerService;
+
+    @Autowired
+    private CounterReconciler counterReconciler;
+
+    @Autowired
+    private LikedSetCache likedSetCache;
+
+    @Autowired
+    private LikeIngestBuffer likeIngestBuffer;
+
+    @Autowired
+    private VideoSearchIndex videoSearchIndex;
+
+    @Autowired
+    private UserTypeahead userTypeahead;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    // Write-behind view counter: pending deltas and flush history
+    @GetMapping("/views")
+    public Map<String, Object> getViewMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("pendingVideos", viewCountBuffer.getPendingVideoCount());
+        metrics.put("pendingViews", viewCountBuffer.getPendingViewCount());
+        metrics.put("flushedViews", viewCountBuffer.getFlushedViews());
+        metrics.put("flushes", viewCountBuffer.getFlushCount());
+        metrics.put("failedFlushes", viewCountBuffer.getFailedFlushes());
+        metrics.put("lastFlushAt", viewCountBuffer.getLastFlushMillis());
+        metrics.put("lastFlushDurationMs", viewCountBuffer.getLastFlushDurationMillis());
+        return metrics;
+    }
+
+    // Unique-viewer sketches waiting to be merged into their stored rows
+    @GetMapping("/viewers")
+    public Map<String, Object> getViewerMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("pendingSketches", uniqueViewerService.getPendingSketchCount());
+        metrics.put("flushedSketches", uniqueViewerService.getFlushedSketches());
+        metrics.put("failedFlushes", uniqueViewerService.getFailedFlushes());
+        metrics.put("droppedSketches", uniqueViewerService.getDroppedSketches());
+        return metrics;
+    }
+
+    // Drift repaired in the denormalized counter columns
+    @GetMapping("/counters")
+    public Map<String, Object> getCounterMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("runs", counterReconciler.getRuns());
+        metrics.put("repairedRows", counterReconciler.getRepairedRows());
+        metrics.put("lastRepairs", counterReconciler.getLastRepairs());
+        metrics.put("lastRunAt", counterReconciler.getLastRunMillis());
+        return metrics;
+    }
+
+    // Per-user liked-video bitmaps behind the liked-state checks
+    @GetMapping("/likes")
+    public Map<String, Object> getLikeCacheMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("residentUsers", likedSetCache.getResidentUserCount());
+        metrics.put("hits", likedSetCache.getHits());
+        metrics.put("misses", likedSetCache.getMisses());
+        metrics.put("memory", likedSetCache.getMemoryStats());
+        return metrics;
+    }
+
+    // Like/unlike intents buffered and flushed in batches
+    @GetMapping("/likes/ingest")
+    public Map<String, Object> getLikeIngestMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("pendingVideos", likeIngestBuffer.getPendingVideoCount());
+        metrics.put("submitted", likeIngestBuffer.getSubmitted());
+        metrics.put("collapsed", likeIngestBuffer.getCollapsed());
+        metrics.put("inserted", likeIngestBuffer.getInserted());
+        metrics.put("deleted", likeIngestBuffer.getDeleted());
+        metrics.put("flushes", likeIngestBuffer.getFlushCount());
+        metrics.put("failedFlushes", likeIngestBuffer.getFailedFlushes());
+        metrics.put("lastFlushAt", likeIngestBuffer.getLastFlushMillis());
+        metrics.put("lastFlushDurationMs", likeIngestBuffer.getLastFlushDurationMillis());
+        return metrics;
+    }
+
+    // Video full-text index size
+    @GetMapping("/search")
+    public Map<String, Object> getSearchMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("warm", videoSearchIndex.isWarm());
+        metrics.put("indexedVideos", videoSearchIndex.getIndexedVideos());
+        metrics.put("deletedDocs", videoSearchIndex.getDeletedDocs());
+        metrics.put("terms", videoSearchIndex.getTermCount());
+        metrics.put("postingBytes", videoSearchIndex.getPostingBytes());
+        metrics.put("lastCompactionAt", videoSearchIndex.getLastCompactionMillis());
+        return metrics;
+    }
+
+    // Username typeahead trie size
+    @GetMapping("/search/users")
+    public Map<String, Object> getUserTypeaheadMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("warm", userTypeahead.isWarm());
+        metrics.put("indexedUsers", userTypeahead.getIndexedUsers());
+        metrics.put("trieNodes", userTypeahead.getNodeCount());
+        metrics.put("maxResults", userTypeahead.getMaxResults());
+        return metrics;
+    }
+
+    // Search result cache effectiveness, per endpoint
+    @GetMapping("/search/cache")
+    public Map<String, Object> getSearchCacheMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("videos", cacheMetrics(searchResultCache.getVideoCache()));
+        metrics.put("users", cacheMetrics(searchResultCache.getUserCache()));
+        return metrics;
+    }
+
+    // Liked-video bitmap memory for one user
+    @GetMapping("/likes/users/{userId}")
+    public ResponseEntity<LikedSetCache.MemoryStats> getUserLikeCacheMetrics(@PathVariable String userId) {
+        LikedSetCache.MemoryStats stats = likedSetCache.getMemoryStats(userId);
+        return stats != null ? ResponseEntity.ok(stats) : ResponseEntity.notFound().build();
+    }
+
+    private static Map<String, Object> cacheMetrics(ExpiringLruCache<?, ?> cache) {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        metrics.put("size", cache.size());
+        metrics.put("hits", hits);
+        metrics.put("misses", misses);
+        metrics.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        metrics.put("evictions", cache.getEvictions());
+        metrics.put("expirations", cache.getExpirations());
+        metrics.put("invalidations", cache.getInvalidations());
+        return metrics;
+    }
+}
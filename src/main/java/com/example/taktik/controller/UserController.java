@@ -1,10 +1,13 @@
 package com.example.taktik.controller;
 
 import com.example.taktik.dto.UserDTO;
+import com.example.taktik.dto.UserPageDTO;
 import com.example.taktik.dto.UserSummaryDTO;
 import com.example.taktik.model.User;
 import com.example.taktik.service.UserService;
 import com.example.taktik.service.DTOMapperService;
+import com.example.taktik.service.SearchResultCache;
+import com.example.taktik.util.ScoreCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,12 +21,19 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
 public class UserController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    // Fuzzy search pages stop after this many results in total
+    private static final int MAX_SEARCH_RESULTS = 1000;
+
     @Autowired
     private UserService userService;
 
     @Autowired
     private DTOMapperService dtoMapperService;
 
+    @Autowired
+    private SearchResultCache searchResultCache;
+
     // Get all users
     @GetMapping
     public ResponseEntity<List<UserSummaryDTO>> getAllUsers() {
@@ -94,13 +104,60 @@ public class UserController {
     // Search users by username
     @GetMapping("/search")
     public ResponseEntity<List<UserSummaryDTO>> searchUsers(@RequestParam String query) {
-        List<User> users = userService.searchUsersByUsername(query);
-        List<UserSummaryDTO> userDTOs = users.stream()
-                .map(dtoMapperService::convertToUserSummaryDTO)
-                .collect(Collectors.toList());
+        List<UserSummaryDTO> userDTOs = searchResultCache.getUsers(query, () ->
+                userService.searchUsersByUsername(query).stream()
+                        .map(dtoMapperService::convertToUserSummaryDTO)
+                        .collect(Collectors.toList()));
         return ResponseEntity.ok(userDTOs);
     }
 
+    // Fuzzy username search in Postgres (trigram similarity), keyset pages on (score, id)
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<UserPageDTO> fuzzySearchUsers(@RequestParam String query,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "20") int size) {
+        if (query.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        ScoreCursor after;
+        try {
+            after = ScoreCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int served = after != null ? after.getServed() : 0;
+        int pageSize = Math.min(Math.max(1, Math.min(size, MAX_PAGE_SIZE)), MAX_SEARCH_RESULTS - served);
+        if (pageSize <= 0) {
+            return ResponseEntity.ok(new UserPageDTO(List.of(), null, false));
+        }
+
+        // Fetch one extra row to know whether another page exists
+        List<Object[]> rows = userService.fuzzySearchUsers(query, after, pageSize + 1);
+        List<Object[]> page = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        boolean hasMore = rows.size() > pageSize && served + pageSize < MAX_SEARCH_RESULTS;
+        String nextCursor = null;
+        if (hasMore) {
+            Object[] last = page.get(page.size() - 1);
+            double score = ((Number) last[6]).doubleValue();
+            nextCursor = new ScoreCursor(score, (String) last[0], served + page.size()).encode();
+        }
+        List<UserSummaryDTO> userDTOs = page.stream()
+                .map(dtoMapperService::convertUserSearchRow)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(new UserPageDTO(userDTOs, nextCursor, hasMore));
+    }
+
+    // Username completion for the search box: most-followed users whose username starts with prefix
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<UserSummaryDTO>> typeahead(@RequestParam String prefix,
+                                                          @RequestParam(defaultValue = "10") int limit) {
+        if (prefix.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        int size = Math.max(1, Math.min(limit, userService.getMaxTypeaheadResults()));
+        return ResponseEntity.ok(userService.typeaheadUsers(prefix, size));
+    }
+
     // Get user statistics
     @GetMapping("/{id}/stats")
     public ResponseEntity<UserStats> getUserStats(@PathVariable String id) {
@@ -1,17 +1,27 @@
 package com.example.taktik.controller;
 
 import com.example.taktik.dto.VideoDTO;
+import com.example.taktik.dto.VideoPageDTO;
 import com.example.taktik.model.Video;
 import com.example.taktik.model.User;
 import com.example.taktik.service.VideoService;
 import com.example.taktik.service.CloudinaryService;
 import com.example.taktik.service.UserService;
 import com.example.taktik.service.DTOMapperService;
+import com.example.taktik.service.TrendingService;
+import com.example.taktik.service.HashtagService;
+import com.example.taktik.service.SearchResultCache;
+import com.example.taktik.util.Hashtags;
+import com.example.taktik.util.KeysetCursor;
+import com.example.taktik.util.ScoreCursor;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -22,6 +32,10 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
 public class VideoController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_VIEWER_RANGE_DAYS = 366;
+    private static final int MAX_SEARCH_OFFSET = 1000;
+
     @Autowired
     private VideoService videoService;
 
@@ -34,6 +48,12 @@ public class VideoController {
     @Autowired
     private DTOMapperService dtoMapperService;
 
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
     // Get all videos (for feed)
     @GetMapping
     public ResponseEntity<List<VideoDTO>> getAllVideos() {
@@ -100,41 +120,148 @@ public class VideoController {
         }
     }
 
-    // Get feed for user (videos from followed users)
+    // Get feed for user (videos from followed users), one keyset page at a time
     @GetMapping("/feed/{userId}")
-    public ResponseEntity<List<VideoDTO>> getFeedForUser(@PathVariable String userId) {
-        List<Video> feedVideos = videoService.getFeedForUser(userId);
-        List<VideoDTO> videoDTOs = feedVideos.stream()
-                .map(dtoMapperService::convertToVideoDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(videoDTOs);
+    public ResponseEntity<VideoPageDTO> getFeedForUser(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        int pageSize = clampPageSize(size);
+        try {
+            // Fetch one extra row to know whether another page exists
+            VideoService.FeedPage feed = videoService.getFeedForUser(userId, cursor, pageSize + 1);
+            if (!feed.isPaginated()) {
+                List<Video> videos = feed.getVideos();
+                List<Video> page = videos.subList(0, Math.min(pageSize, videos.size()));
+                return ResponseEntity.ok(new VideoPageDTO(dtoMapperService.convertToVideoDTOs(page, userId), null, false));
+            }
+            return ResponseEntity.ok(toVideoPage(feed.getVideos(), pageSize, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
-    // Get trending videos
+    // Get ranked feed for user (best of the recent candidates, not paginated)
+    @GetMapping("/feed/{userId}/ranked")
+    public ResponseEntity<List<VideoDTO>> getRankedFeedForUser(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "20") int size) {
+        List<Video> rankedVideos = videoService.getRankedFeedForUser(userId, clampPageSize(size));
+        return ResponseEntity.ok(dtoMapperService.convertToVideoDTOs(rankedVideos, userId));
+    }
+
+    // Get trending videos, optionally for a window ("1h", "24h", "hot" or "all")
     @GetMapping("/trending")
-    public ResponseEntity<List<VideoDTO>> getTrendingVideos() {
-        List<Video> trendingVideos = videoService.getTrendingVideos();
-        List<VideoDTO> videoDTOs = trendingVideos.stream()
-                .map(dtoMapperService::convertToVideoDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(videoDTOs);
+    public ResponseEntity<List<VideoDTO>> getTrendingVideos(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String window,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = size != null ? clampPageSize(size) : trendingService.getDefaultPageSize();
+        try {
+            List<Video> trendingVideos = videoService.getTrendingVideos(userId, window, pageSize);
+            return ResponseEntity.ok(dtoMapperService.convertToVideoDTOs(trendingVideos, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Newest videos carrying a hashtag (given with or without the '#'), one keyset page at a time
+    @GetMapping("/tag/{tag}")
+    public ResponseEntity<VideoPageDTO> getVideosByTag(
+            @PathVariable String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String userId) {
+        String normalized = Hashtags.normalize(tag);
+        if (normalized == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = clampPageSize(size);
+        try {
+            // Fetch one extra row to know whether another page exists
+            List<Video> videos = videoService.getVideosByTag(normalized, cursor, pageSize + 1);
+            return ResponseEntity.ok(toVideoPage(videos, pageSize, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Hashtags used by the most new videos in the last hour ("1h") or day ("24h")
+    @GetMapping("/tags/trending")
+    public ResponseEntity<List<HashtagService.TagCount>> getTrendingTags(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(videoService.getTrendingTags(window, clampPageSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
-    // Search videos
+    // Search videos by title and description, best matches first
     @GetMapping("/search")
-    public ResponseEntity<List<VideoDTO>> searchVideos(@RequestParam String query) {
-        List<Video> videos = videoService.searchVideos(query);
-        List<VideoDTO> videoDTOs = videos.stream()
-                .map(dtoMapperService::convertToVideoDTO)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<VideoDTO>> searchVideos(@RequestParam String query,
+                                                       @RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(defaultValue = "20") int size) {
+        if (query.isBlank() || page < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = clampPageSize(size);
+        // Relevance pages are offset-based, so bound how deep a client can go
+        if ((long) page * pageSize >= MAX_SEARCH_OFFSET) {
+            return ResponseEntity.ok(List.of());
+        }
+        List<VideoDTO> videoDTOs = searchResultCache.getVideos(query, page, pageSize, () ->
+                videoService.searchVideos(query, page * pageSize, pageSize).stream()
+                        .map(dtoMapperService::convertToVideoDTO)
+                        .collect(Collectors.toList()));
         return ResponseEntity.ok(videoDTOs);
     }
 
+    // Fuzzy search in Postgres (trigram similarity), for deployments without the in-memory index.
+    // Keyset pages on (score, id), capped at MAX_SEARCH_OFFSET results in total
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<VideoPageDTO> fuzzySearchVideos(@RequestParam String query,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "20") int size) {
+        if (query.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        ScoreCursor after;
+        try {
+            after = ScoreCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int served = after != null ? after.getServed() : 0;
+        int pageSize = Math.min(clampPageSize(size), MAX_SEARCH_OFFSET - served);
+        if (pageSize <= 0) {
+            return ResponseEntity.ok(new VideoPageDTO(List.of(), null, false));
+        }
+
+        // Fetch one extra row to know whether another page exists
+        List<Object[]> rows = videoService.fuzzySearchVideos(query, after, pageSize + 1);
+        List<Object[]> page = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        boolean hasMore = rows.size() > pageSize && served + pageSize < MAX_SEARCH_OFFSET;
+        String nextCursor = null;
+        if (hasMore) {
+            Object[] last = page.get(page.size() - 1);
+            double score = ((Number) last[9]).doubleValue();
+            nextCursor = new ScoreCursor(score, (String) last[0], served + page.size()).encode();
+        }
+        List<VideoDTO> videoDTOs = page.stream()
+                .map(dtoMapperService::convertVideoSearchRow)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(new VideoPageDTO(videoDTOs, nextCursor, hasMore));
+    }
+
     // Increment view count
     @PostMapping("/{id}/view")
-    public ResponseEntity<Void> incrementViewCount(@PathVariable String id) {
+    public ResponseEntity<Void> incrementViewCount(@PathVariable String id,
+                                                   @RequestParam(required = false) String userId,
+                                                   HttpServletRequest request) {
         try {
-            videoService.incrementViewCount(id);
+            videoService.incrementViewCount(id, userId, request.getRemoteAddr());
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
@@ -152,6 +279,24 @@ public class VideoController {
         }
     }
 
+    // Distinct viewers between two UTC days (yyyy-MM-dd, inclusive), rolled up from daily sketches
+    @GetMapping("/{id}/viewers")
+    public ResponseEntity<Map<String, Object>> getUniqueViewers(@PathVariable String id,
+                                                                @RequestParam String from,
+                                                                @RequestParam String to) {
+        try {
+            LocalDate fromDay = LocalDate.parse(from);
+            LocalDate toDay = LocalDate.parse(to);
+            if (toDay.isBefore(fromDay) || fromDay.plusDays(MAX_VIEWER_RANGE_DAYS).isBefore(toDay)) {
+                return ResponseEntity.badRequest().build();
+            }
+            long uniqueViewers = videoService.getUniqueViewers(id, fromDay, toDay);
+            return ResponseEntity.ok(Map.of("from", from, "to", to, "uniqueViewers", uniqueViewers));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Get videos with minimum view count
     @GetMapping("/popular")
     public ResponseEntity<List<VideoDTO>> getPopularVideos(@RequestParam(defaultValue = "1000") Long minViews) {
@@ -262,11 +407,30 @@ public class VideoController {
         }
     }
 
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    // Build a page from up to pageSize + 1 videos ordered by (createdAt, id) descending
+    private VideoPageDTO toVideoPage(List<Video> videos, int pageSize, String viewerId) {
+        boolean hasMore = videos.size() > pageSize;
+        List<Video> page = hasMore ? videos.subList(0, pageSize) : videos;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Video last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return new VideoPageDTO(dtoMapperService.convertToVideoDTOs(page, viewerId), nextCursor, hasMore);
+    }
+
     // DTO for video statistics
     public static class VideoStats {
         private long viewCount;
         private long likeCount;
         private long commentCount;
+        private long uniqueViewers;
 
         public VideoStats(long viewCount, long likeCount, long commentCount) {
             this.viewCount = viewCount;
@@ -274,6 +438,11 @@ public class VideoController {
             this.commentCount = commentCount;
         }
 
+        public VideoStats(long viewCount, long likeCount, long commentCount, long uniqueViewers) {
+            this(viewCount, likeCount, commentCount);
+            this.uniqueViewers = uniqueViewers;
+        }
+
         // Getters and setters
         public long getViewCount() { return viewCount; }
         public void setViewCount(long viewCount) { this.viewCount = viewCount; }
@@ -281,6 +450,8 @@ public class VideoController {
         public void setLikeCount(long likeCount) { this.likeCount = likeCount; }
         public long getCommentCount() { return commentCount; }
         public void setCommentCount(long commentCount) { this.commentCount = commentCount; }
+        public long getUniqueViewers() { return uniqueViewers; }
+        public void setUniqueViewers(long uniqueViewers) { this.uniqueViewers = uniqueViewers; }
     }
 
     // Response DTOs for upload endpoints
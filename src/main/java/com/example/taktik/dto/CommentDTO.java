@@ -1,6 +1,7 @@
 package com.example.taktik.dto;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class CommentDTO {
     private String id;
@@ -8,6 +9,11 @@ public class CommentDTO {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private UserSummaryDTO user; // Only basic user info to avoid circular reference
+    private Long replyCount; // direct replies
+    private LocalDateTime lastReplyAt;
+    private List<CommentDTO> replyPreview; // first replies, oldest first; null when not requested
+    private String repliesCursor; // continues the replies after the preview, null when it holds them all
+    private List<CommentDTO> replies; // loaded replies of a comment tree; null below the loaded depth
 
     // Constructors
     public CommentDTO() {}
@@ -52,4 +58,44 @@ public class CommentDTO {
     public void setUser(UserSummaryDTO user) {
         this.user = user;
     }
+
+    public Long getReplyCount() {
+        return replyCount;
+    }
+
+    public void setReplyCount(Long replyCount) {
+        this.replyCount = replyCount;
+    }
+
+    public LocalDateTime getLastReplyAt() {
+        return lastReplyAt;
+    }
+
+    public void setLastReplyAt(LocalDateTime lastReplyAt) {
+        this.lastReplyAt = lastReplyAt;
+    }
+
+    public List<CommentDTO> getReplyPreview() {
+        return replyPreview;
+    }
+
+    public void setReplyPreview(List<CommentDTO> replyPreview) {
+        this.replyPreview = replyPreview;
+    }
+
+    public String getRepliesCursor() {
+        return repliesCursor;
+    }
+
+    public void setRepliesCursor(String repliesCursor) {
+        this.repliesCursor = repliesCursor;
+    }
+
+    public List<CommentDTO> getReplies() {
+        return replies;
+    }
+
+    public void setReplies(List<CommentDTO> replies) {
+        this.replies = replies;
+    }
 }
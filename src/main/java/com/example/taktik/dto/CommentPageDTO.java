@@ -0,0 +1,43 @@
+package com.example.taktik.dto;
+
+import java.util.List;
+
+public class CommentPageDTO {
+    private List<CommentDTO> comments;
+    private String nextCursor; // null when there are no more pages
+    private boolean hasMore;
+
+    // Constructors
+    public CommentPageDTO() {}
+
+    public CommentPageDTO(List<CommentDTO> comments, String nextCursor, boolean hasMore) {
+        this.comments = comments;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<CommentDTO> getComments() {
+        return comments;
+    }
+
+    public void setComments(List<CommentDTO> comments) {
+        this.comments = comments;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.taktik.dto;
+
+import java.util.List;
+
+public class UserPageDTO {
+    private List<UserSummaryDTO> users;
+    private String nextCursor; // null when there are no more pages
+    private boolean hasMore;
+
+    // Constructors
+    public UserPageDTO() {}
+
+    public UserPageDTO(List<UserSummaryDTO> users, String nextCursor, boolean hasMore) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<UserSummaryDTO> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UserSummaryDTO> users) {
+        this.users = users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
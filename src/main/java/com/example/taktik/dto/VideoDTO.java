@@ -11,6 +11,7 @@ public class VideoDTO {
     private String thumbnailUrl;
     private String cloudinaryPublicId;
     private Long viewCount;
+    private Boolean likedByViewer; // null when the request has no viewer
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<CommentDTO> comments;
@@ -76,6 +77,14 @@ public class VideoDTO {
         this.viewCount = viewCount;
     }
 
+    public Boolean getLikedByViewer() {
+        return likedByViewer;
+    }
+
+    public void setLikedByViewer(Boolean likedByViewer) {
+        this.likedByViewer = likedByViewer;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
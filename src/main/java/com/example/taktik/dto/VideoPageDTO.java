@@ -0,0 +1,43 @@
+package com.example.taktik.dto;
+
+import java.util.List;
+
+public class VideoPageDTO {
+    private List<VideoDTO> videos;
+    private String nextCursor; // null when there are no more pages
+    private boolean hasMore;
+
+    // Constructors
+    public VideoPageDTO() {}
+
+    public VideoPageDTO(List<VideoDTO> videos, String nextCursor, boolean hasMore) {
+        this.videos = videos;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<VideoDTO> getVideos() {
+        return videos;
+    }
+
+    public void setVideos(List<VideoDTO> videos) {
+        this.videos = videos;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
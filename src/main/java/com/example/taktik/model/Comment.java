@@ -6,6 +6,12 @@ import java.time.LocalDateTime;
 import java.util.*;
 
 @Entity
+@Table(indexes = {
+    // Backs the keyset pages of top-level comments: (video_id, parent_comment_id IS NULL) range on (created_at, id)
+    @Index(name = "idx_comment_video_parent_created", columnList = "video_id, parent_comment_id, created_at, id"),
+    // Backs the keyset pages of a comment's replies
+    @Index(name = "idx_comment_parent_created", columnList = "parent_comment_id, created_at, id")
+})
 public class Comment {
 
     @Id
@@ -19,6 +25,14 @@ public class Comment {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Direct replies and the newest reply's time, changed only by atomic UPDATEs in CommentService
+    // (see CounterReconciler)
+    @Column(name = "reply_count", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long replyCount = 0L;
+
+    @Column(name = "last_reply_at", updatable = false)
+    private LocalDateTime lastReplyAt;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User user;
@@ -90,6 +104,22 @@ public class Comment {
         this.updatedAt = updatedAt;
     }
 
+    public Long getReplyCount() {
+        return replyCount;
+    }
+
+    public void setReplyCount(Long replyCount) {
+        this.replyCount = replyCount;
+    }
+
+    public LocalDateTime getLastReplyAt() {
+        return lastReplyAt;
+    }
+
+    public void setLastReplyAt(LocalDateTime lastReplyAt) {
+        this.lastReplyAt = lastReplyAt;
+    }
+
     public User getUser() {
         return user;
     }
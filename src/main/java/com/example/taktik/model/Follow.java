@@ -5,7 +5,13 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "follow")
+@Table(name = "follow", uniqueConstraints = {
+    // One follow per pair; also serves lookups by (follower_id, following_id)
+    @UniqueConstraint(name = "uk_follow_follower_following", columnNames = {"follower_id", "following_id"})
+}, indexes = {
+    // Follower lookups by followed user, including the counter reconciler's batched recount
+    @Index(name = "idx_follow_following", columnList = "following_id")
+})
 public class Follow {
 
     @Id
@@ -5,7 +5,13 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "likes")
+@Table(name = "likes", uniqueConstraints = {
+    // One like per user and video; the like toggles rely on it for ON CONFLICT DO NOTHING
+    @UniqueConstraint(name = "uk_likes_user_video", columnNames = {"user_id", "video_id"})
+}, indexes = {
+    // Per-video lookups, including the counter reconciler's batched recount
+    @Index(name = "idx_likes_video", columnList = "video_id")
+})
 public class Like {
 
     @Id
@@ -0,0 +1,59 @@
+package com.example.taktik.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Persisted "already seen" Bloom filter for one user (see SeenVideoService)
+@Entity
+@Table(name = "user_seen_filter")
+public class SeenFilter {
+
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+
+    @Column(name = "data", columnDefinition = "bytea")
+    private byte[] data;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public SeenFilter() {}
+
+    public SeenFilter(String userId, byte[] data) {
+        this.userId = userId;
+        this.data = data;
+    }
+
+    // Getters and Setters
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
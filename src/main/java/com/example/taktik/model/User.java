@@ -20,6 +20,20 @@ public class User {
     private String avatarUrl;
     private String bio;
 
+    // Denormalized counters, changed only by atomic UPDATEs in the services (see CounterReconciler)
+    @Column(name = "follower_count", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long followerCount = 0L;
+
+    @Column(name = "following_count", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long followingCount = 0L;
+
+    @Column(name = "video_count", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long videoCount = 0L;
+
+    // Likes given by this user
+    @Column(name = "like_count", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long likeCount = 0L;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -99,6 +113,38 @@ public class User {
         this.bio = bio;
     }
 
+    public Long getFollowerCount() {
+        return followerCount;
+    }
+
+    public void setFollowerCount(Long followerCount) {
+        this.followerCount = followerCount;
+    }
+
+    public Long getFollowingCount() {
+        return followingCount;
+    }
+
+    public void setFollowingCount(Long followingCount) {
+        this.followingCount = followingCount;
+    }
+
+    public Long getVideoCount() {
+        return videoCount;
+    }
+
+    public void setVideoCount(Long videoCount) {
+        this.videoCount = videoCount;
+    }
+
+    public Long getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(Long likeCount) {
+        this.likeCount = likeCount;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -6,6 +6,10 @@ import java.time.LocalDateTime;
 import java.util.*;
 
 @Entity
+@Table(indexes = {
+    // Backs the keyset feed query: per-author range scan on (created_at, id)
+    @Index(name = "idx_video_user_created_id", columnList = "user_id, created_at, id")
+})
 public class Video {
 
     @Id
@@ -21,9 +25,17 @@ public class Video {
     @Column(name = "cloudinary_public_id")
     private String cloudinaryPublicId;
 
-    @Column(name = "view_count")
+    // Incremented only by ViewCountBuffer's batched UPDATE, so entity saves never overwrite it
+    @Column(name = "view_count", updatable = false)
     private Long viewCount = 0L;
 
+    // Denormalized counters, changed only by atomic UPDATEs in the like/comment services (see CounterReconciler)
+    @Column(name = "like_count", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long likeCount = 0L;
+
+    @Column(name = "comment_count", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long commentCount = 0L;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -120,6 +132,22 @@ public class Video {
         this.viewCount = viewCount;
     }
 
+    public Long getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(Long likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public Long getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(Long commentCount) {
+        this.commentCount = commentCount;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
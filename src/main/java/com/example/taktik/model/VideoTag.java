@@ -0,0 +1,91 @@
+package com.example.taktik.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// One hashtag of one video, parsed out of the description (see HashtagService).
+// created_at is the video's, so a tag's videos come back newest first from a range scan of the (tag, created_at) index
+@Entity
+@Table(name = "video_tag", indexes = {
+        @Index(name = "idx_video_tag_tag_created", columnList = "tag, created_at, video_id"),
+        @Index(name = "idx_video_tag_video", columnList = "video_id")
+})
+public class VideoTag implements Persistable<String> {
+
+    // "<videoId>|<tag>"
+    @Id
+    private String id;
+
+    @Column(name = "video_id", nullable = false)
+    private String videoId;
+
+    @Column(name = "tag", nullable = false, length = 64)
+    private String tag;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // The id is assigned, so without this save() would merge (SELECT, then INSERT) every new tag
+    @Transient
+    private boolean persisted;
+
+    // Constructors
+    public VideoTag() {}
+
+    public VideoTag(String videoId, String tag, LocalDateTime createdAt) {
+        this.id = idOf(videoId, tag);
+        this.videoId = videoId;
+        this.tag = tag;
+        this.createdAt = createdAt;
+    }
+
+    public static String idOf(String videoId, String tag) {
+        return videoId + "|" + tag;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getVideoId() {
+        return videoId;
+    }
+
+    public void setVideoId(String videoId) {
+        this.videoId = videoId;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.taktik.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Persisted HyperLogLog of the distinct viewers of one video, either for a single day or all time
+// (day is null for the all-time row; see UniqueViewerService)
+@Entity
+@Table(name = "video_viewer_sketch", indexes = {
+        @Index(name = "idx_video_viewer_sketch_video_day", columnList = "video_id, day")
+})
+public class VideoViewerSketch {
+
+    // "<videoId>|<yyyy-MM-dd>" for daily rows, "<videoId>|all" for the all-time row
+    @Id
+    private String id;
+
+    @Column(name = "video_id", nullable = false)
+    private String videoId;
+
+    @Column(name = "day")
+    private LocalDate day;
+
+    @Column(name = "registers", columnDefinition = "bytea")
+    private byte[] registers;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public VideoViewerSketch() {}
+
+    public VideoViewerSketch(String videoId, LocalDate day, byte[] registers) {
+        this.id = idOf(videoId, day);
+        this.videoId = videoId;
+        this.day = day;
+        this.registers = registers;
+    }
+
+    public static String idOf(String videoId, LocalDate day) {
+        return videoId + "|" + (day != null ? day.toString() : "all");
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getVideoId() {
+        return videoId;
+    }
+
+    public void setVideoId(String videoId) {
+        this.videoId = videoId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public byte[] getRegisters() {
+        return registers;
+    }
+
+    public void setRegisters(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -3,12 +3,21 @@ package com.example.taktik.repository;
 import com.example.taktik.model.Comment;
 import com.example.taktik.model.Video;
 import com.example.taktik.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, String> {
@@ -34,6 +43,106 @@ public interface CommentRepository extends JpaRepository<Comment, String> {
     // Find replies by parent comment ID
     List<Comment> findByParentCommentIdOrderByCreatedAtAsc(String parentCommentId);
 
+    // First keyset page of a video's top-level comments, newest first, authors fetched in the same query
+    @Query("SELECT c FROM Comment c LEFT JOIN FETCH c.user WHERE c.video.id = :videoId AND c.parentComment IS NULL " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findTopLevelPage(@Param("videoId") String videoId, Pageable pageable);
+
+    // Keyset page of a video's top-level comments strictly after the (createdAt, id) cursor
+    @Query("SELECT c FROM Comment c LEFT JOIN FETCH c.user WHERE c.video.id = :videoId AND c.parentComment IS NULL " +
+           "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findTopLevelPageAfter(@Param("videoId") String videoId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") String id,
+                                        Pageable pageable);
+
+    // First keyset page of a comment's replies, oldest first
+    @Query("SELECT c FROM Comment c LEFT JOIN FETCH c.user WHERE c.parentComment.id = :parentId " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findRepliesPage(@Param("parentId") String parentId, Pageable pageable);
+
+    // Keyset page of a comment's replies strictly after the (createdAt, id) cursor
+    @Query("SELECT c FROM Comment c LEFT JOIN FETCH c.user WHERE c.parentComment.id = :parentId " +
+           "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findRepliesPageAfter(@Param("parentId") String parentId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") String id,
+                                       Pageable pageable);
+
+    // Bounded comment subtrees in one recursive query. Each level keeps at most :maxChildren replies per
+    // comment (oldest first) down to :maxDepth, authors are joined in, and at most :maxNodes rows are read.
+    // Rows: id, parent_comment_id, content, created_at, updated_at, depth, sibling_rank,
+    //       user id, username, avatar_url, bio, user created_at, user updated_at, reply_count, last_reply_at
+    String TREE_COLUMNS = "c.id, c.parent_comment_id, c.content, c.created_at, c.updated_at, c.user_id, c.reply_count, c.last_reply_at, ";
+    String TREE_LEVELS =
+            "UNION ALL " +
+            "SELECT r.id, r.parent_comment_id, r.content, r.created_at, r.updated_at, r.user_id, r.reply_count, r.last_reply_at, " +
+            "t.depth + 1, r.sibling_rank " +
+            "FROM tree t CROSS JOIN LATERAL (" +
+            "  SELECT " + TREE_COLUMNS +
+            "         ROW_NUMBER() OVER (ORDER BY c.created_at, c.id) AS sibling_rank " +
+            "  FROM comment c WHERE c.parent_comment_id = t.id " +
+            "  ORDER BY c.created_at, c.id LIMIT :maxChildren) r " +
+            "WHERE t.depth < :maxDepth) ";
+    String TREE_SELECT =
+            "SELECT t.id, t.parent_comment_id, t.content, t.created_at, t.updated_at, t.depth, t.sibling_rank, " +
+            "u.id AS user_id, u.username, u.avatar_url, u.bio, u.created_at AS user_created_at, u.updated_at AS user_updated_at, " +
+            "t.reply_count, t.last_reply_at " +
+            "FROM tree t LEFT JOIN users u ON u.id = t.user_id LIMIT :maxNodes";
+
+    // Subtree rooted at one comment
+    @Query(value = "WITH RECURSIVE tree AS (" +
+                   "SELECT " + TREE_COLUMNS + "0 AS depth, CAST(1 AS bigint) AS sibling_rank FROM comment c WHERE c.id = :rootId " +
+                   TREE_LEVELS + TREE_SELECT,
+           nativeQuery = true)
+    List<Object[]> findSubtreeRows(@Param("rootId") String rootId,
+                                   @Param("maxDepth") int maxDepth,
+                                   @Param("maxChildren") int maxChildren,
+                                   @Param("maxNodes") int maxNodes);
+
+    // Newest :maxRoots top-level comments of a video, each with its subtree
+    @Query(value = "WITH RECURSIVE tree AS (" +
+                   "(SELECT " + TREE_COLUMNS + "0 AS depth, ROW_NUMBER() OVER (ORDER BY c.created_at DESC, c.id DESC) AS sibling_rank " +
+                   "FROM comment c WHERE c.video_id = :videoId AND c.parent_comment_id IS NULL " +
+                   "ORDER BY c.created_at DESC, c.id DESC LIMIT :maxRoots) " +
+                   TREE_LEVELS + TREE_SELECT,
+           nativeQuery = true)
+    List<Object[]> findVideoTreeRows(@Param("videoId") String videoId,
+                                     @Param("maxRoots") int maxRoots,
+                                     @Param("maxDepth") int maxDepth,
+                                     @Param("maxChildren") int maxChildren,
+                                     @Param("maxNodes") int maxNodes);
+
+    // The first :n replies (oldest first) of each of the given comments in one windowed query, as (parentId, id) rows
+    @Query(value = "SELECT r.parent_comment_id, r.id FROM (" +
+                   "SELECT c.parent_comment_id, c.id, " +
+                   "ROW_NUMBER() OVER (PARTITION BY c.parent_comment_id ORDER BY c.created_at, c.id) AS rn " +
+                   "FROM comment c WHERE c.parent_comment_id IN (:parentIds)) r " +
+                   "WHERE r.rn <= :n",
+           nativeQuery = true)
+    List<Object[]> findFirstReplyIds(@Param("parentIds") Collection<String> parentIds, @Param("n") int n);
+
+    // Comments by id with their authors, oldest first
+    @Query("SELECT c FROM Comment c LEFT JOIN FETCH c.user WHERE c.id IN :ids ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findAllWithUserByIdIn(@Param("ids") Collection<String> ids);
+
+    // Atomic reply-counter updates; run inside the caller's transaction
+    @Modifying
+    @Query(value = "UPDATE comment SET reply_count = reply_count + 1, " +
+                   "last_reply_at = GREATEST(last_reply_at, :repliedAt) WHERE id = :id",
+           nativeQuery = true)
+    int recordReply(@Param("id") String id, @Param("repliedAt") LocalDateTime repliedAt);
+
+    // Take back a reply that is about to be deleted; the newest remaining reply becomes last_reply_at
+    @Modifying
+    @Query(value = "UPDATE comment SET reply_count = reply_count - 1, " +
+                   "last_reply_at = (SELECT MAX(r.created_at) FROM comment r WHERE r.parent_comment_id = :id AND r.id <> :replyId) " +
+                   "WHERE id = :id",
+           nativeQuery = true)
+    int removeReply(@Param("id") String id, @Param("replyId") String replyId);
+
     // Count comments for a video
     long countByVideo(Video video);
 
@@ -43,12 +152,38 @@ public interface CommentRepository extends JpaRepository<Comment, String> {
     // Count replies for a comment
     long countByParentComment(Comment parentComment);
 
+    // Ids of the direct replies to any of the given comments
+    @Query("SELECT c.id FROM Comment c WHERE c.parentComment.id IN :parentIds")
+    List<String> findReplyIdsByParentIds(@Param("parentIds") Collection<String> parentIds);
+
+    // Comments per video since a point in time, as (videoId, count) rows
+    @Query("SELECT c.video.id, COUNT(c) FROM Comment c WHERE c.video.id IN :videoIds AND c.createdAt >= :since GROUP BY c.video.id")
+    List<Object[]> countRecentCommentsByVideo(@Param("videoIds") Collection<String> videoIds, @Param("since") LocalDateTime since);
+
     // Find recent comments by user
     List<Comment> findByUserOrderByCreatedAtDesc(User user);
 
-    // Custom query to find comments with content containing keyword
-    @Query("SELECT c FROM Comment c WHERE c.content LIKE %:keyword% ORDER BY c.createdAt DESC")
-    List<Comment> findByContentContaining(@Param("keyword") String keyword);
+    // Full-text search over the GIN-indexed search_vector (see schema.sql), best matches first, authors joined.
+    // Rows: id, parent_comment_id, content, created_at, updated_at, rank,
+    //       user id, username, avatar_url, bio, user created_at, user updated_at, reply_count, last_reply_at
+    String SEARCH_SELECT =
+            "SELECT c.id, c.parent_comment_id, c.content, c.created_at, c.updated_at, ts_rank_cd(c.search_vector, q) AS rank, " +
+            "u.id AS user_id, u.username, u.avatar_url, u.bio, u.created_at AS user_created_at, u.updated_at AS user_updated_at, " +
+            "c.reply_count, c.last_reply_at " +
+            "FROM comment c CROSS JOIN websearch_to_tsquery('simple', :query) q LEFT JOIN users u ON u.id = c.user_id " +
+            "WHERE c.search_vector @@ q ";
+    String SEARCH_ORDER = "ORDER BY rank DESC, c.created_at DESC, c.id LIMIT :limit OFFSET :offset";
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "50"))
+    @Query(value = SEARCH_SELECT + SEARCH_ORDER, nativeQuery = true)
+    Stream<Object[]> searchRows(@Param("query") String query, @Param("limit") int limit, @Param("offset") int offset);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "50"))
+    @Query(value = SEARCH_SELECT + "AND c.video_id = :videoId " + SEARCH_ORDER, nativeQuery = true)
+    Stream<Object[]> searchRowsInVideo(@Param("query") String query,
+                                       @Param("videoId") String videoId,
+                                       @Param("limit") int limit,
+                                       @Param("offset") int offset);
 
     // Find all comments for videos by a specific user
     @Query("SELECT c FROM Comment c WHERE c.video.user.id = :userId ORDER BY c.createdAt DESC")
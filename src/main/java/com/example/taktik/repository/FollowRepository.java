@@ -3,10 +3,13 @@ package com.example.taktik.repository;
 import com.example.taktik.model.Follow;
 import com.example.taktik.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -57,6 +60,34 @@ public interface FollowRepository extends JpaRepository<Follow, String> {
     @Query("SELECT f.follower FROM Follow f WHERE f.following.id = :userId ORDER BY f.createdAt DESC")
     List<User> findFollowerUsers(@Param("userId") String userId);
 
+    // Get IDs of followers of a user (fan-out targets)
+    @Query("SELECT f.follower.id FROM Follow f WHERE f.following.id = :userId")
+    List<String> findFollowerIds(@Param("userId") String userId);
+
+    // Get IDs of users that a user is following
+    @Query("SELECT f.following.id FROM Follow f WHERE f.follower.id = :userId")
+    List<String> findFollowingIds(@Param("userId") String userId);
+
+    // Insert a follow unless the (follower_id, following_id) unique constraint already holds one; returns rows inserted
+    @Modifying
+    @Query(value = "INSERT INTO follow (id, follower_id, following_id, created_at) VALUES (:id, :followerId, :followingId, :createdAt) " +
+                   "ON CONFLICT (follower_id, following_id) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id,
+                       @Param("followerId") String followerId,
+                       @Param("followingId") String followingId,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    // Delete a follow in one statement; returns rows deleted (0 or 1). Clears the persistence context so no
+    // loaded Follow outlives its row
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM follow WHERE follower_id = :followerId AND following_id = :followingId", nativeQuery = true)
+    int deleteIfPresent(@Param("followerId") String followerId, @Param("followingId") String followingId);
+
+    // Which of the given users a user follows, in one query
+    @Query("SELECT f.following.id FROM Follow f WHERE f.follower.id = :followerId AND f.following.id IN :userIds")
+    List<String> findFollowingIdsAmong(@Param("followerId") String followerId, @Param("userIds") Collection<String> userIds);
+
     // Get mutual followers (users who follow each other)
     @Query("SELECT f1.following FROM Follow f1 WHERE f1.follower.id = :userId AND EXISTS (SELECT f2 FROM Follow f2 WHERE f2.follower.id = f1.following.id AND f2.following.id = :userId)")
     List<User> findMutualFollows(@Param("userId") String userId);
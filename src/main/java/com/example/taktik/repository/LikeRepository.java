@@ -3,11 +3,14 @@ package com.example.taktik.repository;
 import com.example.taktik.model.Like;
 import com.example.taktik.model.Video;
 import com.example.taktik.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -56,6 +59,14 @@ public interface LikeRepository extends JpaRepository<Like, String> {
     // Check if like exists by user and video IDs using relationship navigation
     boolean existsByUser_IdAndVideo_Id(String userId, String videoId);
 
+    // Which of the given videos a user has liked, in one query
+    @Query("SELECT l.video.id FROM Like l WHERE l.user.id = :userId AND l.video.id IN :videoIds")
+    List<String> findLikedVideoIds(@Param("userId") String userId, @Param("videoIds") Collection<String> videoIds);
+
+    // Every video a user has liked
+    @Query("SELECT l.video.id FROM Like l WHERE l.user.id = :userId")
+    List<String> findAllLikedVideoIds(@Param("userId") String userId, Pageable pageable);
+
     // Find recent likes by user
     List<Like> findByUserOrderByCreatedAtDesc(User user);
 
@@ -63,6 +74,14 @@ public interface LikeRepository extends JpaRepository<Like, String> {
     @Query("SELECT l.video FROM Like l WHERE l.user.id = :userId ORDER BY l.createdAt DESC")
     List<Video> findLikedVideosByUser(@Param("userId") String userId);
 
+    // Likes per video since a point in time, as (videoId, count) rows
+    @Query("SELECT l.video.id, COUNT(l) FROM Like l WHERE l.video.id IN :videoIds AND l.createdAt >= :since GROUP BY l.video.id")
+    List<Object[]> countRecentLikesByVideo(@Param("videoIds") Collection<String> videoIds, @Param("since") LocalDateTime since);
+
+    // How often a user liked each author's videos, as (authorId, count) rows
+    @Query("SELECT l.video.user.id, COUNT(l) FROM Like l WHERE l.user.id = :userId AND l.video.user.id IN :authorIds GROUP BY l.video.user.id")
+    List<Object[]> countLikesByUserPerAuthor(@Param("userId") String userId, @Param("authorIds") Collection<String> authorIds);
+
     // Find users who liked a video
     @Query("SELECT l.user FROM Like l WHERE l.video.id = :videoId ORDER BY l.createdAt DESC")
     List<User> findUsersWhoLikedVideo(@Param("videoId") String videoId);
@@ -0,0 +1,9 @@
+package com.example.taktik.repository;
+
+import com.example.taktik.model.SeenFilter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SeenFilterRepository extends JpaRepository<SeenFilter, String> {
+}
@@ -1,16 +1,72 @@
 package com.example.taktik.repository;
 
 import com.example.taktik.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByUsername(String username);
 
-    // Search users by username containing keyword (case insensitive)
-    List<User> findByUsernameContainingIgnoreCase(String username);
+    // Search users by username containing keyword (case insensitive); served by the lower(username) trigram index
+    @Query("SELECT u FROM User u WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :keyword, '%')) ORDER BY u.username")
+    List<User> findByUsernameContaining(@Param("keyword") String keyword, Pageable pageable);
+
+    // Prefix match, most-followed first; the typeahead fallback while the in-memory trie is loading
+    @Query("SELECT u FROM User u WHERE LOWER(u.username) LIKE LOWER(CONCAT(:prefix, '%')) ORDER BY u.followerCount DESC, u.id")
+    List<User> findByUsernamePrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    // Fuzzy username search over the lower(username) trigram index in schema.sql, most similar first.
+    // Keyset-paginated on (score, id): pass the last row's score and id, or 2 and '' for the first page.
+    // Rows: id, username, avatar_url, bio, created_at, updated_at, score
+    @Query(value = "SELECT * FROM (" +
+           "SELECT u.id, u.username, u.avatar_url, u.bio, u.created_at, u.updated_at, " +
+           "similarity(lower(u.username), lower(:query)) AS score " +
+           "FROM users u WHERE lower(u.username) % lower(:query)) h " +
+           "WHERE h.score < :afterScore OR (h.score = :afterScore AND h.id > :afterId) " +
+           "ORDER BY h.score DESC, h.id LIMIT :limit", nativeQuery = true)
+    List<Object[]> fuzzySearchRows(@Param("query") String query, @Param("afterScore") double afterScore,
+                                   @Param("afterId") String afterId, @Param("limit") int limit);
+
+    // (id, username, follower_count, avatar_url) of every user, for building the typeahead trie
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.id, u.username, u.followerCount, u.avatarUrl FROM User u")
+    Stream<Object[]> streamTypeaheadFields();
+
+    // Denormalized follower count, as of the caller's transaction
+    @Query(value = "SELECT follower_count FROM users WHERE id = :id", nativeQuery = true)
+    Long findFollowerCount(@Param("id") String id);
+
+    // IDs of users with at least the given number of followers, from the denormalized counter
+    @Query("SELECT u.id FROM User u WHERE u.followerCount >= :threshold")
+    List<String> findIdsWithFollowerCountAtLeast(@Param("threshold") long threshold);
+
+    // Atomic counter updates; run inside the caller's transaction
+    @Modifying
+    @Query(value = "UPDATE users SET follower_count = follower_count + :delta WHERE id = :id", nativeQuery = true)
+    int addFollowerCount(@Param("id") String id, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "UPDATE users SET following_count = following_count + :delta WHERE id = :id", nativeQuery = true)
+    int addFollowingCount(@Param("id") String id, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "UPDATE users SET video_count = video_count + :delta WHERE id = :id", nativeQuery = true)
+    int addVideoCount(@Param("id") String id, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "UPDATE users SET like_count = like_count + :delta WHERE id = :id", nativeQuery = true)
+    int addLikeCount(@Param("id") String id, @Param("delta") long delta);
 }
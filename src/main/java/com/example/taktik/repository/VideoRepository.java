@@ -2,12 +2,22 @@ package com.example.taktik.repository;
 
 import com.example.taktik.model.Video;
 import com.example.taktik.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface VideoRepository extends JpaRepository<Video, String> {
@@ -21,15 +31,46 @@ public interface VideoRepository extends JpaRepository<Video, String> {
     // Find videos ordered by creation date (newest first)
     List<Video> findAllByOrderByCreatedAtDesc();
 
-    // Find videos by title containing keyword (case insensitive)
-    List<Video> findByTitleContainingIgnoreCase(String title);
+    // Page of videos whose title or description contains the keyword, newest first. Used while the in-memory
+    // search index is loading; the lower() trigram indexes in schema.sql serve the LIKE
+    @Query("SELECT v FROM Video v WHERE LOWER(v.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "OR LOWER(v.description) LIKE LOWER(CONCAT('%', :keyword, '%')) ORDER BY v.createdAt DESC, v.id DESC")
+    List<Video> findByKeyword(@Param("keyword") String keyword, Pageable pageable);
+
+    // Fuzzy search over the lower(title) and lower(description) trigram indexes in schema.sql: titles by
+    // similarity, descriptions by word similarity (the query may match any part), at half weight.
+    // Best match first, keyset-paginated on (score, id): pass the last row's score and id, or 2 and '' for
+    // the first page. Rows: id, title, video_url, description, thumbnail_url, cloudinary_public_id,
+    // view_count, created_at, updated_at, score
+    @Query(value = "SELECT * FROM (" +
+           "SELECT v.id, v.title, v.video_url, v.description, v.thumbnail_url, v.cloudinary_public_id, " +
+           "v.view_count, v.created_at, v.updated_at, " +
+           "GREATEST(similarity(lower(v.title), lower(:query)), " +
+           "0.5 * word_similarity(lower(:query), lower(v.description))) AS score " +
+           "FROM video v WHERE lower(v.title) % lower(:query) OR lower(:query) <% lower(v.description)) h " +
+           "WHERE h.score < :afterScore OR (h.score = :afterScore AND h.id > :afterId) " +
+           "ORDER BY h.score DESC, h.id LIMIT :limit", nativeQuery = true)
+    List<Object[]> fuzzySearchRows(@Param("query") String query, @Param("afterScore") double afterScore,
+                                   @Param("afterId") String afterId, @Param("limit") int limit);
 
-    // Find videos by description containing keyword (case insensitive)
-    List<Video> findByDescriptionContainingIgnoreCase(String description);
+    // (id, title, description) of every video, for building the search index
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT v.id, v.title, v.description FROM Video v")
+    Stream<Object[]> streamSearchFields();
 
     // Find top videos by view count
     List<Video> findTop10ByOrderByViewCountDesc();
 
+    // Top videos by all-time views, used to seed the trending leaderboard
+    List<Video> findTop100ByOrderByViewCountDesc();
+
+    // Page of videos by all-time views
+    List<Video> findAllByOrderByViewCountDesc(Pageable pageable);
+
+    // Newest videos across all authors (ranking candidates for users who follow nobody)
+    @Query("SELECT v FROM Video v ORDER BY v.createdAt DESC, v.id DESC")
+    List<Video> findNewest(Pageable pageable);
+
     // Custom query to find videos with pagination for feed
     @Query("SELECT v FROM Video v ORDER BY v.createdAt DESC")
     List<Video> findVideosForFeed();
@@ -38,9 +79,87 @@ public interface VideoRepository extends JpaRepository<Video, String> {
     @Query("SELECT v FROM Video v WHERE v.user.id IN :userIds ORDER BY v.createdAt DESC")
     List<Video> findByUserIdInOrderByCreatedAtDesc(@Param("userIds") List<String> userIds);
 
+    // First keyset page of the following feed (newest first)
+    @Query("SELECT v FROM Video v WHERE v.user.id IN (SELECT f.following.id FROM Follow f WHERE f.follower.id = :userId) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<Video> findFollowingFeedPage(@Param("userId") String userId, Pageable pageable);
+
+    // Next keyset page of the following feed, strictly after the (createdAt, id) cursor
+    @Query("SELECT v FROM Video v WHERE v.user.id IN (SELECT f.following.id FROM Follow f WHERE f.follower.id = :userId) " +
+           "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<Video> findFollowingFeedPageAfter(@Param("userId") String userId,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") String id,
+                                           Pageable pageable);
+
+    // Keyset page of the following feed restricted to pushed (non-excluded) authors
+    @Query("SELECT v FROM Video v WHERE v.user.id IN (SELECT f.following.id FROM Follow f WHERE f.follower.id = :userId) " +
+           "AND v.user.id NOT IN :excludedAuthorIds " +
+           "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<Video> findFollowingFeedPageAfterExcluding(@Param("userId") String userId,
+                                                    @Param("excludedAuthorIds") Collection<String> excludedAuthorIds,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") String id,
+                                                    Pageable pageable);
+
+    // Newest videos carrying a hashtag: a range scan of the video_tag (tag, created_at) index
+    @Query("SELECT v FROM VideoTag t JOIN Video v ON v.id = t.videoId WHERE t.tag = :tag " +
+           "ORDER BY t.createdAt DESC, t.videoId DESC")
+    List<Video> findByTagPage(@Param("tag") String tag, Pageable pageable);
+
+    // Next keyset page of a hashtag's videos, strictly after the (createdAt, id) cursor
+    @Query("SELECT v FROM VideoTag t JOIN Video v ON v.id = t.videoId WHERE t.tag = :tag " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.videoId < :id)) " +
+           "ORDER BY t.createdAt DESC, t.videoId DESC")
+    List<Video> findByTagPageAfter(@Param("tag") String tag,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") String id,
+                                   Pageable pageable);
+
+    // (id, description, created_at) of videos whose description may carry hashtags, for the one-off tag backfill
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT v.id, v.description, v.createdAt FROM Video v WHERE v.description LIKE '%#%'")
+    Stream<Object[]> streamHashtagCandidates();
+
+    // Keyset page across a set of authors, strictly after the (createdAt, id) cursor
+    @Query("SELECT v FROM Video v WHERE v.user.id IN :authorIds " +
+           "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<Video> findByAuthorsPageAfter(@Param("authorIds") Collection<String> authorIds,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") String id,
+                                       Pageable pageable);
+
+    // (id, authorId, createdAt) keys of an author's newest videos
+    @Query("SELECT v.id, v.user.id, v.createdAt FROM Video v WHERE v.user.id = :userId ORDER BY v.createdAt DESC, v.id DESC")
+    List<Object[]> findRecentVideoKeysByUser(@Param("userId") String userId, Pageable pageable);
+
+    // (id, authorId, createdAt) keys of every author's newest videos, limited per author, for warm-loading
+    @Query(value = "SELECT id, user_id, created_at FROM (" +
+                   "SELECT v.id, v.user_id, v.created_at, " +
+                   "ROW_NUMBER() OVER (PARTITION BY v.user_id ORDER BY v.created_at DESC, v.id DESC) AS rn " +
+                   "FROM video v WHERE v.user_id IS NOT NULL) ranked " +
+                   "WHERE rn <= :perAuthor ORDER BY user_id, created_at DESC, id DESC",
+           nativeQuery = true)
+    Stream<Object[]> streamRecentVideoKeysPerAuthor(@Param("perAuthor") int perAuthor);
+
     // Count videos by user
     long countByUser(User user);
 
+    // Atomic counter updates; run inside the caller's transaction
+    @Modifying
+    @Query(value = "UPDATE video SET like_count = like_count + :delta WHERE id = :id", nativeQuery = true)
+    int addLikeCount(@Param("id") String id, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "UPDATE video SET comment_count = comment_count + :delta WHERE id = :id", nativeQuery = true)
+    int addCommentCount(@Param("id") String id, @Param("delta") long delta);
+
+    @Query("SELECT v.likeCount FROM Video v WHERE v.id = :id")
+    Optional<Long> findLikeCount(@Param("id") String id);
+
     // Find videos with minimum view count
     List<Video> findByViewCountGreaterThanEqualOrderByViewCountDesc(Long minViews);
 }
@@ -0,0 +1,32 @@
+package com.example.taktik.repository;
+
+import com.example.taktik.model.VideoTag;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+@Repository
+public interface VideoTagRepository extends JpaRepository<VideoTag, String> {
+
+    List<VideoTag> findByVideoId(String videoId);
+
+    // Delete every tag of a video in one statement; runs inside the caller's transaction
+    @Modifying
+    @Query("DELETE FROM VideoTag t WHERE t.videoId = :videoId")
+    int deleteByVideoId(@Param("videoId") String videoId);
+
+    // (tag, created_at) of tags on videos created since the given time, for seeding the trending counters
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.tag, t.createdAt FROM VideoTag t WHERE t.createdAt >= :since")
+    Stream<Object[]> streamCreatedSince(@Param("since") LocalDateTime since);
+}
@@ -0,0 +1,25 @@
+package com.example.taktik.repository;
+
+import com.example.taktik.model.VideoViewerSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface VideoViewerSketchRepository extends JpaRepository<VideoViewerSketch, String> {
+
+    // Daily sketches of a video within an inclusive date range
+    @Query("SELECT s FROM VideoViewerSketch s WHERE s.videoId = :videoId AND s.day BETWEEN :from AND :to")
+    List<VideoViewerSketch> findDaily(@Param("videoId") String videoId,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+
+    // Delete every sketch of a video
+    @Transactional
+    void deleteByVideoId(String videoId);
+}
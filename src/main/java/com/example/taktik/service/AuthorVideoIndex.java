@@ -0,0 +1,189 @@
+package com.example.taktik.service;
+
+import com.example.taktik.model.Video;
+import com.example.taktik.repository.VideoRepository;
+import com.example.taktik.util.FeedMerger;
+import com.example.taktik.util.KeysetCursor;
+import com.example.taktik.util.RecentVideoList;
+import com.example.taktik.util.VideoOrdinals;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// In-memory index of every author's last N videos (ordinals + timestamps in primitive arrays).
+// Feeds are built by k-way merging the followed authors' lists instead of sorting in Postgres.
+@Service
+public class AuthorVideoIndex {
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private VideoOrdinals videoOrdinals;
+
+    @Value("${feed.author-index.capacity:100}")
+    private int capacity;
+
+    private final Map<String, RecentVideoList> recentVideos = new ConcurrentHashMap<>();
+
+    // Once warm, an author missing from the map has no videos
+    private volatile boolean warm;
+
+    // Creates and deletes seen while the warm load runs, replayed over its snapshot, which may predate them.
+    // Guarded by itself; warm only flips while holding it
+    private final List<Runnable> writesDuringWarm = new ArrayList<>();
+
+    // Warm-load every author's newest videos at startup
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmLoad() {
+        long started = System.currentTimeMillis();
+        int[] ordinals = new int[capacity];
+        long[] createdAt = new long[capacity];
+        String currentAuthor = null;
+        int count = 0;
+        boolean truncated = false;
+
+        try (Stream<Object[]> rows = videoRepository.streamRecentVideoKeysPerAuthor(capacity + 1)) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                String authorId = (String) row[1];
+                if (!authorId.equals(currentAuthor)) {
+                    store(currentAuthor, ordinals, createdAt, count, truncated);
+                    currentAuthor = authorId;
+                    count = 0;
+                    truncated = false;
+                }
+                if (count == capacity) {
+                    truncated = true;
+                    continue;
+                }
+                ordinals[count] = videoOrdinals.intern((String) row[0]);
+                createdAt[count] = KeysetCursor.toEpochNanos(toLocalDateTime(row[2]));
+                count++;
+            }
+        }
+        store(currentAuthor, ordinals, createdAt, count, truncated);
+
+        List<Runnable> deferred;
+        synchronized (writesDuringWarm) {
+            warm = true;
+            deferred = new ArrayList<>(writesDuringWarm);
+            writesDuringWarm.clear();
+        }
+        deferred.forEach(Runnable::run);
+
+        System.out.println("Author video index: loaded " + recentVideos.size() + " authors in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    // Get an author's newest videos
+    public RecentVideoList getRecentVideos(String authorId) {
+        RecentVideoList list = recentVideos.get(authorId);
+        if (list != null) {
+            return list;
+        }
+        if (warm) {
+            return RecentVideoList.EMPTY;
+        }
+        return recentVideos.computeIfAbsent(authorId, this::load);
+    }
+
+    // Merge the given authors' videos into one newest-first page after the cursor.
+    // FeedMerger.sourceAt indexes into authorIds.
+    public FeedMerger mergeNewest(List<String> authorIds, KeysetCursor after, int limit) {
+        RecentVideoList[] sources = new RecentVideoList[authorIds.size()];
+        int sourceCount = 0;
+        for (String authorId : authorIds) {
+            sources[sourceCount++] = getRecentVideos(authorId);
+        }
+        return new FeedMerger(limit).merge(sources, sourceCount, after, videoOrdinals);
+    }
+
+    // Add a newly created video
+    public void onVideoCreated(Video video) {
+        if (video.getUser() == null || video.getCreatedAt() == null) {
+            return;
+        }
+        int ordinal = videoOrdinals.intern(video.getId());
+        long createdAt = KeysetCursor.toEpochNanos(video.getCreatedAt());
+        applyOrDefer(() -> recentVideos.compute(video.getUser().getId(), (authorId, list) -> {
+            if (list == null) {
+                // Not loaded yet: a lazy load picks the video up from the database, and the warm load's
+                // snapshot gets it on replay
+                return warm ? RecentVideoList.EMPTY.with(ordinal, createdAt, capacity, videoOrdinals) : null;
+            }
+            return list.with(ordinal, createdAt, capacity, videoOrdinals);
+        }));
+    }
+
+    // Remove a deleted video
+    public void onVideoDeleted(String authorId, String videoId) {
+        int ordinal = videoOrdinals.find(videoId);
+        if (authorId == null || ordinal < 0) {
+            return;
+        }
+        applyOrDefer(() -> recentVideos.computeIfPresent(authorId, (id, list) -> list.without(ordinal)));
+    }
+
+    public String videoIdOf(int ordinal) {
+        return videoOrdinals.idOf(ordinal);
+    }
+
+    public int getAuthorCount() {
+        return recentVideos.size();
+    }
+
+    // Apply a write now (to lazily loaded authors) and, until warm, again after the warm load stores its snapshot.
+    // Writes are idempotent, so replaying one that the snapshot already reflects is harmless
+    private void applyOrDefer(Runnable write) {
+        if (!warm) {
+            synchronized (writesDuringWarm) {
+                if (!warm) {
+                    writesDuringWarm.add(write);
+                }
+            }
+        }
+        write.run();
+    }
+
+    private void store(String authorId, int[] ordinals, long[] createdAt, int count, boolean truncated) {
+        if (authorId == null || count == 0) {
+            return;
+        }
+        RecentVideoList list = new RecentVideoList(
+                Arrays.copyOf(ordinals, count), Arrays.copyOf(createdAt, count), truncated);
+        recentVideos.putIfAbsent(authorId, list);
+    }
+
+    private RecentVideoList load(String authorId) {
+        List<Object[]> keys = videoRepository.findRecentVideoKeysByUser(authorId, PageRequest.of(0, capacity + 1));
+        int count = Math.min(keys.size(), capacity);
+        int[] ordinals = new int[count];
+        long[] createdAt = new long[count];
+        for (int i = 0; i < count; i++) {
+            ordinals[i] = videoOrdinals.intern((String) keys.get(i)[0]);
+            createdAt[i] = KeysetCursor.toEpochNanos((LocalDateTime) keys.get(i)[2]);
+        }
+        return new RecentVideoList(ordinals, createdAt, keys.size() > capacity);
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
@@ -6,12 +6,21 @@ import com.example.taktik.model.Video;
 import com.example.taktik.repository.CommentRepository;
 import com.example.taktik.repository.UserRepository;
 import com.example.taktik.repository.VideoRepository;
+import com.example.taktik.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class CommentService {
@@ -25,6 +34,9 @@ public class CommentService {
     @Autowired
     private VideoRepository videoRepository;
 
+    @Autowired
+    private TrendingService trendingService;
+
     // Get comments by video ID
     public List<Comment> getCommentsByVideoId(String videoId) {
         return commentRepository.findByVideoId(videoId);
@@ -35,17 +47,69 @@ public class CommentService {
         return commentRepository.findByVideoIdAndParentCommentIsNullOrderByCreatedAtDesc(videoId);
     }
 
+    // Get one keyset page of a video's top-level comments, newest first
+    public List<Comment> getTopLevelCommentsPage(String videoId, String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        PageRequest page = PageRequest.of(0, limit);
+        if (after == null) {
+            return commentRepository.findTopLevelPage(videoId, page);
+        }
+        return commentRepository.findTopLevelPageAfter(videoId, after.getCreatedAt(), after.getId(), page);
+    }
+
     // Get replies by comment ID
     public List<Comment> getRepliesByCommentId(String commentId) {
         return commentRepository.findByParentCommentIdOrderByCreatedAtAsc(commentId);
     }
 
+    // Get one keyset page of a comment's replies, oldest first
+    public List<Comment> getRepliesPage(String commentId, String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        PageRequest page = PageRequest.of(0, limit);
+        if (after == null) {
+            return commentRepository.findRepliesPage(commentId, page);
+        }
+        return commentRepository.findRepliesPageAfter(commentId, after.getCreatedAt(), after.getId(), page);
+    }
+
+    // The first n replies (oldest first) of each parent on a page, with authors, in two statements in total
+    public Map<String, List<Comment>> getReplyPreviews(Collection<String> parentIds, int n) {
+        Map<String, List<Comment>> previews = new HashMap<>();
+        if (parentIds.isEmpty() || n <= 0) {
+            return previews;
+        }
+        List<Object[]> rows = commentRepository.findFirstReplyIds(parentIds, n);
+        if (rows.isEmpty()) {
+            return previews;
+        }
+        Map<String, String> parentOf = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            parentOf.put((String) row[1], (String) row[0]);
+        }
+        // Replies come back oldest first, so each parent's list ends up in order
+        for (Comment reply : commentRepository.findAllWithUserByIdIn(parentOf.keySet())) {
+            previews.computeIfAbsent(parentOf.get(reply.getId()), id -> new ArrayList<>()).add(reply);
+        }
+        return previews;
+    }
+
+    // Flattened rows of the bounded subtree under a comment, authors included, in one query
+    public List<Object[]> getCommentTreeRows(String commentId, int maxDepth, int maxChildren, int maxNodes) {
+        return commentRepository.findSubtreeRows(commentId, maxDepth, maxChildren, maxNodes);
+    }
+
+    // Flattened rows of a video's newest top-level comments and their bounded subtrees, in one query
+    public List<Object[]> getVideoCommentTreeRows(String videoId, int maxRoots, int maxDepth, int maxChildren, int maxNodes) {
+        return commentRepository.findVideoTreeRows(videoId, maxRoots, maxDepth, maxChildren, maxNodes);
+    }
+
     // Get comment by ID
     public Optional<Comment> getCommentById(String id) {
         return commentRepository.findById(id);
     }
 
     // Create new comment
+    @Transactional
     public Comment createComment(String content, String userId, String videoId, String parentCommentId) {
         // Validate user exists
         Optional<User> user = userRepository.findById(userId);
@@ -74,7 +138,13 @@ public class CommentService {
             comment.setParentComment(parentComment.get());
         }
 
-        return commentRepository.save(comment);
+        Comment savedComment = commentRepository.save(comment);
+        videoRepository.addCommentCount(videoId, 1);
+        if (comment.getParentComment() != null) {
+            commentRepository.recordReply(comment.getParentComment().getId(), savedComment.getCreatedAt());
+        }
+        trendingService.onComment(videoId);
+        return savedComment;
     }
 
     // Update comment
@@ -89,12 +159,23 @@ public class CommentService {
         return commentRepository.save(comment);
     }
 
-    // Delete comment
+    // Delete comment (and, by cascade, its replies)
+    @Transactional
     public void deleteComment(String id) {
-        if (!commentRepository.existsById(id)) {
+        Optional<Comment> comment = commentRepository.findById(id);
+        if (comment.isEmpty()) {
             throw new RuntimeException("Comment not found");
         }
+        String videoId = comment.get().getVideo() != null ? comment.get().getVideo().getId() : null;
+        long removed = 1 + countDescendants(comment.get());
+
+        if (comment.get().getParentComment() != null) {
+            commentRepository.removeReply(comment.get().getParentComment().getId(), id);
+        }
         commentRepository.deleteById(id);
+        if (videoId != null) {
+            videoRepository.addCommentCount(videoId, -removed);
+        }
     }
 
     // Get comments by user ID
@@ -106,9 +187,15 @@ public class CommentService {
         return commentRepository.findByUserOrderByCreatedAtDesc(user.get());
     }
 
-    // Search comments by content
-    public List<Comment> searchCommentsByContent(String keyword) {
-        return commentRepository.findByContentContaining(keyword);
+    // Full-text search of comment content, optionally within one video, handing each ranked row to the sink
+    // as it is read so a page is never held in memory
+    @Transactional(readOnly = true)
+    public void searchComments(String query, String videoId, int limit, int offset, Consumer<Object[]> sink) {
+        try (Stream<Object[]> rows = videoId == null
+                ? commentRepository.searchRows(query, limit, offset)
+                : commentRepository.searchRowsInVideo(query, videoId, limit, offset)) {
+            rows.forEach(sink);
+        }
     }
 
     // Get comment count by video ID
@@ -122,7 +209,18 @@ public class CommentService {
         if (comment.isEmpty()) {
             throw new RuntimeException("Comment not found");
         }
-        return commentRepository.countByParentComment(comment.get());
+        return comment.get().getReplyCount();
+    }
+
+    // Replies at any depth below a comment, one query per level
+    private long countDescendants(Comment comment) {
+        long total = 0;
+        List<String> level = List.of(comment.getId());
+        while (!level.isEmpty()) {
+            level = commentRepository.findReplyIdsByParentIds(level);
+            total += level.size();
+        }
+        return total;
     }
 
     // Check if comment exists
@@ -0,0 +1,168 @@
+package com.example.taktik.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Repairs drift in the denormalized counter columns on video, users and comment.
+// The services keep counters exact with atomic "+ delta" updates in the same transaction as the row they
+// count, but cascaded deletes and races between check and insert can still skew them. Each pass walks the
+// counted table in id order, a small batch per transaction: it locks the batch's rows, recounts them from the
+// source table and rewrites only the rows that disagree.
+@Service
+public class CounterReconciler {
+
+    // counter -> table holding it and the statement that rewrites the rows (ids in the ? array) whose counter
+    // differs from the true count
+    private static final Map<String, Repair> REPAIRS = new LinkedHashMap<>();
+
+    static {
+        REPAIRS.put("video.like_count", new Repair("video",
+                "UPDATE video v SET like_count = c.n FROM (" +
+                "SELECT v2.id, COUNT(l.id) AS n FROM video v2 LEFT JOIN likes l ON l.video_id = v2.id " +
+                "WHERE v2.id = ANY(?) GROUP BY v2.id) c " +
+                "WHERE v.id = c.id AND v.like_count IS DISTINCT FROM c.n"));
+        REPAIRS.put("video.comment_count", new Repair("video",
+                "UPDATE video v SET comment_count = c.n FROM (" +
+                "SELECT v2.id, COUNT(cm.id) AS n FROM video v2 LEFT JOIN comment cm ON cm.video_id = v2.id " +
+                "WHERE v2.id = ANY(?) GROUP BY v2.id) c " +
+                "WHERE v.id = c.id AND v.comment_count IS DISTINCT FROM c.n"));
+        REPAIRS.put("users.follower_count", new Repair("users",
+                "UPDATE users u SET follower_count = c.n FROM (" +
+                "SELECT u2.id, COUNT(f.id) AS n FROM users u2 LEFT JOIN follow f ON f.following_id = u2.id " +
+                "WHERE u2.id = ANY(?) GROUP BY u2.id) c " +
+                "WHERE u.id = c.id AND u.follower_count IS DISTINCT FROM c.n"));
+        REPAIRS.put("users.following_count", new Repair("users",
+                "UPDATE users u SET following_count = c.n FROM (" +
+                "SELECT u2.id, COUNT(f.id) AS n FROM users u2 LEFT JOIN follow f ON f.follower_id = u2.id " +
+                "WHERE u2.id = ANY(?) GROUP BY u2.id) c " +
+                "WHERE u.id = c.id AND u.following_count IS DISTINCT FROM c.n"));
+        REPAIRS.put("users.video_count", new Repair("users",
+                "UPDATE users u SET video_count = c.n FROM (" +
+                "SELECT u2.id, COUNT(v.id) AS n FROM users u2 LEFT JOIN video v ON v.user_id = u2.id " +
+                "WHERE u2.id = ANY(?) GROUP BY u2.id) c " +
+                "WHERE u.id = c.id AND u.video_count IS DISTINCT FROM c.n"));
+        REPAIRS.put("users.like_count", new Repair("users",
+                "UPDATE users u SET like_count = c.n FROM (" +
+                "SELECT u2.id, COUNT(l.id) AS n FROM users u2 LEFT JOIN likes l ON l.user_id = u2.id " +
+                "WHERE u2.id = ANY(?) GROUP BY u2.id) c " +
+                "WHERE u.id = c.id AND u.like_count IS DISTINCT FROM c.n"));
+        REPAIRS.put("comment.reply_count", new Repair("comment",
+                "UPDATE comment cm SET reply_count = c.n, last_reply_at = c.last FROM (" +
+                "SELECT p.id, COUNT(r.id) AS n, MAX(r.created_at) AS last FROM comment p " +
+                "LEFT JOIN comment r ON r.parent_comment_id = p.id WHERE p.id = ANY(?) GROUP BY p.id) c " +
+                "WHERE cm.id = c.id AND (cm.reply_count IS DISTINCT FROM c.n OR cm.last_reply_at IS DISTINCT FROM c.last)"));
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Rows locked and recounted per transaction
+    @Value("${counters.reconcile-batch-size:500}")
+    private int batchSize;
+
+    private final AtomicLong repairedRows = new AtomicLong();
+    private final AtomicLong runs = new AtomicLong();
+    private volatile Map<String, Integer> lastRepairs = Map.of();
+    private volatile long lastRunMillis;
+
+    // The batch's counter rows are locked (FOR UPDATE) before the recount statement starts, so a concurrent
+    // "+ delta" either committed before the lock and is in the recount, or waits for the batch to commit and
+    // applies on top of it. Rows already locked by a writer are skipped (SKIP LOCKED) rather than waited on, so
+    // the pass never queues behind, or deadlocks with, the request path; the next pass picks them up.
+    @Scheduled(initialDelayString = "${counters.reconcile-initial-delay-ms:60000}",
+               fixedDelayString = "${counters.reconcile-interval-ms:3600000}")
+    public synchronized void reconcile() {
+        Map<String, Integer> repairs = new LinkedHashMap<>();
+        for (Map.Entry<String, Repair> e : REPAIRS.entrySet()) {
+            try {
+                int rows = repair(e.getValue());
+                repairs.put(e.getKey(), rows);
+                repairedRows.addAndGet(rows);
+                if (rows > 0) {
+                    System.out.println("Counter reconciler: repaired " + rows + " rows of " + e.getKey());
+                }
+            } catch (RuntimeException ex) {
+                System.out.println("Counter reconciler: " + e.getKey() + " failed: " + ex.getMessage());
+            }
+        }
+        lastRepairs = repairs;
+        lastRunMillis = System.currentTimeMillis();
+        runs.incrementAndGet();
+    }
+
+    public long getRepairedRows() {
+        return repairedRows.get();
+    }
+
+    public long getRuns() {
+        return runs.get();
+    }
+
+    public Map<String, Integer> getLastRepairs() {
+        return lastRepairs;
+    }
+
+    public long getLastRunMillis() {
+        return lastRunMillis;
+    }
+
+    // Walk one counter's table batch by batch; returns the number of rows rewritten
+    private int repair(Repair repair) {
+        String lockSql = "SELECT id FROM " + repair.table + " WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+        String after = "";
+        int repaired = 0;
+        while (true) {
+            String from = after;
+            BatchResult batch = transactionTemplate.execute(status -> {
+                List<String> ids = jdbcTemplate.queryForList(lockSql, String.class, from, batchSize);
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                int rows = jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(repair.recountSql);
+                    ps.setArray(1, con.createArrayOf("varchar", ids.toArray()));
+                    return ps;
+                });
+                return new BatchResult(ids.get(ids.size() - 1), rows);
+            });
+            if (batch == null) {
+                return repaired;
+            }
+            repaired += batch.rows;
+            after = batch.lastId;
+        }
+    }
+
+    private static final class Repair {
+        private final String table;
+        private final String recountSql;
+
+        private Repair(String table, String recountSql) {
+            this.table = table;
+            this.recountSql = recountSql;
+        }
+    }
+
+    private static final class BatchResult {
+        private final String lastId;
+        private final int rows;
+
+        private BatchResult(String lastId, int rows) {
+            this.lastId = lastId;
+            this.rows = rows;
+        }
+    }
+}
@@ -2,14 +2,28 @@ package com.example.taktik.service;
 
 import com.example.taktik.dto.*;
 import com.example.taktik.model.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class DTOMapperService {
 
+    @Autowired
+    private ViewCountBuffer viewCountBuffer;
+
+    @Autowired
+    private LikeService likeService;
+
     public UserDTO convertToUserDTO(User user) {
         if (user == null) return null;
 
@@ -55,7 +69,9 @@ public class DTOMapperService {
         dto.setDescription(video.getDescription());
         dto.setThumbnailUrl(video.getThumbnailUrl());
         dto.setCloudinaryPublicId(video.getCloudinaryPublicId());
-        dto.setViewCount(video.getViewCount());
+        // Include views still waiting in the write-behind buffer
+        long viewCount = video.getViewCount() != null ? video.getViewCount() : 0;
+        dto.setViewCount(viewCount + viewCountBuffer.getPending(video.getId()));
         dto.setCreatedAt(video.getCreatedAt());
         dto.setUpdatedAt(video.getUpdatedAt());
 
@@ -78,6 +94,21 @@ public class DTOMapperService {
         return dto;
     }
 
+    // Convert a page of videos for a viewer, marking the ones they have liked from the in-memory liked set
+    public List<VideoDTO> convertToVideoDTOs(List<Video> videos, String viewerId) {
+        List<VideoDTO> dtos = videos.stream()
+                .map(this::convertToVideoDTO)
+                .collect(Collectors.toList());
+        if (viewerId != null && !dtos.isEmpty()) {
+            Set<String> liked = likeService.getLikedVideoIds(viewerId,
+                    dtos.stream().map(VideoDTO::getId).collect(Collectors.toList()));
+            for (VideoDTO dto : dtos) {
+                dto.setLikedByViewer(liked.contains(dto.getId()));
+            }
+        }
+        return dtos;
+    }
+
     public CommentDTO convertToCommentDTO(Comment comment) {
         if (comment == null) return null;
 
@@ -86,6 +117,8 @@ public class DTOMapperService {
         dto.setContent(comment.getContent());
         dto.setCreatedAt(comment.getCreatedAt());
         dto.setUpdatedAt(comment.getUpdatedAt());
+        dto.setReplyCount(comment.getReplyCount());
+        dto.setLastReplyAt(comment.getLastReplyAt());
 
         // Convert user to summary DTO to avoid circular reference
         dto.setUser(convertToUserSummaryDTO(comment.getUser()));
@@ -93,6 +126,92 @@ public class DTOMapperService {
         return dto;
     }
 
+    // Assemble comment trees from flattened subtree rows (see CommentRepository.findSubtreeRows) in one pass.
+    // Rows are put in level order so every parent is built before its replies; replies of comments at
+    // maxDepth were not loaded and are left null.
+    public List<CommentDTO> convertToCommentTree(List<Object[]> rows, int maxDepth) {
+        List<Object[]> ordered = new ArrayList<>(rows);
+        ordered.sort(Comparator.<Object[]>comparingInt(row -> ((Number) row[5]).intValue())
+                .thenComparingLong(row -> ((Number) row[6]).longValue()));
+
+        List<CommentDTO> roots = new ArrayList<>();
+        Map<String, CommentDTO> byId = new HashMap<>(ordered.size() * 2);
+        for (Object[] row : ordered) {
+            int depth = ((Number) row[5]).intValue();
+            CommentDTO dto = convertCommentRow(row, 7);
+            if (depth < maxDepth) {
+                dto.setReplies(new ArrayList<>());
+            }
+
+            if (depth == 0) {
+                roots.add(dto);
+            } else {
+                CommentDTO parent = byId.get((String) row[1]);
+                if (parent == null || parent.getReplies() == null) {
+                    // Parent fell outside the node cap
+                    continue;
+                }
+                parent.getReplies().add(dto);
+            }
+            byId.put(dto.getId(), dto);
+        }
+        return roots;
+    }
+
+    // Convert a full-text search row (see CommentRepository.searchRows)
+    public CommentDTO convertSearchRow(Object[] row) {
+        return convertCommentRow(row, 6);
+    }
+
+    // Convert a fuzzy video search row (see VideoRepository.fuzzySearchRows); comments and likes are not loaded
+    public VideoDTO convertVideoSearchRow(Object[] row) {
+        VideoDTO dto = new VideoDTO();
+        dto.setId((String) row[0]);
+        dto.setTitle((String) row[1]);
+        dto.setVideoUrl((String) row[2]);
+        dto.setDescription((String) row[3]);
+        dto.setThumbnailUrl((String) row[4]);
+        dto.setCloudinaryPublicId((String) row[5]);
+        long viewCount = row[6] != null ? ((Number) row[6]).longValue() : 0;
+        dto.setViewCount(viewCount + viewCountBuffer.getPending(dto.getId()));
+        dto.setCreatedAt(toLocalDateTime(row[7]));
+        dto.setUpdatedAt(toLocalDateTime(row[8]));
+        return dto;
+    }
+
+    // Convert a fuzzy user search row (see UserRepository.fuzzySearchRows)
+    public UserSummaryDTO convertUserSearchRow(Object[] row) {
+        return new UserSummaryDTO((String) row[0], (String) row[1], (String) row[2], (String) row[3],
+                toLocalDateTime(row[4]), toLocalDateTime(row[5]));
+    }
+
+    // Native comment rows start with id, parent_comment_id, content, created_at, updated_at; the author's
+    // id, username, avatar_url, bio, created_at, updated_at follow from userColumn, then reply_count, last_reply_at
+    private static CommentDTO convertCommentRow(Object[] row, int userColumn) {
+        CommentDTO dto = new CommentDTO();
+        dto.setId((String) row[0]);
+        dto.setContent((String) row[2]);
+        dto.setCreatedAt(toLocalDateTime(row[3]));
+        dto.setUpdatedAt(toLocalDateTime(row[4]));
+        if (row[userColumn] != null) {
+            dto.setUser(new UserSummaryDTO((String) row[userColumn], (String) row[userColumn + 1],
+                    (String) row[userColumn + 2], (String) row[userColumn + 3],
+                    toLocalDateTime(row[userColumn + 4]), toLocalDateTime(row[userColumn + 5])));
+        }
+        if (row[userColumn + 6] != null) {
+            dto.setReplyCount(((Number) row[userColumn + 6]).longValue());
+        }
+        dto.setLastReplyAt(toLocalDateTime(row[userColumn + 7]));
+        return dto;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
     public LikeDTO convertToLikeDTO(Like like) {
         if (like == null) return null;
 
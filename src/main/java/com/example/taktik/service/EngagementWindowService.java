@@ -0,0 +1,146 @@
+package com.example.taktik.service;
+
+import com.example.taktik.util.KeysetCursor;
+import com.example.taktik.util.SlidingWindowCounter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-video view/like/comment counts over the last hour and the last 24 hours.
+// The hour window is 60 one-minute buckets; the day window is 24 one-hour buckets, so it slides by the hour.
+// Each video costs a fixed ~1 KB, and videos with no events for longer than the day window are evicted.
+@Service
+public class EngagementWindowService {
+
+    private static final long MINUTE = 60_000_000_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    public enum Window { HOUR, DAY }
+
+    private final Map<String, VideoWindows> videos = new ConcurrentHashMap<>();
+
+    public void onView(String videoId) {
+        record(videoId, 0);
+    }
+
+    public void onLike(String videoId) {
+        record(videoId, 1);
+    }
+
+    public void onComment(String videoId) {
+        record(videoId, 2);
+    }
+
+    public void onVideoDeleted(String videoId) {
+        videos.remove(videoId);
+    }
+
+    // Ids of the videos with the highest weighted engagement in the window, best first
+    public List<String> top(Window window, int limit, double viewWeight, double likeWeight, double commentWeight) {
+        long now = now();
+        PriorityQueue<Scored> best = new PriorityQueue<>((a, b) -> Double.compare(a.score, b.score));
+        for (Map.Entry<String, VideoWindows> e : videos.entrySet()) {
+            double score;
+            VideoWindows counts = e.getValue();
+            synchronized (counts) {
+                score = viewWeight * counts.sum(window, 0, now)
+                        + likeWeight * counts.sum(window, 1, now)
+                        + commentWeight * counts.sum(window, 2, now);
+            }
+            if (score <= 0) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(new Scored(e.getKey(), score));
+            } else if (score > best.peek().score) {
+                best.poll();
+                best.add(new Scored(e.getKey(), score));
+            }
+        }
+
+        List<String> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add(best.poll().id);
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    // Views, likes and comments for one video in the window
+    public long[] getCounts(String videoId, Window window) {
+        VideoWindows counts = videos.get(videoId);
+        if (counts == null) {
+            return new long[3];
+        }
+        long now = now();
+        synchronized (counts) {
+            return new long[] {counts.sum(window, 0, now), counts.sum(window, 1, now), counts.sum(window, 2, now)};
+        }
+    }
+
+    public int getTrackedVideoCount() {
+        return videos.size();
+    }
+
+    // Drop videos that have been idle longer than the largest window
+    @Scheduled(fixedDelayString = "${trending.window.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long idleBefore = now() - DAY;
+        Iterator<VideoWindows> it = videos.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().lastEvent < idleBefore) {
+                it.remove();
+            }
+        }
+    }
+
+    private void record(String videoId, int metric) {
+        long now = now();
+        VideoWindows counts = videos.computeIfAbsent(videoId, id -> new VideoWindows());
+        synchronized (counts) {
+            counts.hour[metric].add(now, 1);
+            counts.day[metric].add(now, 1);
+            counts.lastEvent = now;
+        }
+    }
+
+    private static long now() {
+        return KeysetCursor.toEpochNanos(LocalDateTime.now());
+    }
+
+    private static final class VideoWindows {
+        private final SlidingWindowCounter[] hour = new SlidingWindowCounter[3];
+        private final SlidingWindowCounter[] day = new SlidingWindowCounter[3];
+        private volatile long lastEvent;
+
+        private VideoWindows() {
+            for (int m = 0; m < 3; m++) {
+                hour[m] = new SlidingWindowCounter(60, MINUTE);
+                day[m] = new SlidingWindowCounter(24, HOUR);
+            }
+        }
+
+        private long sum(Window window, int metric, long now) {
+            return (window == Window.HOUR ? hour : day)[metric].sum(now);
+        }
+    }
+
+    private static final class Scored {
+        private final String id;
+        private final double score;
+
+        private Scored(String id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
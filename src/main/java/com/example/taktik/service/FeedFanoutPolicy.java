@@ -0,0 +1,74 @@
+package com.example.taktik.service;
+
+import com.example.taktik.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Decides, per author, whether new videos are pushed to follower timelines at write time
+// or pulled into the feed at read time. An author switches to pull at the follower threshold and back to push
+// only below a lower demote threshold, so an author hovering around the threshold does not flip on every follow.
+@Service
+public class FeedFanoutPolicy {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${feed.fanout.follower-threshold:10000}")
+    private long followerThreshold;
+
+    // Pull authors return to push below this fraction of the threshold
+    @Value("${feed.fanout.demote-ratio:0.9}")
+    private double demoteRatio;
+
+    private final Set<String> pullAuthors = ConcurrentHashMap.newKeySet();
+
+    // Bumped when the pull authors are loaded, so timelines built before that get rebuilt once. Later switches
+    // only invalidate the switching author's followers (see TimelineService)
+    private final AtomicLong version = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPullAuthors() {
+        pullAuthors.addAll(userRepository.findIdsWithFollowerCountAtLeast(followerThreshold));
+        version.incrementAndGet();
+        System.out.println("Feed fan-out: " + pullAuthors.size() + " authors served by pull (threshold " + followerThreshold + ")");
+    }
+
+    // Check if an author's videos are merged in at read time instead of fanned out
+    public boolean isPullAuthor(String authorId) {
+        return pullAuthors.contains(authorId);
+    }
+
+    // Re-evaluate an author after their follower count changed; true if the author switched mode
+    public boolean onFollowerCountChanged(String authorId) {
+        Long followers = userRepository.findFollowerCount(authorId);
+        if (followers == null) {
+            return false;
+        }
+        if (followers >= followerThreshold) {
+            return pullAuthors.add(authorId);
+        }
+        if (followers < getDemoteThreshold()) {
+            return pullAuthors.remove(authorId);
+        }
+        return false;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public long getFollowerThreshold() {
+        return followerThreshold;
+    }
+
+    public long getDemoteThreshold() {
+        return (long) Math.ceil(followerThreshold * demoteRatio);
+    }
+}
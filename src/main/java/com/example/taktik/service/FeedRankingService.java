@@ -0,0 +1,120 @@
+package com.example.taktik.service;
+
+import com.example.taktik.model.Video;
+import com.example.taktik.repository.CommentRepository;
+import com.example.taktik.repository.FollowRepository;
+import com.example.taktik.repository.LikeRepository;
+import com.example.taktik.util.FeedRanker;
+import com.example.taktik.util.FeedScorer;
+import com.example.taktik.util.KeysetCursor;
+import com.example.taktik.util.RankingFeatures;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Ranking stage for candidate videos.
+// Engagement and affinity features are loaded with one grouped query each, copied into a per-thread
+// RankingFeatures workspace, and scored by every FeedScorer bean.
+@Service
+public class FeedRankingService {
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Value("${feed.ranking.velocity.window-hours:24}")
+    private int velocityWindowHours;
+
+    private final FeedRanker ranker;
+
+    private final ThreadLocal<RankingFeatures> workspace = ThreadLocal.withInitial(() -> new RankingFeatures(1024));
+
+    public FeedRankingService(List<FeedScorer> scorers) {
+        this.ranker = new FeedRanker(scorers);
+    }
+
+    // Rank candidates for a viewer and return the best limit of them, best first
+    public List<Video> rank(String viewerId, List<Video> candidates, int limit) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        List<String> videoIds = new ArrayList<>(candidates.size());
+        Set<String> authorIds = new HashSet<>();
+        for (Video video : candidates) {
+            videoIds.add(video.getId());
+            if (video.getUser() != null) {
+                authorIds.add(video.getUser().getId());
+            }
+        }
+
+        LocalDateTime since = LocalDateTime.now().minusHours(velocityWindowHours);
+        Map<String, Long> recentLikes = toCounts(likeRepository.countRecentLikesByVideo(videoIds, since));
+        Map<String, Long> recentComments = toCounts(commentRepository.countRecentCommentsByVideo(videoIds, since));
+        Map<String, Float> affinity = loadAffinity(viewerId, authorIds);
+
+        RankingFeatures features = workspace.get();
+        features.reset(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Video video = candidates.get(i);
+            String authorId = video.getUser() != null ? video.getUser().getId() : null;
+            features.set(i,
+                    video.getCreatedAt() != null ? KeysetCursor.toEpochNanos(video.getCreatedAt()) : 0,
+                    video.getViewCount() != null ? video.getViewCount() : 0,
+                    recentLikes.getOrDefault(video.getId(), 0L).intValue(),
+                    recentComments.getOrDefault(video.getId(), 0L).intValue(),
+                    authorId != null ? affinity.getOrDefault(authorId, 0f) : 0f);
+        }
+
+        int ranked = ranker.rank(features, KeysetCursor.toEpochNanos(LocalDateTime.now()), limit);
+        int[] order = features.getOrder();
+        List<Video> result = new ArrayList<>(ranked);
+        for (int i = 0; i < ranked; i++) {
+            result.add(candidates.get(order[i]));
+        }
+        return result;
+    }
+
+    public int getScorerCount() {
+        return ranker.getScorerCount();
+    }
+
+    // 1 for followed authors, plus a log-damped bonus for how often the viewer liked their videos
+    private Map<String, Float> loadAffinity(String viewerId, Set<String> authorIds) {
+        Map<String, Float> affinity = new HashMap<>();
+        if (viewerId == null || authorIds.isEmpty()) {
+            return affinity;
+        }
+        for (String followingId : followRepository.findFollowingIds(viewerId)) {
+            if (authorIds.contains(followingId)) {
+                affinity.put(followingId, 1f);
+            }
+        }
+        for (Object[] row : likeRepository.countLikesByUserPerAuthor(viewerId, authorIds)) {
+            float bonus = (float) (0.5 * Math.log1p(((Number) row[1]).doubleValue()));
+            affinity.merge((String) row[0], bonus, Float::sum);
+        }
+        return affinity;
+    }
+
+    private static Map<String, Long> toCounts(List<Object[]> rows) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+}
@@ -4,12 +4,18 @@ import com.example.taktik.model.Follow;
 import com.example.taktik.model.User;
 import com.example.taktik.repository.FollowRepository;
 import com.example.taktik.repository.UserRepository;
+import com.example.taktik.util.AfterCommit;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -21,46 +27,40 @@ public class FollowService {
     @Autowired
     private UserRepository userRepository;
 
-    // Follow a user
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private UserTypeahead userTypeahead;
+
+    // Follow a user: one INSERT ... ON CONFLICT DO NOTHING against the (follower_id, following_id) unique constraint
+    @Transactional
     public Follow followUser(String followerId, String followingId) {
         // Check if user is trying to follow themselves
         if (followerId.equals(followingId)) {
             throw new RuntimeException("User cannot follow themselves");
         }
 
-        // Check if already following
-        if (followRepository.existsByFollowerIdAndFollowingId(followerId, followingId)) {
-            throw new RuntimeException("User is already following this user");
-        }
-
-        // Validate follower exists
-        Optional<User> follower = userRepository.findById(followerId);
-        if (follower.isEmpty()) {
-            throw new RuntimeException("Follower user not found");
-        }
-
-        // Validate following exists
-        Optional<User> following = userRepository.findById(followingId);
-        if (following.isEmpty()) {
-            throw new RuntimeException("Following user not found");
-        }
-
         Follow follow = new Follow();
         follow.setId(UUID.randomUUID().toString());
-        follow.setFollower(follower.get());
-        follow.setFollowing(following.get());
+        follow.setCreatedAt(LocalDateTime.now());
+
+        if (!insertFollow(follow.getId(), followerId, followingId, follow.getCreatedAt())) {
+            throw new RuntimeException("User is already following this user");
+        }
 
-        return followRepository.save(follow);
+        // Proxies only: nothing is loaded unless the caller reads past the ids
+        follow.setFollower(userRepository.getReferenceById(followerId));
+        follow.setFollowing(userRepository.getReferenceById(followingId));
+        return follow;
     }
 
     // Unfollow a user
     @Transactional
     public void unfollowUser(String followerId, String followingId) {
-        if (!followRepository.existsByFollowerIdAndFollowingId(followerId, followingId)) {
+        if (!deleteFollow(followerId, followingId)) {
             throw new RuntimeException("User is not following this user");
         }
-
-        followRepository.deleteByFollowerIdAndFollowingId(followerId, followingId);
     }
 
     // Check if user1 is following user2
@@ -68,6 +68,14 @@ public class FollowService {
         return followRepository.existsByFollowerIdAndFollowingId(followerId, followingId);
     }
 
+    // Which of the given users a user follows
+    public Set<String> getFollowedUserIds(String followerId, Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(followRepository.findFollowingIdsAmong(followerId, userIds));
+    }
+
     // Get followers of a user
     public List<User> getFollowers(String userId) {
         return followRepository.findFollowerUsers(userId);
@@ -98,16 +106,50 @@ public class FollowService {
         return followRepository.findSuggestedUsersToFollow(userId);
     }
 
-    // Toggle follow (follow if not following, unfollow if already following)
+    // Toggle follow (follow if not following, unfollow if already following).
+    // DELETE first, then the conditional INSERT: at most two statements and no read. If a concurrent tap inserts
+    // first, this one reports the user as followed
     @Transactional
     public boolean toggleFollow(String followerId, String followingId) {
-        if (isFollowing(followerId, followingId)) {
-            unfollowUser(followerId, followingId);
+        if (followerId.equals(followingId)) {
+            throw new RuntimeException("User cannot follow themselves");
+        }
+        if (deleteFollow(followerId, followingId)) {
             return false; // unfollowed
-        } else {
-            followUser(followerId, followingId);
-            return true; // followed
         }
+        insertFollow(UUID.randomUUID().toString(), followerId, followingId, LocalDateTime.now());
+        return true; // followed
+    }
+
+    // Insert a follow unless one exists, updating counters and timelines; false if already following
+    private boolean insertFollow(String followId, String followerId, String followingId, LocalDateTime createdAt) {
+        int inserted;
+        try {
+            inserted = followRepository.insertIfAbsent(followId, followerId, followingId, createdAt);
+        } catch (DataIntegrityViolationException e) {
+            // Foreign key violation: one of the users does not exist
+            throw new RuntimeException("User not found");
+        }
+        if (inserted == 0) {
+            return false;
+        }
+        userRepository.addFollowingCount(followerId, 1);
+        userRepository.addFollowerCount(followingId, 1);
+        AfterCommit.run(() -> userTypeahead.onFollowerCountChanged(followingId, 1));
+        timelineService.onFollow(followerId, followingId);
+        return true;
+    }
+
+    // Delete a follow if present, updating counters and timelines; false if there was none
+    private boolean deleteFollow(String followerId, String followingId) {
+        if (followRepository.deleteIfPresent(followerId, followingId) == 0) {
+            return false;
+        }
+        userRepository.addFollowingCount(followerId, -1);
+        userRepository.addFollowerCount(followingId, -1);
+        AfterCommit.run(() -> userTypeahead.onFollowerCountChanged(followingId, -1));
+        timelineService.onUnfollow(followerId, followingId);
+        return true;
     }
 
     // Get recent follows by a user
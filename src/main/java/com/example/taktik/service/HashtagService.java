@@ -0,0 +1,252 @@
+package com.example.taktik.service;
+
+import com.example.taktik.model.Video;
+import com.example.taktik.model.VideoTag;
+import com.example.taktik.repository.VideoRepository;
+import com.example.taktik.repository.VideoTagRepository;
+import com.example.taktik.util.AfterCommit;
+import com.example.taktik.util.Hashtags;
+import com.example.taktik.util.KeysetCursor;
+import com.example.taktik.util.SlidingWindowCounter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Hashtags parsed out of video descriptions into the video_tag table on create and update, so a tag's videos
+// are an index range scan instead of a LIKE over descriptions.
+// Trending hashtags count how many new videos used each tag over the last hour (60 one-minute buckets) and the
+// last 24 hours (24 one-hour buckets), as EngagementWindowService does for video engagement. Tags with no new
+// videos for longer than the day window are evicted. Counter changes apply once the tag rows commit.
+@Service
+public class HashtagService {
+
+    private static final String BACKFILL_SQL =
+            "INSERT INTO video_tag (id, video_id, tag, created_at) VALUES (?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private static final long MINUTE = 60_000_000_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    @Autowired
+    private VideoTagRepository videoTagRepository;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, TagWindows> windows = new ConcurrentHashMap<>();
+
+    // Tag videos that predate the tag table, then seed the trending counters from the last day's tags
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void warmUp() {
+        if (videoTagRepository.count() == 0) {
+            // Plain JDBC batches: no entity state or per-row lookups for what can be the whole table
+            List<Object[]> batch = new ArrayList<>(BACKFILL_BATCH_SIZE);
+            long[] backfilled = new long[1];
+            try (Stream<Object[]> rows = videoRepository.streamHashtagCandidates()) {
+                rows.forEach(row -> {
+                    String videoId = (String) row[0];
+                    Timestamp createdAt = Timestamp.valueOf((LocalDateTime) row[2]);
+                    for (String tag : Hashtags.extract((String) row[1])) {
+                        batch.add(new Object[] {VideoTag.idOf(videoId, tag), videoId, tag, createdAt});
+                        if (batch.size() == BACKFILL_BATCH_SIZE) {
+                            jdbcTemplate.batchUpdate(BACKFILL_SQL, batch);
+                            backfilled[0] += batch.size();
+                            batch.clear();
+                        }
+                    }
+                });
+            }
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(BACKFILL_SQL, batch);
+                backfilled[0] += batch.size();
+            }
+            System.out.println("Hashtags: backfilled " + backfilled[0] + " video tags");
+        }
+
+        LocalDateTime since = LocalDateTime.now().minusDays(1);
+        try (Stream<Object[]> rows = videoTagRepository.streamCreatedSince(since)) {
+            rows.forEach(row -> record((String) row[0], (LocalDateTime) row[1], 1));
+        }
+        System.out.println("Hashtags: tracking " + windows.size() + " tags used in the last day");
+    }
+
+    @Transactional
+    public void onVideoCreated(Video video) {
+        List<VideoTag> tags = new ArrayList<>();
+        for (String tag : Hashtags.extract(video.getDescription())) {
+            tags.add(new VideoTag(video.getId(), tag, video.getCreatedAt()));
+        }
+        if (!tags.isEmpty()) {
+            videoTagRepository.saveAll(tags);
+            AfterCommit.run(() -> tags.forEach(tag -> record(tag.getTag(), tag.getCreatedAt(), 1)));
+        }
+    }
+
+    // Re-sync a video's tags after its description changed: delete dropped tags, insert new ones
+    @Transactional
+    public void onVideoUpdated(Video video) {
+        Set<String> current = Hashtags.extract(video.getDescription());
+        List<VideoTag> stored = videoTagRepository.findByVideoId(video.getId());
+
+        List<VideoTag> dropped = new ArrayList<>();
+        for (VideoTag tag : stored) {
+            if (!current.remove(tag.getTag())) {
+                dropped.add(tag);
+            }
+        }
+        List<VideoTag> added = new ArrayList<>();
+        for (String tag : current) {
+            added.add(new VideoTag(video.getId(), tag, video.getCreatedAt()));
+        }
+
+        if (!dropped.isEmpty()) {
+            videoTagRepository.deleteAll(dropped);
+            AfterCommit.run(() -> dropped.forEach(tag -> record(tag.getTag(), tag.getCreatedAt(), -1)));
+        }
+        if (!added.isEmpty()) {
+            videoTagRepository.saveAll(added);
+            AfterCommit.run(() -> added.forEach(tag -> record(tag.getTag(), tag.getCreatedAt(), 1)));
+        }
+    }
+
+    // Runs inside VideoService.deleteVideo's transaction
+    public void onVideoDeleted(String videoId) {
+        List<VideoTag> stored = videoTagRepository.findByVideoId(videoId);
+        if (!stored.isEmpty()) {
+            videoTagRepository.deleteByVideoId(videoId);
+            AfterCommit.run(() -> stored.forEach(tag -> record(tag.getTag(), tag.getCreatedAt(), -1)));
+        }
+    }
+
+    // Up to limit videos carrying the (normalized) tag, newest first, after the cursor
+    public List<Video> getVideosByTag(String tag, KeysetCursor after, int limit) {
+        if (after == null) {
+            return videoRepository.findByTagPage(tag, PageRequest.of(0, limit));
+        }
+        return videoRepository.findByTagPageAfter(tag, after.getCreatedAt(), after.getId(), PageRequest.of(0, limit));
+    }
+
+    // Tags used by the most new videos in the window ("1h" or "24h"), most used first
+    public List<TagCount> getTrending(String window, int limit) {
+        boolean hour;
+        if ("1h".equals(window)) {
+            hour = true;
+        } else if ("24h".equals(window)) {
+            hour = false;
+        } else {
+            throw new IllegalArgumentException("Unknown trending window: " + window);
+        }
+
+        long now = now();
+        PriorityQueue<TagCount> best = new PriorityQueue<>(
+                (a, b) -> a.count != b.count ? Long.compare(a.count, b.count) : b.tag.compareTo(a.tag));
+        for (Map.Entry<String, TagWindows> e : windows.entrySet()) {
+            long count;
+            TagWindows counts = e.getValue();
+            synchronized (counts) {
+                count = (hour ? counts.hour : counts.day).sum(now);
+            }
+            if (count <= 0) {
+                continue;
+            }
+            TagCount candidate = new TagCount(e.getKey(), count);
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (best.comparator().compare(candidate, best.peek()) > 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+
+        List<TagCount> top = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            top.add(best.poll());
+        }
+        Collections.reverse(top);
+        return top;
+    }
+
+    public int getTrackedTagCount() {
+        return windows.size();
+    }
+
+    // Drop tags with no new videos for longer than the largest window
+    @Scheduled(fixedDelayString = "${trending.window.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long idleBefore = now() - DAY;
+        Iterator<TagWindows> it = windows.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().lastEvent < idleBefore) {
+                it.remove();
+            }
+        }
+    }
+
+    // Count a tag use at the video's creation time; -1 takes back a use that is still inside the windows
+    private void record(String tag, LocalDateTime createdAt, int amount) {
+        long at = createdAt != null ? KeysetCursor.toEpochNanos(createdAt) : now();
+        if (at < now() - DAY) {
+            return;
+        }
+        TagWindows counts = amount > 0 ? windows.computeIfAbsent(tag, t -> new TagWindows()) : windows.get(tag);
+        if (counts == null) {
+            return;
+        }
+        synchronized (counts) {
+            counts.hour.add(at, amount);
+            counts.day.add(at, amount);
+            counts.lastEvent = Math.max(counts.lastEvent, at);
+        }
+    }
+
+    private static long now() {
+        return KeysetCursor.toEpochNanos(LocalDateTime.now());
+    }
+
+    private static final class TagWindows {
+        private final SlidingWindowCounter hour = new SlidingWindowCounter(60, MINUTE);
+        private final SlidingWindowCounter day = new SlidingWindowCounter(24, HOUR);
+        private volatile long lastEvent;
+    }
+
+    // A tag and how many new videos used it in a window
+    public static class TagCount {
+        private final String tag;
+        private final long count;
+
+        public TagCount(String tag, long count) {
+            this.tag = tag;
+            this.count = count;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.taktik.service;
+
+import com.example.taktik.util.HeavyHitters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+
+// Hottest videos by view traffic, counted in fixed memory behind /api/videos/{id}/view.
+// Counts run in tumbling epochs: rotate() swaps in a fresh structure and returns the finished epoch's top-K,
+// which TrendingService folds into the decayed leaderboard.
+@Service
+public class HeavyHitterService {
+
+    @Value("${heavy-hitters.capacity:1000}")
+    private int capacity;
+
+    @Value("${heavy-hitters.sketch-width:65536}")
+    private int sketchWidth;
+
+    @Value("${heavy-hitters.sketch-depth:4}")
+    private int sketchDepth;
+
+    private int stripeCount;
+
+    private volatile HeavyHitters current;
+
+    private volatile List<HeavyHitters.Hitter> lastEpoch = List.of();
+
+    @PostConstruct
+    public void init() {
+        stripeCount = Math.max(1, Runtime.getRuntime().availableProcessors());
+        current = newEpoch();
+    }
+
+    public void offer(String videoId) {
+        current.offer(videoId);
+    }
+
+    // Hottest videos in the running epoch, highest first
+    public List<HeavyHitters.Hitter> getHottest(int k) {
+        return current.top(k);
+    }
+
+    // Hottest videos of the last completed epoch
+    public List<HeavyHitters.Hitter> getLastEpoch() {
+        return lastEpoch;
+    }
+
+    // Close the running epoch and start a new one; views racing with the swap may land in the closed epoch
+    public synchronized List<HeavyHitters.Hitter> rotate() {
+        HeavyHitters finished = current;
+        current = newEpoch();
+        lastEpoch = finished.top(capacity);
+        return lastEpoch;
+    }
+
+    private HeavyHitters newEpoch() {
+        return new HeavyHitters(capacity, sketchWidth, sketchDepth, stripeCount);
+    }
+}
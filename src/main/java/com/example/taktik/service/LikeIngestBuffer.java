@@ -0,0 +1,334 @@
+package com.example.taktik.service;
+
+import com.example.taktik.util.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Write-behind buffer for like and unlike intents.
+// Each tap records the user's desired state per video and returns at once; repeated taps by the same user
+// collapse into one intent, and an intent that ends where it started (like then unlike) is dropped. A
+// periodic flush applies the survivors in one transaction as JDBC batches of conditional inserts and
+// deletes plus the matching counter updates. Until then reads overlay pending intents, so the acting user
+// always sees their own taps.
+@Service
+public class LikeIngestBuffer {
+
+    // Conditional insert: a missing user or video, or an existing like, makes the row a no-op instead of
+    // failing the whole batch
+    private static final String INSERT_SQL =
+            "INSERT INTO likes (id, user_id, video_id, created_at) SELECT ?, ?, ?, ? " +
+            "WHERE EXISTS (SELECT 1 FROM users WHERE id = ?) AND EXISTS (SELECT 1 FROM video WHERE id = ?) " +
+            "ON CONFLICT (user_id, video_id) DO NOTHING";
+    private static final String DELETE_SQL = "DELETE FROM likes WHERE user_id = ? AND video_id = ?";
+    private static final String VIDEO_COUNT_SQL = "UPDATE video SET like_count = like_count + ? WHERE id = ?";
+    private static final String USER_COUNT_SQL = "UPDATE users SET like_count = like_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LikedSetCache likedSetCache;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    // Writers share the read lock; the flush takes the write lock only to swap maps
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Map<String, VideoIntents> pending = new ConcurrentHashMap<>();
+    // Intents taken by the running flush; still visible to reads until their results are applied. Their like
+    // deltas count only until the flush commits
+    private volatile Map<String, VideoIntents> inFlight = Map.of();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile long lastFlushMillis;
+    private volatile long lastFlushDurationMillis;
+
+    // Record that a user wants a video liked (true) or not (false); returns false if that is already the state
+    public boolean submit(String userId, String videoId, boolean liked) {
+        boolean stored = isLiked(userId, videoId);
+        swapLock.readLock().lock();
+        try {
+            VideoIntents video = pending.computeIfAbsent(videoId, id -> new VideoIntents());
+            boolean[] changed = new boolean[1];
+            video.intents.compute(userId, (id, intent) -> {
+                boolean current = intent != null ? intent.desired : stored;
+                if (current == liked) {
+                    return intent;
+                }
+                changed[0] = true;
+                video.likeDelta.addAndGet(liked ? 1 : -1);
+                if (intent == null) {
+                    return new Intent(stored, liked);
+                }
+                intent.desired = liked;
+                return intent;
+            });
+            if (changed[0]) {
+                submitted.incrementAndGet();
+            }
+            return changed[0];
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // Flip a user's like, returning the new state
+    public boolean toggle(String userId, String videoId) {
+        while (true) {
+            boolean liked = !isLiked(userId, videoId);
+            if (submit(userId, videoId, liked)) {
+                return liked;
+            }
+            // Lost a race with another tap by the same user; re-read and try again
+        }
+    }
+
+    // Whether a user has liked a video, including intents not yet flushed
+    public boolean isLiked(String userId, String videoId) {
+        Boolean state = pendingState(userId, videoId);
+        return state != null ? state : likedSetCache.hasLiked(userId, videoId);
+    }
+
+    // The user's unflushed desired state for a video, or null if there is none
+    public Boolean pendingState(String userId, String videoId) {
+        Intent intent = find(pending, userId, videoId);
+        if (intent == null) {
+            intent = find(inFlight, userId, videoId);
+        }
+        return intent != null ? intent.desired : null;
+    }
+
+    // Likes added minus likes removed for a video that are not yet in its counter column
+    public long getPendingLikeDelta(String videoId) {
+        long delta = 0;
+        VideoIntents video = pending.get(videoId);
+        if (video != null) {
+            delta += video.likeDelta.get();
+        }
+        video = inFlight.get(videoId);
+        if (video != null) {
+            delta += video.likeDelta.get();
+        }
+        return delta;
+    }
+
+    @Scheduled(fixedDelayString = "${likes.flush-interval-ms:500}")
+    public synchronized void flush() {
+        long started = System.currentTimeMillis();
+        Map<String, VideoIntents> taken;
+        swapLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            taken = pending;
+            inFlight = taken;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        // Sorted by (video, user) so concurrent writers lock rows in the same order
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<String[]> insertKeys = new ArrayList<>();
+        List<String[]> deleteKeys = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Map.Entry<String, VideoIntents> v : new TreeMap<>(taken).entrySet()) {
+            String videoId = v.getKey();
+            for (Map.Entry<String, Intent> u : new TreeMap<>(v.getValue().intents).entrySet()) {
+                Intent intent = u.getValue();
+                if (intent.desired == intent.initial) {
+                    collapsed.incrementAndGet();
+                } else if (intent.desired) {
+                    inserts.add(new Object[] {UUID.randomUUID().toString(), u.getKey(), videoId, now, u.getKey(), videoId});
+                    insertKeys.add(new String[] {u.getKey(), videoId});
+                } else {
+                    deletes.add(new Object[] {u.getKey(), videoId});
+                    deleteKeys.add(new String[] {u.getKey(), videoId});
+                }
+            }
+        }
+
+        int[][] counts;
+        try {
+            counts = transactionTemplate.execute(status -> {
+                int[] insertCounts = inserts.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+                int[] deleteCounts = deletes.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+                applyCounters(insertKeys, insertCounts, deleteKeys, deleteCounts);
+                // From the commit on, the counter columns hold these deltas; the intents keep overlaying
+                // liked state until the caches below catch up, but stop adding to the like count
+                AfterCommit.run(() -> taken.values().forEach(video -> video.likeDelta.set(0)));
+                return new int[][] {insertCounts, deleteCounts};
+            });
+        } catch (RuntimeException ex) {
+            // Put intents back under any newer ones so the next flush retries them
+            swapLock.readLock().lock();
+            try {
+                taken.forEach((videoId, video) -> pending.merge(videoId, video, VideoIntents::olderUnder));
+            } finally {
+                swapLock.readLock().unlock();
+            }
+            inFlight = Map.of();
+            failedFlushes.incrementAndGet();
+            System.out.println("Like buffer: flush of " + taken.size() + " videos failed: " + ex.getMessage());
+            return;
+        }
+
+        // Committed: bring cached liked sets and trending up to date before the intents stop overlaying them.
+        // Only rows the statements changed count; a skipped conditional insert (user or video gone, or already
+        // liked) and a delete that found nothing leave both alone
+        for (int i = 0; i < counts[0].length; i++) {
+            if (counts[0][i] == 1) {
+                String[] key = insertKeys.get(i);
+                likedSetCache.onLiked(key[0], key[1]);
+                trendingService.onLike(key[1]);
+            }
+        }
+        for (int i = 0; i < counts[1].length; i++) {
+            if (counts[1][i] == 1) {
+                String[] key = deleteKeys.get(i);
+                likedSetCache.onUnliked(key[0], key[1]);
+            }
+        }
+        inFlight = Map.of();
+
+        flushCount.incrementAndGet();
+        lastFlushMillis = System.currentTimeMillis();
+        lastFlushDurationMillis = lastFlushMillis - started;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public int getPendingVideoCount() {
+        return pending.size();
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getCollapsed() {
+        return collapsed.get();
+    }
+
+    public long getInserted() {
+        return inserted.get();
+    }
+
+    public long getDeleted() {
+        return deleted.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    public long getLastFlushMillis() {
+        return lastFlushMillis;
+    }
+
+    public long getLastFlushDurationMillis() {
+        return lastFlushDurationMillis;
+    }
+
+    // Counter deltas from the rows that actually changed, applied as two more batches
+    private void applyCounters(List<String[]> insertKeys, int[] insertCounts, List<String[]> deleteKeys, int[] deleteCounts) {
+        Map<String, Long> videoDeltas = new TreeMap<>();
+        Map<String, Long> userDeltas = new TreeMap<>();
+        long added = tally(insertKeys, insertCounts, 1, videoDeltas, userDeltas);
+        long removed = tally(deleteKeys, deleteCounts, -1, videoDeltas, userDeltas);
+        batchAdd(VIDEO_COUNT_SQL, videoDeltas);
+        batchAdd(USER_COUNT_SQL, userDeltas);
+        inserted.addAndGet(added);
+        deleted.addAndGet(removed);
+    }
+
+    private static long tally(List<String[]> keys, int[] counts, long sign,
+                              Map<String, Long> videoDeltas, Map<String, Long> userDeltas) {
+        long changed = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 1) {
+                userDeltas.merge(keys.get(i)[0], sign, Long::sum);
+                videoDeltas.merge(keys.get(i)[1], sign, Long::sum);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private void batchAdd(String sql, Map<String, Long> deltas) {
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> {
+            if (delta != 0) {
+                batch.add(new Object[] {delta, id});
+            }
+        });
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    private static Intent find(Map<String, VideoIntents> map, String userId, String videoId) {
+        VideoIntents video = map.get(videoId);
+        return video != null ? video.intents.get(userId) : null;
+    }
+
+    private static final class VideoIntents {
+        private final Map<String, Intent> intents = new ConcurrentHashMap<>();
+        private final AtomicLong likeDelta = new AtomicLong();
+
+        // Merge a failed flush's intents (older) under the ones recorded since (newer)
+        private static VideoIntents olderUnder(VideoIntents newer, VideoIntents older) {
+            older.intents.forEach((userId, intent) -> newer.intents.merge(userId, intent, (n, o) -> {
+                // The newer intent started from the older one's desired state; keep the original start
+                n.initial = o.initial;
+                return n;
+            }));
+            newer.likeDelta.addAndGet(older.likeDelta.get());
+            return newer;
+        }
+    }
+
+    private static final class Intent {
+        // Database state before the first tap; the intent is dropped if it ends there
+        private boolean initial;
+        private volatile boolean desired;
+
+        private Intent(boolean initial, boolean desired) {
+            this.initial = initial;
+            this.desired = desired;
+        }
+    }
+}
@@ -8,11 +8,11 @@ import com.example.taktik.repository.UserRepository;
 import com.example.taktik.repository.VideoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
 
 @Service
 public class LikeService {
@@ -26,51 +26,59 @@ public class LikeService {
     @Autowired
     private VideoRepository videoRepository;
 
-    // Like a video
-    public Like likeVideo(String userId, String videoId) {
-        // Check if user already liked this video
-        if (likeRepository.existsByUser_IdAndVideo_Id(userId, videoId)) {
-            throw new RuntimeException("User has already liked this video");
-        }
+    @Autowired
+    private LikedSetCache likedSetCache;
 
-        // Validate user exists
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            throw new RuntimeException("User not found");
-        }
+    @Autowired
+    private LikeIngestBuffer likeIngestBuffer;
 
-        // Validate video exists
-        Optional<Video> video = videoRepository.findById(videoId);
-        if (video.isEmpty()) {
-            throw new RuntimeException("Video not found");
+    // Like a video through the ingest buffer: acknowledged at once, written with the next batch.
+    // Trending counts the like once the flush has actually inserted it
+    public void submitLike(String userId, String videoId) {
+        requireUserAndVideo(userId, videoId);
+        if (!likeIngestBuffer.submit(userId, videoId, true)) {
+            throw new RuntimeException("User has already liked this video");
         }
-
-        Like like = new Like();
-        like.setId(UUID.randomUUID().toString());
-        like.setUser(user.get());
-        like.setVideo(video.get());
-
-        return likeRepository.save(like);
     }
 
-    // Unlike a video
-    @Transactional
-    public void unlikeVideo(String userId, String videoId) {
-        if (!likeRepository.existsByUser_IdAndVideo_Id(userId, videoId)) {
+    // Unlike a video through the ingest buffer
+    public void submitUnlike(String userId, String videoId) {
+        requireUserAndVideo(userId, videoId);
+        if (!likeIngestBuffer.submit(userId, videoId, false)) {
             throw new RuntimeException("User has not liked this video");
         }
+    }
 
-        likeRepository.deleteByUser_IdAndVideo_Id(userId, videoId);
+    // Toggle like through the ingest buffer, returning the new state
+    public boolean submitToggle(String userId, String videoId) {
+        requireUserAndVideo(userId, videoId);
+        return likeIngestBuffer.toggle(userId, videoId);
     }
 
-    // Check if user has liked a video
+    // Check if user has liked a video, including the user's own taps not yet written
     public boolean hasUserLikedVideo(String userId, String videoId) {
-        return likeRepository.existsByUser_IdAndVideo_Id(userId, videoId);
+        return likeIngestBuffer.isLiked(userId, videoId);
+    }
+
+    // Which of the given videos a user has liked, including the user's own taps not yet written
+    public Set<String> getLikedVideoIds(String userId, Collection<String> videoIds) {
+        Set<String> liked = likedSetCache.getLikedAmong(userId, videoIds);
+        for (String videoId : videoIds) {
+            Boolean pending = likeIngestBuffer.pendingState(userId, videoId);
+            if (pending != null) {
+                if (pending) {
+                    liked.add(videoId);
+                } else {
+                    liked.remove(videoId);
+                }
+            }
+        }
+        return liked;
     }
 
-    // Get like count for a video
+    // Get like count for a video: its counter column plus buffered likes not yet written
     public long getLikeCountByVideoId(String videoId) {
-        return likeRepository.countByVideo_Id(videoId);
+        return videoRepository.findLikeCount(videoId).orElse(0L) + likeIngestBuffer.getPendingLikeDelta(videoId);
     }
 
     // Get likes by video ID
@@ -98,15 +106,11 @@ public class LikeService {
         return likeRepository.countByUser_Id(userId);
     }
 
-    // Toggle like (like if not liked, unlike if already liked)
-    @Transactional
-    public boolean toggleLike(String userId, String videoId) {
-        if (hasUserLikedVideo(userId, videoId)) {
-            unlikeVideo(userId, videoId);
-            return false; // unliked
-        } else {
-            likeVideo(userId, videoId);
-            return true; // liked
+    // Buffered taps are acknowledged before they are written, so unknown ids are rejected up front: they would
+    // otherwise inflate the pending like count and load empty liked sets for users that do not exist
+    private void requireUserAndVideo(String userId, String videoId) {
+        if (userId == null || videoId == null || !videoRepository.existsById(videoId) || !userRepository.existsById(userId)) {
+            throw new RuntimeException("User or video not found");
         }
     }
 
@@ -0,0 +1,297 @@
+package com.example.taktik.service;
+
+import com.example.taktik.repository.LikeRepository;
+import com.example.taktik.util.RoaringBitmap;
+import com.example.taktik.util.VideoOrdinals;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-user sets of liked videos, so liked-state checks are answered from memory.
+// Video ids are interned as VideoOrdinals and each user's likes held as a compressed RoaringBitmap.
+// Ordinals are global, so one user's likes are usually spread over many 65536-wide chunks: a typical user
+// pays a small array container per like, about 40-50 bytes, and only likes that cluster within a chunk get
+// near 2 bytes each (the metrics report the actual bytes per like).
+// A user's bitmap is loaded in one query on first use and kept current by LikeService.
+// Users with more likes than the cap are not cached; their checks fall back to the database.
+@Service
+public class LikedSetCache {
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private VideoOrdinals videoOrdinals;
+
+    @Value("${likes.cache.max-likes-per-user:100000}")
+    private int maxLikesPerUser;
+
+    @Value("${likes.cache.idle-minutes:30}")
+    private long idleMinutes;
+
+    private final Map<String, LikedSet> sets = new ConcurrentHashMap<>();
+
+    // Loads in progress, so concurrent misses on one user share a query and writes can flag a load they raced
+    private final Map<String, Load> loading = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // Whether a user has liked a video
+    public boolean hasLiked(String userId, String videoId) {
+        if (userId == null || videoId == null) {
+            return false;
+        }
+        LikedSet entry = getEntry(userId);
+        if (entry.bitmap == null) {
+            misses.incrementAndGet();
+            return likeRepository.existsByUser_IdAndVideo_Id(userId, videoId);
+        }
+        hits.incrementAndGet();
+        // Every liked video was interned when its like was loaded or recorded
+        int ordinal = videoOrdinals.find(videoId);
+        synchronized (entry) {
+            return ordinal >= 0 && entry.bitmap.contains(ordinal);
+        }
+    }
+
+    // The subset of videoIds the user has liked
+    public Set<String> getLikedAmong(String userId, Collection<String> videoIds) {
+        Set<String> liked = new HashSet<>();
+        if (userId == null || videoIds.isEmpty()) {
+            return liked;
+        }
+        LikedSet entry = getEntry(userId);
+        if (entry.bitmap == null) {
+            misses.incrementAndGet();
+            liked.addAll(likeRepository.findLikedVideoIds(userId, videoIds));
+            return liked;
+        }
+        hits.incrementAndGet();
+        synchronized (entry) {
+            for (String videoId : videoIds) {
+                int ordinal = videoOrdinals.find(videoId);
+                if (ordinal >= 0 && entry.bitmap.contains(ordinal)) {
+                    liked.add(videoId);
+                }
+            }
+        }
+        return liked;
+    }
+
+    // Keep a resident bitmap in step with a like or unlike
+    public void onLiked(String userId, String videoId) {
+        flagRacingLoad(userId);
+        sets.computeIfPresent(userId, (id, entry) -> {
+            if (entry.bitmap != null) {
+                int ordinal = videoOrdinals.intern(videoId);
+                synchronized (entry) {
+                    entry.bitmap.add(ordinal);
+                }
+            }
+            return entry;
+        });
+    }
+
+    public void onUnliked(String userId, String videoId) {
+        flagRacingLoad(userId);
+        sets.computeIfPresent(userId, (id, entry) -> {
+            int ordinal = videoOrdinals.find(videoId);
+            if (entry.bitmap != null && ordinal >= 0) {
+                synchronized (entry) {
+                    entry.bitmap.remove(ordinal);
+                }
+            }
+            return entry;
+        });
+    }
+
+    // Forget a user's set so the next check reloads it
+    public void invalidate(String userId) {
+        sets.remove(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${likes.cache.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long idleBefore = System.currentTimeMillis() - idleMinutes * 60_000;
+        sets.values().removeIf(entry -> entry.lastAccess < idleBefore);
+    }
+
+    public int getResidentUserCount() {
+        return sets.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    // Memory held by resident bitmaps: total, largest and mean bytes per cached user, plus likes held
+    public MemoryStats getMemoryStats() {
+        MemoryStats stats = new MemoryStats();
+        for (LikedSet entry : sets.values()) {
+            stats.add(entry);
+        }
+        return stats;
+    }
+
+    // Memory held for one user, or null if the user is not resident
+    public MemoryStats getMemoryStats(String userId) {
+        LikedSet entry = sets.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        MemoryStats stats = new MemoryStats();
+        stats.add(entry);
+        return stats;
+    }
+
+    // The resident entry, or one loaded outside the map so the query does not block other users' bins.
+    // A load that a write raced still answers the caller but is not kept; the next check reloads
+    private LikedSet getEntry(String userId) {
+        LikedSet entry = sets.get(userId);
+        if (entry == null) {
+            Load load = new Load();
+            Load running = loading.putIfAbsent(userId, load);
+            if (running != null) {
+                try {
+                    entry = running.result.join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            } else {
+                try {
+                    entry = load(userId);
+                } catch (RuntimeException e) {
+                    loading.remove(userId, load);
+                    load.result.completeExceptionally(e);
+                    throw e;
+                }
+                // Publish before retiring the load: a write either finds the entry or flags the load
+                LikedSet resident = sets.putIfAbsent(userId, entry);
+                loading.remove(userId, load);
+                if (resident != null) {
+                    entry = resident;
+                } else if (load.raced) {
+                    sets.remove(userId, entry);
+                }
+                load.result.complete(entry);
+            }
+        }
+        entry.lastAccess = System.currentTimeMillis();
+        return entry;
+    }
+
+    // Called before a write touches the resident entry, so a load that missed the write is not kept
+    private void flagRacingLoad(String userId) {
+        Load load = loading.get(userId);
+        if (load != null) {
+            load.raced = true;
+        }
+    }
+
+    private LikedSet load(String userId) {
+        // Read one past the cap so an oversized set is detected without counting
+        List<String> ids = likeRepository.findAllLikedVideoIds(userId, PageRequest.of(0, maxLikesPerUser + 1));
+        if (ids.size() > maxLikesPerUser) {
+            return new LikedSet(null);
+        }
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (String videoId : ids) {
+            bitmap.add(videoOrdinals.intern(videoId));
+        }
+        return new LikedSet(bitmap);
+    }
+
+    private static final class LikedSet {
+        // null when the user has too many likes to cache
+        private final RoaringBitmap bitmap;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private LikedSet(RoaringBitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+    }
+
+    private static final class Load {
+        private final CompletableFuture<LikedSet> result = new CompletableFuture<>();
+        private volatile boolean raced;
+    }
+
+    public static final class MemoryStats {
+        private int cachedUsers;
+        private int uncachedUsers;
+        private long totalLikes;
+        private long totalContainers;
+        private long totalBytes;
+        private long maxBytesPerUser;
+
+        private void add(LikedSet entry) {
+            if (entry.bitmap == null) {
+                uncachedUsers++;
+                return;
+            }
+            long bytes;
+            int likes;
+            int containers;
+            synchronized (entry) {
+                bytes = entry.bitmap.getSizeInBytes();
+                likes = entry.bitmap.getCardinality();
+                containers = entry.bitmap.getContainerCount();
+            }
+            cachedUsers++;
+            totalBytes += bytes;
+            totalLikes += likes;
+            totalContainers += containers;
+            maxBytesPerUser = Math.max(maxBytesPerUser, bytes);
+        }
+
+        public int getCachedUsers() {
+            return cachedUsers;
+        }
+
+        public int getUncachedUsers() {
+            return uncachedUsers;
+        }
+
+        public long getTotalLikes() {
+            return totalLikes;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public long getMaxBytesPerUser() {
+            return maxBytesPerUser;
+        }
+
+        public long getMeanBytesPerUser() {
+            return cachedUsers > 0 ? totalBytes / cachedUsers : 0;
+        }
+
+        // Close to 1 when likes are spread one per chunk, which is what makes a like cost a whole container
+        public double getLikesPerContainer() {
+            return totalContainers > 0 ? (double) totalLikes / totalContainers : 0;
+        }
+
+        public double getBytesPerLike() {
+            return totalLikes > 0 ? (double) totalBytes / totalLikes : 0;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.taktik.service;
+
+import com.example.taktik.dto.UserSummaryDTO;
+import com.example.taktik.dto.VideoDTO;
+import com.example.taktik.util.ExpiringLruCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Result pages of the video and user search endpoints, keyed by normalized query and page.
+// Entries expire after the TTL and the least recently used are evicted past the size limit. Updating or
+// deleting a video or user evicts the cached pages that show it, so edited or removed records never linger;
+// newly created records appear in existing results once those expire.
+@Service
+public class SearchResultCache {
+
+    @Value("${search.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${search.cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private ExpiringLruCache<String, List<VideoDTO>> videos;
+    private ExpiringLruCache<String, List<UserSummaryDTO>> users;
+
+    @PostConstruct
+    public void init() {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        videos = new ExpiringLruCache<>(maxEntries, ttlNanos);
+        users = new ExpiringLruCache<>(maxEntries, ttlNanos);
+    }
+
+    public List<VideoDTO> getVideos(String query, int page, int size, Supplier<List<VideoDTO>> search) {
+        return videos.getOrLoad(key(query, page, size), search,
+                results -> results.stream().map(VideoDTO::getId).collect(Collectors.toList()));
+    }
+
+    // User search returns one capped page, so the query alone is the key
+    public List<UserSummaryDTO> getUsers(String query, Supplier<List<UserSummaryDTO>> search) {
+        return users.getOrLoad(key(query, 0, 0), search,
+                results -> results.stream().map(UserSummaryDTO::getId).collect(Collectors.toList()));
+    }
+
+    // A video was edited or deleted
+    public void onVideoChanged(String videoId) {
+        videos.invalidate(videoId);
+    }
+
+    // A user was renamed, edited or deleted
+    public void onUserChanged(String userId) {
+        users.invalidate(userId);
+    }
+
+    // Case, Unicode compatibility forms and runs of whitespace do not change what the searches match
+    static String key(String query, int page, int size) {
+        String normalized = Normalizer.normalize(query, Normalizer.Form.NFKC)
+                .trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return page + ":" + size + ":" + normalized;
+    }
+
+    public ExpiringLruCache<String, List<VideoDTO>> getVideoCache() {
+        return videos;
+    }
+
+    public ExpiringLruCache<String, List<UserSummaryDTO>> getUserCache() {
+        return users;
+    }
+}
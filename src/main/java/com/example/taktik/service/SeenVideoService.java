@@ -0,0 +1,274 @@
+package com.example.taktik.service;
+
+import com.example.taktik.model.SeenFilter;
+import com.example.taktik.model.Video;
+import com.example.taktik.repository.SeenFilterRepository;
+import com.example.taktik.util.ScalableBloomFilter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Per-user "already seen" sets, kept as memory-capped scalable Bloom filters.
+// Filters are loaded on first use, written back periodically when dirty, and dropped from memory
+// (after a final write) once a user has been inactive for the idle timeout.
+// Marks from the view path never wait on the database: a mark for a user whose filter is not resident is
+// queued, and a scheduled job loads the filter and replays the queued marks into it.
+@Service
+public class SeenVideoService {
+
+    @Autowired
+    private SeenFilterRepository seenFilterRepository;
+
+    @Value("${seen.filter.initial-capacity:1000}")
+    private int initialCapacity;
+
+    @Value("${seen.filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${seen.filter.max-bytes-per-user:65536}")
+    private int maxBytesPerUser;
+
+    @Value("${seen.filter.idle-minutes:30}")
+    private long idleMinutes;
+
+    // Marks queued per user until the scheduled load; beyond this many a user's further marks are dropped
+    @Value("${seen.filter.max-pending-per-user:256}")
+    private int maxPendingPerUser;
+
+    private final Map<String, UserFilter> filters = new ConcurrentHashMap<>();
+
+    // Marks for users whose filter is not resident; taken only by removing the whole list from the map
+    private final Map<String, List<String>> pendingMarks = new ConcurrentHashMap<>();
+
+    private final AtomicLong droppedMarks = new AtomicLong();
+
+    // Record that a user has watched a video, in memory only
+    public void markSeen(String userId, String videoId) {
+        if (userId == null || videoId == null) {
+            return;
+        }
+        UserFilter entry = filters.get(userId);
+        if (entry != null) {
+            entry.lastAccess = System.currentTimeMillis();
+            synchronized (entry) {
+                if (!entry.retired) {
+                    add(entry, videoId);
+                    return;
+                }
+            }
+        }
+        queue(userId, List.of(videoId));
+    }
+
+    // Whether a user has (probably) watched a video; false positives hide a video, never repeat one
+    public boolean hasSeen(String userId, String videoId) {
+        if (userId == null) {
+            return false;
+        }
+        return withFilter(userId, entry -> entry.filter.mightContain(videoId));
+    }
+
+    // Keep only the videos a user has not seen, preserving order
+    public List<Video> filterUnseen(String userId, List<Video> videos) {
+        if (userId == null || videos.isEmpty()) {
+            return videos;
+        }
+        return withFilter(userId, entry -> {
+            List<Video> unseen = new ArrayList<>(videos.size());
+            for (Video video : videos) {
+                if (!entry.filter.mightContain(video.getId())) {
+                    unseen.add(video);
+                }
+            }
+            return unseen;
+        });
+    }
+
+    // Reorder so unseen videos come first, keeping the original order within each group
+    public List<Video> unseenFirst(String userId, List<Video> videos) {
+        if (userId == null || videos.isEmpty()) {
+            return videos;
+        }
+        return withFilter(userId, entry -> {
+            List<Video> unseen = new ArrayList<>(videos.size());
+            List<Video> seen = new ArrayList<>();
+            for (Video video : videos) {
+                (entry.filter.mightContain(video.getId()) ? seen : unseen).add(video);
+            }
+            unseen.addAll(seen);
+            return unseen;
+        });
+    }
+
+    public int getResidentUserCount() {
+        return filters.size();
+    }
+
+    public int getPendingUserCount() {
+        return pendingMarks.size();
+    }
+
+    public long getDroppedMarks() {
+        return droppedMarks.get();
+    }
+
+    // Load the filters of users with queued marks and replay the marks into them. A user whose load fails
+    // keeps their marks queued for the next run
+    @Scheduled(fixedDelayString = "${seen.filter.load-interval-ms:250}")
+    public void loadPending() {
+        for (String userId : pendingMarks.keySet()) {
+            try {
+                resident(userId);
+            } catch (RuntimeException e) {
+                System.out.println("Seen filter: failed to load filter for " + userId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Write dirty filters back and evict users idle past the timeout
+    @Scheduled(fixedDelayString = "${seen.filter.flush-interval-ms:60000}")
+    public void flushAndEvict() {
+        long idleBefore = System.currentTimeMillis() - idleMinutes * 60_000;
+        for (Map.Entry<String, UserFilter> e : filters.entrySet()) {
+            UserFilter entry = e.getValue();
+            if (entry.lastAccess < idleBefore) {
+                evict(e.getKey(), entry);
+            } else {
+                persist(e.getKey(), entry);
+            }
+        }
+    }
+
+    // Persist everything still in memory on shutdown
+    @PreDestroy
+    public void flushAll() {
+        filters.forEach(this::persist);
+    }
+
+    // Run an action on a user's filter while holding its lock, retrying if the filter was evicted meanwhile
+    private <T> T withFilter(String userId, Function<UserFilter, T> action) {
+        while (true) {
+            UserFilter entry = resident(userId);
+            entry.lastAccess = System.currentTimeMillis();
+            synchronized (entry) {
+                if (!entry.retired) {
+                    return action.apply(entry);
+                }
+            }
+        }
+    }
+
+    // The user's resident filter with any queued marks applied, loading it outside the map when absent so
+    // the query holds no map bin. Concurrent loads of one user both read the saved copy: eviction removes an
+    // entry only after saving it, so the first to publish wins and the other is discarded
+    private UserFilter resident(String userId) {
+        UserFilter entry = filters.get(userId);
+        if (entry == null || entry.retired) {
+            UserFilter loaded = load(userId);
+            if (entry != null) {
+                filters.remove(userId, entry);
+            }
+            UserFilter published = filters.putIfAbsent(userId, loaded);
+            entry = published != null ? published : loaded;
+        }
+        List<String> marks = pendingMarks.remove(userId);
+        if (marks != null) {
+            synchronized (entry) {
+                if (entry.retired) {
+                    queue(userId, marks);
+                } else {
+                    for (String videoId : marks) {
+                        add(entry, videoId);
+                    }
+                }
+            }
+        }
+        return entry;
+    }
+
+    private void queue(String userId, List<String> videoIds) {
+        pendingMarks.compute(userId, (id, marks) -> {
+            List<String> queued = marks != null ? marks : new ArrayList<>();
+            for (String videoId : videoIds) {
+                if (queued.size() < maxPendingPerUser) {
+                    queued.add(videoId);
+                } else {
+                    droppedMarks.incrementAndGet();
+                }
+            }
+            return queued;
+        });
+    }
+
+    // Caller holds the entry's lock
+    private static void add(UserFilter entry, String videoId) {
+        if (entry.filter.add(videoId)) {
+            entry.dirty = true;
+        }
+    }
+
+    private UserFilter load(String userId) {
+        byte[] data = seenFilterRepository.findById(userId).map(SeenFilter::getData).orElse(null);
+        return new UserFilter(ScalableBloomFilter.fromBytes(data, initialCapacity, falsePositiveRate, maxBytesPerUser));
+    }
+
+    // Write an idle filter back and drop it. Saving under the entry's lock means no mark can land between the
+    // snapshot and the removal; marks that arrive after see the entry retired and reload the saved copy.
+    // If the save fails the entry stays resident and dirty for the next flush
+    private void evict(String userId, UserFilter entry) {
+        synchronized (entry) {
+            if (entry.dirty) {
+                try {
+                    seenFilterRepository.save(new SeenFilter(userId, entry.filter.toBytes()));
+                } catch (RuntimeException e) {
+                    System.out.println("Seen filter: failed to persist filter for " + userId + ": " + e.getMessage());
+                    return;
+                }
+                entry.dirty = false;
+            }
+            entry.retired = true;
+            filters.remove(userId, entry);
+        }
+    }
+
+    private void persist(String userId, UserFilter entry) {
+        byte[] data;
+        synchronized (entry) {
+            if (!entry.dirty) {
+                return;
+            }
+            data = entry.filter.toBytes();
+            entry.dirty = false;
+        }
+        try {
+            seenFilterRepository.save(new SeenFilter(userId, data));
+        } catch (RuntimeException e) {
+            // Retry on the next flush
+            synchronized (entry) {
+                entry.dirty = true;
+            }
+            System.out.println("Seen filter: failed to persist filter for " + userId + ": " + e.getMessage());
+        }
+    }
+
+    private static final class UserFilter {
+        private final ScalableBloomFilter filter;
+        private volatile long lastAccess;
+        private boolean dirty;
+        // Evicted from the map; set under the entry's lock, read without it only as a hint
+        private volatile boolean retired;
+
+        private UserFilter(ScalableBloomFilter filter) {
+            this.filter = filter;
+        }
+    }
+}
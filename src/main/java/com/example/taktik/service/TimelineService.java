@@ -0,0 +1,308 @@
+package com.example.taktik.service;
+
+import com.example.taktik.model.Video;
+import com.example.taktik.repository.FollowRepository;
+import com.example.taktik.repository.VideoRepository;
+import com.example.taktik.util.FeedMerger;
+import com.example.taktik.util.KeysetCursor;
+import com.example.taktik.util.RecentVideoList;
+import com.example.taktik.util.TimelineBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Hybrid home timelines.
+// Regular authors are fanned out on write into a precomputed per-reader buffer; high-follower
+// authors (see FeedFanoutPolicy) are k-way merged in at read time from AuthorVideoIndex.
+// Timelines live in memory only for recently active readers and are rebuilt from the index on a miss.
+@Service
+public class TimelineService {
+
+    // Cursor that sorts before every real video, used to read the database from the top
+    private static final KeysetCursor FEED_START = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 0, 0), "");
+
+    // Stand-in for an empty NOT IN list
+    private static final Set<String> NO_AUTHORS = Set.of("");
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private FeedFanoutPolicy fanoutPolicy;
+
+    @Autowired
+    private AuthorVideoIndex authorVideoIndex;
+
+    @Value("${feed.timeline.capacity:500}")
+    private int timelineCapacity;
+
+    @Value("${feed.timeline.max-users:10000}")
+    private int maxUsers;
+
+    // Access-ordered so the least recently read timeline is evicted first
+    private final Map<String, HomeTimeline> timelines = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, HomeTimeline> eldest) {
+                    return size() > maxUsers;
+                }
+            });
+
+    // Read one page of a user's timeline: pushed entries merged with pulled authors' recent videos
+    public List<Video> readTimeline(String userId, KeysetCursor after, int limit) {
+        HomeTimeline timeline = getOrBuildTimeline(userId);
+
+        List<FeedKey> candidates = new ArrayList<>();
+        Map<String, Video> loaded = new HashMap<>();
+
+        // Pushed authors: the precomputed buffer, then the database past its floor
+        FeedKey lastPushed = collect(timeline.pushed, after, limit, candidates);
+        int pushedCount = candidates.size();
+        if (pushedCount < limit && timeline.pushed.isTruncated()) {
+            KeysetCursor from = lastPushed != null
+                    ? new KeysetCursor(KeysetCursor.fromEpochNanos(lastPushed.createdAt), lastPushed.videoId)
+                    : (after != null ? after : FEED_START);
+            List<Video> older = videoRepository.findFollowingFeedPageAfterExcluding(userId,
+                    orNone(timeline.pullAuthors), from.getCreatedAt(), from.getId(), PageRequest.of(0, limit - pushedCount));
+            addLoaded(older, candidates, loaded);
+        }
+
+        // Pulled authors: k-way merge of their recent videos, then the database past the index
+        if (!timeline.pullAuthors.isEmpty()) {
+            FeedMerger pulled = authorVideoIndex.mergeNewest(new ArrayList<>(timeline.pullAuthors), after, limit);
+            FeedKey lastPulled = null;
+            for (int i = 0; i < pulled.getCount(); i++) {
+                lastPulled = new FeedKey(authorVideoIndex.videoIdOf(pulled.ordinalAt(i)), pulled.createdAtAt(i));
+                candidates.add(lastPulled);
+            }
+            if (pulled.needsDatabase()) {
+                KeysetCursor from = lastPulled != null
+                        ? new KeysetCursor(KeysetCursor.fromEpochNanos(lastPulled.createdAt), lastPulled.videoId)
+                        : (after != null ? after : FEED_START);
+                List<Video> older = videoRepository.findByAuthorsPageAfter(timeline.pullAuthors,
+                        from.getCreatedAt(), from.getId(), PageRequest.of(0, limit - pulled.getCount()));
+                addLoaded(older, candidates, loaded);
+            }
+        }
+
+        candidates.sort((a, b) -> KeysetCursor.compareKeys(b.createdAt, b.videoId, a.createdAt, a.videoId));
+
+        List<String> pageIds = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        for (FeedKey key : candidates) {
+            if (pageIds.size() == limit) {
+                break;
+            }
+            if (seen.add(key.videoId)) {
+                pageIds.add(key.videoId);
+            }
+        }
+        return loadInOrder(pageIds, loaded);
+    }
+
+    // Push a new video into loaded follower timelines (pull-mode authors are read from the index instead)
+    public void onVideoCreated(Video video) {
+        if (video.getUser() == null || video.getCreatedAt() == null) {
+            return;
+        }
+        String authorId = video.getUser().getId();
+        if (fanoutPolicy.isPullAuthor(authorId)) {
+            return;
+        }
+
+        long createdAt = KeysetCursor.toEpochNanos(video.getCreatedAt());
+        for (String followerId : followRepository.findFollowerIds(authorId)) {
+            HomeTimeline timeline = timelines.get(followerId);
+            if (timeline != null) {
+                timeline.pushed.add(video.getId(), authorId, createdAt);
+            }
+        }
+    }
+
+    // Drop a deleted video from loaded timelines
+    public void onVideoDeleted(String videoId) {
+        List<HomeTimeline> loaded;
+        synchronized (timelines) {
+            loaded = new ArrayList<>(timelines.values());
+        }
+        for (HomeTimeline timeline : loaded) {
+            timeline.pushed.removeVideo(videoId);
+        }
+    }
+
+    // Start pulling, or backfill the newly followed author's recent videos
+    public void onFollow(String followerId, String followingId) {
+        onFollowerCountChanged(followingId);
+
+        HomeTimeline timeline = timelines.get(followerId);
+        if (timeline == null) {
+            return;
+        }
+        if (fanoutPolicy.isPullAuthor(followingId)) {
+            timeline.pullAuthors.add(followingId);
+            return;
+        }
+
+        RecentVideoList recent = authorVideoIndex.getRecentVideos(followingId);
+        for (int i = 0; i < recent.size(); i++) {
+            timeline.pushed.add(authorVideoIndex.videoIdOf(recent.ordinalAt(i)), followingId, recent.createdAtAt(i));
+        }
+        if (recent.isTruncated() && recent.size() > 0) {
+            // The author's older videos are only in the database
+            int oldest = recent.size() - 1;
+            timeline.pushed.raiseFloor(recent.createdAtAt(oldest), authorVideoIndex.videoIdOf(recent.ordinalAt(oldest)));
+        }
+    }
+
+    // Stop pulling, or prune the unfollowed author's videos
+    public void onUnfollow(String followerId, String followingId) {
+        onFollowerCountChanged(followingId);
+
+        HomeTimeline timeline = timelines.get(followerId);
+        if (timeline != null) {
+            timeline.pullAuthors.remove(followingId);
+            timeline.pushed.removeAuthor(followingId);
+        }
+    }
+
+    // An author switching between push and pull changes how their followers' timelines are built: drop the loaded
+    // ones so the next read rebuilds them under the new mode
+    private void onFollowerCountChanged(String authorId) {
+        if (!fanoutPolicy.onFollowerCountChanged(authorId)) {
+            return;
+        }
+        for (String followerId : followRepository.findFollowerIds(authorId)) {
+            timelines.remove(followerId);
+        }
+    }
+
+    // Forget a user's timeline so the next read rebuilds it
+    public void invalidate(String userId) {
+        timelines.remove(userId);
+    }
+
+    private HomeTimeline getOrBuildTimeline(String userId) {
+        long policyVersion = fanoutPolicy.getVersion();
+        HomeTimeline timeline = timelines.get(userId);
+        if (timeline != null && timeline.policyVersion == policyVersion) {
+            return timeline;
+        }
+
+        Set<String> pullAuthors = ConcurrentHashMap.newKeySet();
+        List<String> pushAuthors = new ArrayList<>();
+        for (String followingId : followRepository.findFollowingIds(userId)) {
+            if (fanoutPolicy.isPullAuthor(followingId)) {
+                pullAuthors.add(followingId);
+            } else {
+                pushAuthors.add(followingId);
+            }
+        }
+
+        // Rebuild the pushed part by merging the followed authors' recent videos
+        timeline = new HomeTimeline(new TimelineBuffer(timelineCapacity), pullAuthors, policyVersion);
+        FeedMerger merged = authorVideoIndex.mergeNewest(pushAuthors, null, timelineCapacity);
+        for (int i = 0; i < merged.getCount(); i++) {
+            timeline.pushed.add(authorVideoIndex.videoIdOf(merged.ordinalAt(i)),
+                    pushAuthors.get(merged.sourceAt(i)), merged.createdAtAt(i));
+        }
+        if (merged.getCount() == timelineCapacity || merged.needsDatabase()) {
+            // Older entries may exist that are not in the buffer
+            if (merged.getCount() > 0) {
+                int last = merged.getCount() - 1;
+                timeline.pushed.raiseFloor(merged.createdAtAt(last), authorVideoIndex.videoIdOf(merged.ordinalAt(last)));
+            } else {
+                timeline.pushed.raiseFloor(KeysetCursor.toEpochNanos(LocalDateTime.now()), "");
+            }
+        }
+
+        timelines.put(userId, timeline);
+        return timeline;
+    }
+
+    // Copy up to limit keys after the cursor from a buffer, returning the last one copied
+    private FeedKey collect(TimelineBuffer buffer, KeysetCursor after, int limit, List<FeedKey> out) {
+        String[] ids = new String[limit];
+        long[] createdAt = new long[limit];
+        int count = buffer.page(after, limit, ids, createdAt);
+
+        FeedKey last = null;
+        for (int i = 0; i < count; i++) {
+            last = new FeedKey(ids[i], createdAt[i]);
+            out.add(last);
+        }
+        return last;
+    }
+
+    private void addLoaded(List<Video> videos, List<FeedKey> candidates, Map<String, Video> loaded) {
+        for (Video video : videos) {
+            candidates.add(new FeedKey(video.getId(), KeysetCursor.toEpochNanos(video.getCreatedAt())));
+            loaded.put(video.getId(), video);
+        }
+    }
+
+    private Collection<String> orNone(Set<String> authorIds) {
+        return authorIds.isEmpty() ? NO_AUTHORS : authorIds;
+    }
+
+    // Hydrate video ids preserving timeline order, skipping videos deleted since they were pushed
+    private List<Video> loadInOrder(List<String> videoIds, Map<String, Video> loaded) {
+        List<String> missing = new ArrayList<>();
+        for (String id : videoIds) {
+            if (!loaded.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Video video : videoRepository.findAllById(missing)) {
+                loaded.put(video.getId(), video);
+            }
+        }
+
+        List<Video> ordered = new ArrayList<>(videoIds.size());
+        for (String id : videoIds) {
+            Video video = loaded.get(id);
+            if (video != null) {
+                ordered.add(video);
+            }
+        }
+        return ordered;
+    }
+
+    private static final class HomeTimeline {
+        private final TimelineBuffer pushed;
+        private final Set<String> pullAuthors;
+        private final long policyVersion;
+
+        private HomeTimeline(TimelineBuffer pushed, Set<String> pullAuthors, long policyVersion) {
+            this.pushed = pushed;
+            this.pullAuthors = pullAuthors;
+            this.policyVersion = policyVersion;
+        }
+    }
+
+    private static final class FeedKey {
+        private final String videoId;
+        private final long createdAt;
+
+        private FeedKey(String videoId, long createdAt) {
+            this.videoId = videoId;
+            this.createdAt = createdAt;
+        }
+    }
+}
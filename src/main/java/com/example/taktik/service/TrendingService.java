@@ -0,0 +1,179 @@
+package com.example.taktik.service;
+
+import com.example.taktik.model.Video;
+import com.example.taktik.repository.VideoRepository;
+import com.example.taktik.util.DecayedTopK;
+import com.example.taktik.util.HeavyHitters;
+import com.example.taktik.util.KeysetCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Trending videos, fed by view, like and comment events.
+// The default list comes from a time-decayed in-memory top-K and costs O(K) plus one batched lookup of the videos;
+// "1h" and "24h" use the sliding-window counters, "hot" the running heavy-hitter epoch, and "all" all-time views.
+// Views reach the decayed leaderboard in batches: each heavy-hitter epoch's top-K is folded in when it closes,
+// so the view path never takes the leaderboard lock.
+@Service
+public class TrendingService {
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private EngagementWindowService engagementWindows;
+
+    @Autowired
+    private HeavyHitterService heavyHitters;
+
+    @Value("${trending.half-life-hours:6}")
+    private double halfLifeHours;
+
+    @Value("${trending.capacity:1000}")
+    private int capacity;
+
+    @Value("${trending.page-size:10}")
+    private int defaultPageSize;
+
+    @Value("${trending.weight.view:1}")
+    private double viewWeight;
+
+    @Value("${trending.weight.like:3}")
+    private double likeWeight;
+
+    @Value("${trending.weight.comment:5}")
+    private double commentWeight;
+
+    private DecayedTopK leaderboard;
+
+    @PostConstruct
+    public void init() {
+        leaderboard = new DecayedTopK(capacity, halfLifeHours, KeysetCursor.toEpochNanos(LocalDateTime.now()));
+    }
+
+    // Seed from all-time views so trending is not empty right after a restart.
+    // Views are log-damped so old viral videos decay out as soon as fresh engagement arrives.
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long now = now();
+        synchronized (leaderboard) {
+            for (Video video : videoRepository.findTop100ByOrderByViewCountDesc()) {
+                long views = video.getViewCount() != null ? video.getViewCount() : 0;
+                leaderboard.add(video.getId(), viewWeight * Math.log1p(views), now);
+            }
+        }
+    }
+
+    public void onView(String videoId) {
+        heavyHitters.offer(videoId);
+        engagementWindows.onView(videoId);
+    }
+
+    // Fold the finished heavy-hitter epoch's view counts into the leaderboard
+    @Scheduled(fixedRateString = "${heavy-hitters.epoch-ms:10000}")
+    public void foldHeavyHitters() {
+        List<HeavyHitters.Hitter> hitters = heavyHitters.rotate();
+        long now = now();
+        synchronized (leaderboard) {
+            for (HeavyHitters.Hitter hitter : hitters) {
+                leaderboard.add(hitter.getKey(), viewWeight * hitter.getCount(), now);
+            }
+        }
+    }
+
+    public void onLike(String videoId) {
+        record(videoId, likeWeight);
+        engagementWindows.onLike(videoId);
+    }
+
+    public void onComment(String videoId) {
+        record(videoId, commentWeight);
+        engagementWindows.onComment(videoId);
+    }
+
+    public void onVideoDeleted(String videoId) {
+        synchronized (leaderboard) {
+            leaderboard.remove(videoId);
+        }
+        engagementWindows.onVideoDeleted(videoId);
+    }
+
+    // Ids of the current top videos, best first
+    public List<String> getTopVideoIds(int limit) {
+        synchronized (leaderboard) {
+            return leaderboard.top(limit);
+        }
+    }
+
+    // The current top videos, best first
+    public List<Video> getTrendingVideos(int limit) {
+        return loadInOrder(getTopVideoIds(limit));
+    }
+
+    // The top videos for a window: null for the decayed default, "1h", "24h", "hot" or "all"
+    public List<Video> getTrendingVideos(String window, int limit) {
+        if (window == null || window.isBlank()) {
+            return getTrendingVideos(limit);
+        }
+        switch (window) {
+            case "1h":
+                return loadInOrder(engagementWindows.top(EngagementWindowService.Window.HOUR, limit,
+                        viewWeight, likeWeight, commentWeight));
+            case "24h":
+                return loadInOrder(engagementWindows.top(EngagementWindowService.Window.DAY, limit,
+                        viewWeight, likeWeight, commentWeight));
+            case "hot":
+                List<String> ids = new ArrayList<>(limit);
+                for (HeavyHitters.Hitter hitter : heavyHitters.getHottest(limit)) {
+                    ids.add(hitter.getKey());
+                }
+                return loadInOrder(ids);
+            case "all":
+                return videoRepository.findAllByOrderByViewCountDesc(PageRequest.of(0, limit));
+            default:
+                throw new IllegalArgumentException("Unknown trending window: " + window);
+        }
+    }
+
+    public int getDefaultPageSize() {
+        return defaultPageSize;
+    }
+
+    // Hydrate video ids preserving their order, skipping deleted videos
+    private List<Video> loadInOrder(List<String> ids) {
+        Map<String, Video> byId = new HashMap<>();
+        for (Video video : videoRepository.findAllById(ids)) {
+            byId.put(video.getId(), video);
+        }
+        List<Video> videos = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Video video = byId.get(id);
+            if (video != null) {
+                videos.add(video);
+            }
+        }
+        return videos;
+    }
+
+    private void record(String videoId, double weight) {
+        long now = now();
+        synchronized (leaderboard) {
+            leaderboard.add(videoId, weight, now);
+        }
+    }
+
+    private static long now() {
+        return KeysetCursor.toEpochNanos(LocalDateTime.now());
+    }
+}
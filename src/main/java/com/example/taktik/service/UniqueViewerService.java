@@ -0,0 +1,227 @@
+package com.example.taktik.service;
+
+import com.example.taktik.model.VideoViewerSketch;
+import com.example.taktik.repository.VideoViewerSketchRepository;
+import com.example.taktik.util.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Approximate distinct viewers per video, kept as HyperLogLog sketches (~1.6% error, 4 KB each).
+// Views are added to an in-memory sketch per video and UTC day; a periodic flush merges each one into the
+// stored daily row and the all-time row, so the view path never touches the database. Daily rows merge
+// into any date range, and reads combine stored sketches with whatever is still pending.
+@Service
+public class UniqueViewerService {
+
+    static final int PRECISION = 12;
+
+    private static final String EXISTING_VIDEOS_SQL = "SELECT id FROM video WHERE id = ANY(?)";
+
+    private static final String STORED_SKETCHES_SQL =
+            "SELECT id, registers FROM video_viewer_sketch WHERE id = ANY(?) ORDER BY id FOR UPDATE";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO video_viewer_sketch (id, video_id, day, registers, updated_at) VALUES (?, ?, ?, ?, now()) " +
+            "ON CONFLICT (id) DO UPDATE SET registers = EXCLUDED.registers, updated_at = EXCLUDED.updated_at";
+
+    @Autowired
+    private VideoViewerSketchRepository sketchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Pending sketches merged per transaction
+    @Value("${viewers.flush-batch-size:500}")
+    private int batchSize;
+
+    // "<videoId>|<day>" -> sketch of viewers not yet flushed
+    private final Map<String, PendingSketch> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong flushedSketches = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong droppedSketches = new AtomicLong();
+
+    // Record a view by a viewer key (user id, or an anonymous client key)
+    public void recordView(String videoId, String viewerKey) {
+        if (videoId == null || viewerKey == null) {
+            return;
+        }
+        LocalDate day = today();
+        // compute() runs atomically with the flush's remove(), so no view lands in a sketch already taken
+        pending.compute(VideoViewerSketch.idOf(videoId, day), (key, sketch) -> {
+            if (sketch == null) {
+                sketch = new PendingSketch(videoId, day, new HyperLogLog(PRECISION));
+            }
+            sketch.hll.add(viewerKey);
+            return sketch;
+        });
+    }
+
+    // Distinct viewers of a video over all time
+    public long getUniqueViewers(String videoId) {
+        HyperLogLog merged = load(VideoViewerSketch.idOf(videoId, null));
+        // Pending sketches are at most one flush interval old, so only today and yesterday can hold any
+        LocalDate today = today();
+        mergePending(merged, videoId, today);
+        mergePending(merged, videoId, today.minusDays(1));
+        return merged.estimate();
+    }
+
+    // Distinct viewers of a video between two UTC days, inclusive
+    public long getUniqueViewers(String videoId, LocalDate from, LocalDate to) {
+        HyperLogLog merged = new HyperLogLog(PRECISION);
+        for (VideoViewerSketch row : sketchRepository.findDaily(videoId, from, to)) {
+            merged.merge(HyperLogLog.fromBytes(row.getRegisters(), PRECISION));
+        }
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            mergePending(merged, videoId, day);
+        }
+        return merged.estimate();
+    }
+
+    // Drop pending and stored sketches of a deleted video
+    public void onVideoDeleted(String videoId) {
+        pending.values().removeIf(sketch -> sketch.videoId.equals(videoId));
+        sketchRepository.deleteByVideoId(videoId);
+    }
+
+    // Merge pending sketches into their stored daily and all-time rows, a batch of keys per transaction.
+    // Sketches of ids that match no video are dropped here, since the view path does not check the id
+    @Scheduled(fixedDelayString = "${viewers.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        List<PendingSketch> taken = new ArrayList<>();
+        for (String key : new ArrayList<>(pending.keySet())) {
+            PendingSketch sketch = pending.remove(key);
+            if (sketch != null) {
+                taken.add(sketch);
+            }
+        }
+        for (int from = 0; from < taken.size(); from += batchSize) {
+            List<PendingSketch> batch = taken.subList(from, Math.min(from + batchSize, taken.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> flushBatch(batch));
+            } catch (RuntimeException e) {
+                // Fold them back so the next flush retries; merging a sketch twice is harmless
+                for (PendingSketch sketch : batch) {
+                    pending.merge(VideoViewerSketch.idOf(sketch.videoId, sketch.day), sketch, (current, failed) -> {
+                        current.hll.merge(failed.hll);
+                        return current;
+                    });
+                }
+                failedFlushes.incrementAndGet();
+                System.out.println("Unique viewers: failed to flush " + batch.size() + " sketches: " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public int getPendingSketchCount() {
+        return pending.size();
+    }
+
+    public long getFlushedSketches() {
+        return flushedSketches.get();
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    public long getDroppedSketches() {
+        return droppedSketches.get();
+    }
+
+    // Keep the sketches of existing videos, lock and merge their stored rows, and write them back in one batch
+    private void flushBatch(List<PendingSketch> batch) {
+        Set<String> videoIds = new HashSet<>();
+        for (PendingSketch sketch : batch) {
+            videoIds.add(sketch.videoId);
+        }
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(EXISTING_VIDEOS_SQL, String.class,
+                (Object) videoIds.toArray(new String[0])));
+
+        // Row id -> merged sketch; one video's days all merge into its single all-time row
+        Map<String, PendingSketch> rows = new TreeMap<>(); // sorted ids: concurrent flushers lock rows in the same order
+        for (PendingSketch sketch : batch) {
+            if (!existing.contains(sketch.videoId)) {
+                droppedSketches.incrementAndGet();
+                continue;
+            }
+            mergeRow(rows, sketch, sketch.day);
+            mergeRow(rows, sketch, null);
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.query(STORED_SKETCHES_SQL, (ResultSet rs) -> {
+            rows.get(rs.getString("id")).hll.merge(HyperLogLog.fromBytes(rs.getBytes("registers"), PRECISION));
+        }, (Object) rows.keySet().toArray(new String[0]));
+
+        List<Object[]> upserts = new ArrayList<>(rows.size());
+        for (Map.Entry<String, PendingSketch> e : rows.entrySet()) {
+            PendingSketch row = e.getValue();
+            upserts.add(new Object[] {e.getKey(), row.videoId, row.day, row.hll.toBytes()});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, upserts);
+        flushedSketches.addAndGet(batch.size());
+    }
+
+    private static void mergeRow(Map<String, PendingSketch> rows, PendingSketch sketch, LocalDate day) {
+        rows.computeIfAbsent(VideoViewerSketch.idOf(sketch.videoId, day),
+                id -> new PendingSketch(sketch.videoId, day, new HyperLogLog(PRECISION))).hll.merge(sketch.hll);
+    }
+
+    private HyperLogLog load(String id) {
+        byte[] registers = sketchRepository.findById(id).map(VideoViewerSketch::getRegisters).orElse(null);
+        return HyperLogLog.fromBytes(registers, PRECISION);
+    }
+
+    private void mergePending(HyperLogLog target, String videoId, LocalDate day) {
+        // Merge under compute() so a concurrent add never sees a half-copied register array
+        pending.computeIfPresent(VideoViewerSketch.idOf(videoId, day), (key, sketch) -> {
+            target.merge(sketch.hll);
+            return sketch;
+        });
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private static final class PendingSketch {
+        private final String videoId;
+        private final LocalDate day;
+        private final HyperLogLog hll;
+
+        private PendingSketch(String videoId, LocalDate day, HyperLogLog hll) {
+            this.videoId = videoId;
+            this.day = day;
+            this.hll = hll;
+        }
+    }
+}
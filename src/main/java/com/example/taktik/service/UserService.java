@@ -1,22 +1,29 @@
 package com.example.taktik.service;
 
 import com.example.taktik.controller.UserController.UserStats;
+import com.example.taktik.dto.UserSummaryDTO;
 import com.example.taktik.model.User;
 import com.example.taktik.repository.UserRepository;
 import com.example.taktik.repository.VideoRepository;
 import com.example.taktik.repository.FollowRepository;
 import com.example.taktik.repository.LikeRepository;
+import com.example.taktik.util.ScoreCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class UserService {
 
+    // Substring search is a scan of users; never return more than this
+    private static final int MAX_SEARCH_RESULTS = 50;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -32,6 +39,15 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserTypeahead userTypeahead;
+
+    @Autowired
+    private DTOMapperService dtoMapperService;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
     // Get all users
     public List<User> getAllUsers() {
         return userRepository.findAll();
@@ -62,7 +78,15 @@ public class UserService {
         // Hash the password before saving
         user.setPassword(passwordEncoder.encode(user.getPassword()));
 
-        return userRepository.save(user);
+        // Counters start at zero and are never taken from the request
+        user.setFollowerCount(0L);
+        user.setFollowingCount(0L);
+        user.setVideoCount(0L);
+        user.setLikeCount(0L);
+
+        User saved = userRepository.save(user);
+        userTypeahead.onUserSaved(saved);
+        return saved;
     }
 
     // Update user
@@ -92,7 +116,10 @@ public class UserService {
             user.setBio(userDetails.getBio());
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userTypeahead.onUserSaved(saved);
+        searchResultCache.onUserChanged(id);
+        return saved;
     }
 
     // Delete user
@@ -101,6 +128,8 @@ public class UserService {
             throw new RuntimeException("User not found");
         }
         userRepository.deleteById(id);
+        userTypeahead.onUserDeleted(id);
+        searchResultCache.onUserChanged(id);
     }
 
     // Authenticate user with password hashing
@@ -120,10 +149,35 @@ public class UserService {
 
     // Search users by username
     public List<User> searchUsersByUsername(String query) {
-        return userRepository.findByUsernameContainingIgnoreCase(query);
+        return userRepository.findByUsernameContaining(query, PageRequest.of(0, MAX_SEARCH_RESULTS));
     }
 
-    // Get user statistics
+    // Most-followed users whose username starts with prefix, served from the in-memory trie
+    public List<UserSummaryDTO> typeaheadUsers(String prefix, int limit) {
+        List<UserSummaryDTO> users = userTypeahead.complete(prefix, limit);
+        if (users != null) {
+            return users;
+        }
+        // Trie still loading: bounded prefix query
+        return userRepository.findByUsernamePrefix(prefix, PageRequest.of(0, limit)).stream()
+                .map(dtoMapperService::convertToUserSummaryDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Fuzzy username search in Postgres, most similar first: up to limit rows after the cursor (see
+    // UserRepository.fuzzySearchRows)
+    public List<Object[]> fuzzySearchUsers(String query, ScoreCursor after, int limit) {
+        if (after == null) {
+            return userRepository.fuzzySearchRows(query, 2, "", limit);
+        }
+        return userRepository.fuzzySearchRows(query, after.getScore(), after.getId(), limit);
+    }
+
+    public int getMaxTypeaheadResults() {
+        return userTypeahead.getMaxResults();
+    }
+
+    // Get user statistics from the denormalized counters (a single primary-key read)
     public UserStats getUserStats(String userId) {
         Optional<User> user = userRepository.findById(userId);
         if (user.isEmpty()) {
@@ -131,12 +185,8 @@ public class UserService {
         }
 
         User userEntity = user.get();
-        long videoCount = videoRepository.countByUser(userEntity);
-        long followerCount = followRepository.countByFollowingId(userId);
-        long followingCount = followRepository.countByFollowerId(userId);
-        long totalLikes = likeRepository.countByUser(userEntity);
-
-        return new UserStats(videoCount, followerCount, followingCount, totalLikes);
+        return new UserStats(userEntity.getVideoCount(), userEntity.getFollowerCount(),
+                userEntity.getFollowingCount(), userEntity.getLikeCount());
     }
 
     // Check if user exists
@@ -0,0 +1,134 @@
+package com.example.taktik.service;
+
+import com.example.taktik.dto.UserSummaryDTO;
+import com.example.taktik.model.User;
+import com.example.taktik.repository.UserRepository;
+import com.example.taktik.util.RankedPrefixTrie;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Username prefix completion, most-followed first (see RankedPrefixTrie).
+// Loaded once at startup and kept current by UserService on register, rename and delete, and by
+// FollowService as follower counts move. Each user's username and avatar are held beside the trie, so a
+// completion is answered without touching the database. Until the load finishes, or when
+// search.in-memory.enabled is false, complete() returns null and callers fall back to the database.
+@Service
+public class UserTypeahead {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${search.in-memory.enabled:true}")
+    private boolean enabled;
+
+    // Most completions kept per prefix, and so the largest page the endpoint serves
+    @Value("${search.users.typeahead-size:10}")
+    private int maxResults;
+
+    private RankedPrefixTrie trie;
+
+    // id -> what a completion shows; written before the trie entry and removed after it, so every id the
+    // trie returns has one
+    private final Map<String, Profile> profiles = new ConcurrentHashMap<>();
+
+    private volatile boolean warm;
+
+    @PostConstruct
+    public void init() {
+        trie = new RankedPrefixTrie(maxResults);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmLoad() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try (Stream<Object[]> rows = userRepository.streamTypeaheadFields()) {
+            // putIfAbsent: a user registered or renamed while loading keeps the newer name
+            rows.forEach(row -> {
+                String id = (String) row[0];
+                if (profiles.putIfAbsent(id, new Profile((String) row[1], (String) row[3])) == null) {
+                    trie.putIfAbsent(id, (String) row[1], row[2] != null ? ((Number) row[2]).longValue() : 0L);
+                }
+            });
+        }
+        warm = true;
+
+        System.out.println("User typeahead: loaded " + trie.size() + " usernames into " + trie.getNodeCount()
+                + " trie nodes in " + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    // The most-followed users whose username starts with prefix, or null while the trie is loading
+    public List<UserSummaryDTO> complete(String prefix, int limit) {
+        if (!warm) {
+            return null;
+        }
+        List<String> ids = trie.complete(prefix, limit);
+        List<UserSummaryDTO> users = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Profile profile = profiles.get(id);
+            if (profile != null) {
+                users.add(new UserSummaryDTO(id, profile.username, profile.avatarUrl, null, null, null));
+            }
+        }
+        return users;
+    }
+
+    // Index a new or renamed user
+    public void onUserSaved(User user) {
+        if (!enabled) {
+            return;
+        }
+        long followers = user.getFollowerCount() != null ? user.getFollowerCount() : 0L;
+        profiles.put(user.getId(), new Profile(user.getUsername(), user.getAvatarUrl()));
+        trie.put(user.getId(), user.getUsername(), followers);
+    }
+
+    public void onUserDeleted(String userId) {
+        trie.remove(userId);
+        profiles.remove(userId);
+    }
+
+    public void onFollowerCountChanged(String userId, long delta) {
+        trie.addScore(userId, delta);
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public int getIndexedUsers() {
+        return trie.size();
+    }
+
+    public int getNodeCount() {
+        return trie.getNodeCount();
+    }
+
+    private static final class Profile {
+        private final String username;
+        private final String avatarUrl;
+
+        private Profile(String username, String avatarUrl) {
+            this.username = username;
+            this.avatarUrl = avatarUrl;
+        }
+    }
+}
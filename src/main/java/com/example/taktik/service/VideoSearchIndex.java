@@ -0,0 +1,112 @@
+package com.example.taktik.service;
+
+import com.example.taktik.model.Video;
+import com.example.taktik.repository.VideoRepository;
+import com.example.taktik.util.InvertedIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+// Full-text index of video titles and descriptions, ranked with BM25 (see InvertedIndex).
+// Loaded once at startup and kept current by VideoService on create, update and delete. Until the load
+// finishes, or when search.in-memory.enabled is false, search() returns null and callers fall back to the database.
+@Service
+public class VideoSearchIndex {
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    // Deployments that keep search in Postgres (pg_trgm) can skip the index and its memory entirely
+    @Value("${search.in-memory.enabled:true}")
+    private boolean enabled;
+
+    // Compact once deleted and replaced docs make up this share of the index
+    @Value("${search.videos.compact-ratio:0.2}")
+    private double compactRatio;
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    private volatile boolean warm;
+    private volatile long lastCompactionMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmLoad() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try (Stream<Object[]> rows = videoRepository.streamSearchFields()) {
+            // putIfAbsent: a video created or edited while loading keeps its newer text
+            rows.forEach(row -> index.putIfAbsent((String) row[0], (String) row[1], (String) row[2]));
+        }
+        warm = true;
+
+        System.out.println("Video search index: loaded " + index.size() + " videos, " + index.getTermCount()
+                + " terms in " + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    // Ids of the best-matching videos, best first, or null while the index is still loading
+    public List<String> search(String query, int offset, int limit) {
+        if (!warm) {
+            return null;
+        }
+        return index.search(query, offset, limit);
+    }
+
+    // Index a new or edited video
+    public void onVideoSaved(Video video) {
+        if (!enabled) {
+            return;
+        }
+        index.put(video.getId(), video.getTitle(), video.getDescription());
+    }
+
+    public void onVideoDeleted(String videoId) {
+        index.remove(videoId);
+    }
+
+    @Scheduled(fixedDelayString = "${search.videos.compact-interval-ms:300000}")
+    public void compactIfNeeded() {
+        int deleted = index.getDeletedDocs();
+        if (deleted == 0 || deleted < compactRatio * (deleted + index.size())) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        int reclaimed = index.compact();
+        lastCompactionMillis = System.currentTimeMillis();
+        System.out.println("Video search index: compacted " + reclaimed + " deleted docs in "
+                + (lastCompactionMillis - started) + " ms");
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public int getIndexedVideos() {
+        return index.size();
+    }
+
+    public int getDeletedDocs() {
+        return index.getDeletedDocs();
+    }
+
+    public int getTermCount() {
+        return index.getTermCount();
+    }
+
+    public long getPostingBytes() {
+        return index.getPostingBytes();
+    }
+
+    public long getLastCompactionMillis() {
+        return lastCompactionMillis;
+    }
+}
@@ -8,10 +8,19 @@ import com.example.taktik.repository.UserRepository;
 import com.example.taktik.repository.FollowRepository;
 import com.example.taktik.repository.LikeRepository;
 import com.example.taktik.repository.CommentRepository;
+import com.example.taktik.util.AfterCommit;
+import com.example.taktik.util.KeysetCursor;
+import com.example.taktik.util.ScoreCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -34,6 +43,42 @@ public class VideoService {
     @Autowired
     private CommentRepository commentRepository;
 
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private AuthorVideoIndex authorVideoIndex;
+
+    @Autowired
+    private FeedRankingService feedRankingService;
+
+    @Autowired
+    private SeenVideoService seenVideoService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private ViewCountBuffer viewCountBuffer;
+
+    @Autowired
+    private UniqueViewerService uniqueViewerService;
+
+    @Autowired
+    private LikeIngestBuffer likeIngestBuffer;
+
+    @Autowired
+    private VideoSearchIndex videoSearchIndex;
+
+    @Autowired
+    private HashtagService hashtagService;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Value("${feed.ranking.candidates:2000}")
+    private int rankingCandidates;
+
     // Get all videos
     public List<Video> getAllVideos() {
         return videoRepository.findAllByOrderByCreatedAtDesc();
@@ -50,6 +95,7 @@ public class VideoService {
     }
 
     // Create new video
+    @Transactional
     public Video createVideo(Video video) {
         // Generate ID if not provided
         if (video.getId() == null || video.getId().isEmpty()) {
@@ -72,7 +118,20 @@ public class VideoService {
             video.setViewCount(0L);
         }
 
-        return videoRepository.save(video);
+        // Engagement counters start at zero and are never taken from the request
+        video.setLikeCount(0L);
+        video.setCommentCount(0L);
+
+        Video savedVideo = videoRepository.save(video);
+        userRepository.addVideoCount(video.getUser().getId(), 1);
+
+        // Index the video and fan it out to followers' timelines
+        authorVideoIndex.onVideoCreated(savedVideo);
+        videoSearchIndex.onVideoSaved(savedVideo);
+        hashtagService.onVideoCreated(savedVideo);
+        timelineService.onVideoCreated(savedVideo);
+
+        return savedVideo;
     }
 
     // Update video
@@ -95,59 +154,136 @@ public class VideoService {
             video.setVideoUrl(videoDetails.getVideoUrl());
         }
 
-        return videoRepository.save(video);
+        Video savedVideo = videoRepository.save(video);
+        videoSearchIndex.onVideoSaved(savedVideo);
+        if (videoDetails.getDescription() != null) {
+            hashtagService.onVideoUpdated(savedVideo);
+        }
+        searchResultCache.onVideoChanged(id);
+        return savedVideo;
     }
 
     // Delete video
+    @Transactional
     public void deleteVideo(String id) {
-        if (!videoRepository.existsById(id)) {
+        Optional<Video> video = videoRepository.findById(id);
+        if (video.isEmpty()) {
             throw new RuntimeException("Video not found");
         }
+        String authorId = video.get().getUser() != null ? video.get().getUser().getId() : null;
+
         videoRepository.deleteById(id);
+        if (authorId != null) {
+            userRepository.addVideoCount(authorId, -1);
+        }
+        authorVideoIndex.onVideoDeleted(authorId, id);
+        videoSearchIndex.onVideoDeleted(id);
+        hashtagService.onVideoDeleted(id);
+        // After commit: a miss that read before it would otherwise re-cache the deleted video for the full TTL
+        AfterCommit.run(() -> searchResultCache.onVideoChanged(id));
+        timelineService.onVideoDeleted(id);
+        trendingService.onVideoDeleted(id);
+        uniqueViewerService.onVideoDeleted(id);
     }
 
-    // Get feed for user (videos from followed users)
-    public List<Video> getFeedForUser(String userId) {
-        // Get list of users that this user follows
-        List<User> followingUsers = followRepository.findFollowingUsers(userId);
+    // Get one page of the feed for user (videos from followed users), read from the precomputed timeline
+    public FeedPage getFeedForUser(String userId, String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<Video> page = timelineService.readTimeline(userId, after, limit);
 
-        if (followingUsers.isEmpty()) {
-            // If user doesn't follow anyone, return trending videos
-            return getTrendingVideos();
+        if (after == null && page.isEmpty() && followRepository.countByFollowerId(userId) == 0) {
+            // If user doesn't follow anyone, return trending videos. They are in score order, not (createdAt, id)
+            // order, so a keyset cursor cannot continue them: this is the only page
+            return new FeedPage(getTrendingVideos(userId, null, limit), false);
         }
+        return new FeedPage(page, true);
+    }
 
-        List<String> followingUserIds = followingUsers.stream()
-                .map(User::getId)
-                .collect(Collectors.toList());
+    // One page of the videos carrying a (normalized) hashtag, newest first
+    public List<Video> getVideosByTag(String tag, String cursor, int limit) {
+        return hashtagService.getVideosByTag(tag, KeysetCursor.decode(cursor), limit);
+    }
 
-        return videoRepository.findByUserIdInOrderByCreatedAtDesc(followingUserIds);
+    // Hashtags used by the most new videos in the window ("1h" or "24h")
+    public List<HashtagService.TagCount> getTrendingTags(String window, int limit) {
+        return hashtagService.getTrending(window, limit);
+    }
+
+    // Get the best videos for a user: newest followed videos (or newest overall) re-ranked by engagement and affinity
+    public List<Video> getRankedFeedForUser(String userId, int limit) {
+        List<Video> candidates = timelineService.readTimeline(userId, null, rankingCandidates);
+        if (candidates.isEmpty()) {
+            candidates = videoRepository.findNewest(PageRequest.of(0, rankingCandidates));
+        }
+
+        // Skip what the user has already watched, unless that leaves too little to fill the page
+        List<Video> unseen = seenVideoService.filterUnseen(userId, candidates);
+        if (unseen.size() >= limit) {
+            candidates = unseen;
+        }
+        return feedRankingService.rank(userId, candidates, limit);
     }
 
     // Get trending videos
     public List<Video> getTrendingVideos() {
-        return videoRepository.findTop10ByOrderByViewCountDesc();
+        return getTrendingVideos(null, null, trendingService.getDefaultPageSize());
     }
 
-    // Search videos
-    public List<Video> searchVideos(String query) {
-        List<Video> titleResults = videoRepository.findByTitleContainingIgnoreCase(query);
-        List<Video> descriptionResults = videoRepository.findByDescriptionContainingIgnoreCase(query);
+    // Get trending videos for a window (see TrendingService), with videos the user has already seen moved to the back
+    public List<Video> getTrendingVideos(String userId, String window, int limit) {
+        int poolSize = userId != null ? Math.max(limit, 100) : limit;
+        List<Video> trending = trendingService.getTrendingVideos(window, poolSize);
+        if (trending.isEmpty() && (window == null || window.isBlank())) {
+            // Nothing has been watched since startup and there was nothing to seed from
+            trending = videoRepository.findTop10ByOrderByViewCountDesc();
+        }
+        if (userId != null) {
+            trending = seenVideoService.unseenFirst(userId, trending);
+        }
+        return trending.subList(0, Math.min(limit, trending.size()));
+    }
 
-        // Combine results and remove duplicates
-        titleResults.addAll(descriptionResults);
-        return titleResults.stream().distinct().collect(Collectors.toList());
+    // Search videos by title and description, best matches first
+    public List<Video> searchVideos(String query, int offset, int limit) {
+        List<String> ids = videoSearchIndex.search(query, offset, limit);
+        if (ids == null) {
+            // Index still loading: bounded substring scan, newest first
+            return videoRepository.findByKeyword(query, PageRequest.of(offset / limit, limit));
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Video> byId = videoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Video::getId, video -> video));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
-    // Increment view count
-    public void incrementViewCount(String id) {
-        Optional<Video> optionalVideo = videoRepository.findById(id);
-        if (optionalVideo.isEmpty()) {
-            throw new RuntimeException("Video not found");
+    // Fuzzy title/description search in Postgres, best match first: up to limit rows after the cursor (see
+    // VideoRepository.fuzzySearchRows)
+    public List<Object[]> fuzzySearchVideos(String query, ScoreCursor after, int limit) {
+        if (after == null) {
+            return videoRepository.fuzzySearchRows(query, 2, "", limit);
         }
+        return videoRepository.fuzzySearchRows(query, after.getScore(), after.getId(), limit);
+    }
 
-        Video video = optionalVideo.get();
-        video.setViewCount(video.getViewCount() + 1);
-        videoRepository.save(video);
+    // Increment view count, recording the video as seen when the viewer is known
+    public void incrementViewCount(String id, String userId) {
+        incrementViewCount(id, userId, null);
+    }
+
+    // Increment view count and count the viewer as unique: by user id, or by client address when anonymous
+    public void incrementViewCount(String id, String userId, String clientAddress) {
+        incrementViewCount(id);
+        seenVideoService.markSeen(userId, id);
+        String viewerKey = userId != null ? userId : (clientAddress != null ? "anon:" + clientAddress : null);
+        uniqueViewerService.recordView(id, viewerKey);
+    }
+
+    // Increment view count (buffered in memory and written behind, never a synchronous database call)
+    public void incrementViewCount(String id) {
+        viewCountBuffer.increment(id);
+        trendingService.onView(id);
     }
 
     // Get video statistics
@@ -158,11 +294,17 @@ public class VideoService {
         }
 
         Video videoEntity = video.get();
-        long viewCount = videoEntity.getViewCount();
-        long likeCount = likeRepository.countByVideo(videoEntity);
-        long commentCount = commentRepository.countByVideo(videoEntity);
+        long viewCount = videoEntity.getViewCount() + viewCountBuffer.getPending(id);
+        long likeCount = videoEntity.getLikeCount() + likeIngestBuffer.getPendingLikeDelta(id);
+        long commentCount = videoEntity.getCommentCount();
+        long uniqueViewers = uniqueViewerService.getUniqueViewers(id);
+
+        return new VideoStats(viewCount, likeCount, commentCount, uniqueViewers);
+    }
 
-        return new VideoStats(viewCount, likeCount, commentCount);
+    // Distinct viewers of a video between two UTC days, inclusive
+    public long getUniqueViewers(String id, LocalDate from, LocalDate to) {
+        return uniqueViewerService.getUniqueViewers(id, from, to);
     }
 
     // Get videos with minimum view count
@@ -186,4 +328,23 @@ public class VideoService {
         video.setThumbnailUrl(thumbnailUrl);
         videoRepository.save(video);
     }
+
+    // A feed page; paginated is false for the trending fallback, which has no next page
+    public static class FeedPage {
+        private final List<Video> videos;
+        private final boolean paginated;
+
+        public FeedPage(List<Video> videos, boolean paginated) {
+            this.videos = videos;
+            this.paginated = paginated;
+        }
+
+        public List<Video> getVideos() {
+            return videos;
+        }
+
+        public boolean isPaginated() {
+            return paginated;
+        }
+    }
 }
@@ -0,0 +1,146 @@
+package com.example.taktik.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Write-behind view counter.
+// Views are added to a per-video LongAdder without touching the database and flushed periodically as one
+// JDBC batch of "view_count = view_count + ?" updates, so concurrent views never lose updates and the
+// database lags by at most one flush interval. Video.viewCount is not updatable through JPA for the same reason.
+@Service
+public class ViewCountBuffer {
+
+    private static final String FLUSH_SQL = "UPDATE video SET view_count = view_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // Adders removed from the map on the previous flush; drained once more in case a writer still held one
+    private List<Map.Entry<String, LongAdder>> retired = new ArrayList<>();
+
+    private final AtomicLong flushedViews = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile long lastFlushMillis;
+    private volatile long lastFlushDurationMillis;
+
+    public void increment(String videoId) {
+        pending.computeIfAbsent(videoId, id -> new LongAdder()).increment();
+    }
+
+    // Views not yet written to the database
+    public long getPending(String videoId) {
+        LongAdder adder = pending.get(videoId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${views.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        long started = System.currentTimeMillis();
+
+        // Take each delta by subtracting exactly what was read, so increments racing with the flush are kept
+        Map<String, Long> deltas = new TreeMap<>(); // sorted ids: concurrent flushers lock rows in the same order
+        List<Map.Entry<String, LongAdder>> idle = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> e : retired) {
+            take(e.getKey(), e.getValue(), deltas);
+        }
+        for (Map.Entry<String, LongAdder> e : pending.entrySet()) {
+            if (!take(e.getKey(), e.getValue(), deltas)) {
+                idle.add(e);
+            }
+        }
+
+        // Retire adders that saw no views since the last flush
+        List<Map.Entry<String, LongAdder>> nowRetired = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> e : idle) {
+            if (pending.remove(e.getKey(), e.getValue())) {
+                nowRetired.add(Map.entry(e.getKey(), e.getValue()));
+            }
+        }
+        retired = nowRetired;
+
+        if (!deltas.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>(deltas.size());
+            long total = 0;
+            for (Map.Entry<String, Long> e : deltas.entrySet()) {
+                batch.add(new Object[] {e.getValue(), e.getKey()});
+                total += e.getValue();
+            }
+            try {
+                jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+                flushedViews.addAndGet(total);
+            } catch (RuntimeException ex) {
+                // Put the deltas back so the next flush retries them
+                deltas.forEach((id, delta) -> pending.computeIfAbsent(id, x -> new LongAdder()).add(delta));
+                failedFlushes.incrementAndGet();
+                System.out.println("View counter: flush of " + deltas.size() + " videos failed: " + ex.getMessage());
+            }
+        }
+
+        flushCount.incrementAndGet();
+        lastFlushMillis = System.currentTimeMillis();
+        lastFlushDurationMillis = lastFlushMillis - started;
+    }
+
+    // Write out everything still pending before the datasource goes away
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        flush(); // drains adders retired by the first pass
+    }
+
+    public int getPendingVideoCount() {
+        return pending.size();
+    }
+
+    public long getPendingViewCount() {
+        long total = 0;
+        for (LongAdder adder : pending.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    public long getFlushedViews() {
+        return flushedViews.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes.get();
+    }
+
+    public long getLastFlushMillis() {
+        return lastFlushMillis;
+    }
+
+    public long getLastFlushDurationMillis() {
+        return lastFlushDurationMillis;
+    }
+
+    private static boolean take(String videoId, LongAdder adder, Map<String, Long> deltas) {
+        long delta = adder.sum();
+        if (delta == 0) {
+            return false;
+        }
+        adder.add(-delta);
+        deltas.merge(videoId, delta, Long::sum);
+        return true;
+    }
+}
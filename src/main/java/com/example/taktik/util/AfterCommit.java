@@ -0,0 +1,26 @@
+package com.example.taktik.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Defers in-memory side effects (caches, trending counters, indexes) of a database write until its
+// transaction commits, so a rollback leaves them untouched and no reader can act on them before the row
+// is visible.
+public final class AfterCommit {
+
+    private AfterCommit() {}
+
+    // Run once the surrounding transaction commits (dropped on rollback), or now if there is none
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.taktik.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Count-Min Sketch over string keys with lock-free concurrent updates.
+// Estimates never undercount; with width w and depth d they overcount by at most e/w * total
+// with probability 1 - e^-d, in fixed memory regardless of how many distinct keys arrive.
+public class CountMinSketch {
+
+    // Rows are derived from one 64-bit hash of the key (h1 + row * h2), so two keys share every row only if
+    // their full 64-bit hashes match
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private final int depth;
+    private final int widthMask;
+    private final AtomicLongArray counts;
+
+    // width is rounded up to a power of two
+    public CountMinSketch(int width, int depth) {
+        int w = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = depth;
+        this.widthMask = w - 1;
+        this.counts = new AtomicLongArray(w * depth);
+    }
+
+    // Add to a key's count and return its new estimate
+    public long add(String key, long amount) {
+        long h = Hashing.hash64(key, SEED);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * (widthMask + 1) + ((h1 + row * h2) & widthMask);
+            estimate = Math.min(estimate, counts.addAndGet(index, amount));
+        }
+        return estimate;
+    }
+
+    public long estimate(String key) {
+        long h = Hashing.hash64(key, SEED);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * (widthMask + 1) + ((h1 + row * h2) & widthMask);
+            estimate = Math.min(estimate, counts.get(index));
+        }
+        return estimate;
+    }
+
+    public int getWidth() {
+        return widthMask + 1;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.taktik.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Bounded leaderboard of exponentially time-decayed scores.
+// Uses forward decay: an event of weight w at time t adds w * 2^((t - epoch) / halfLife), kept in log space.
+// Every score decays at the same rate, so their relative order never changes with time alone. Only the
+// entry that received an event moves, and nothing has to be rescanned as time passes.
+// Holds at most capacity entries; when full, the lowest entry is evicted, which after a while is simply
+// the video that has gone quiet the longest. Not thread-safe: callers synchronize.
+public class DecayedTopK {
+
+    private static final double LN2 = Math.log(2);
+
+    private final int capacity;
+    private final double halfLifeNanos;
+    private final long epochNanos;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> ranking = new TreeSet<>((a, b) -> {
+        int byScore = Double.compare(b.logScore, a.logScore);
+        return byScore != 0 ? byScore : a.id.compareTo(b.id);
+    });
+
+    public DecayedTopK(int capacity, double halfLifeHours, long epochNanos) {
+        this.capacity = capacity;
+        this.halfLifeNanos = halfLifeHours * 3_600_000_000_000.0;
+        this.epochNanos = epochNanos;
+    }
+
+    // Add an event of the given weight at the given time
+    public void add(String id, double weight, long atNanos) {
+        if (weight <= 0) {
+            return;
+        }
+        double logIncrement = Math.log(weight) + LN2 * (atNanos - epochNanos) / halfLifeNanos;
+
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            ranking.remove(entry);
+            entry.logScore = logAdd(entry.logScore, logIncrement);
+            ranking.add(entry);
+            return;
+        }
+
+        if (entries.size() >= capacity) {
+            Entry lowest = ranking.last();
+            if (lowest.logScore >= logIncrement) {
+                return;
+            }
+            ranking.pollLast();
+            entries.remove(lowest.id);
+        }
+        entry = new Entry(id, logIncrement);
+        entries.put(id, entry);
+        ranking.add(entry);
+    }
+
+    public void remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            ranking.remove(entry);
+        }
+    }
+
+    // Ids of the top k entries, highest first
+    public List<String> top(int k) {
+        List<String> ids = new ArrayList<>(Math.min(k, entries.size()));
+        for (Entry entry : ranking) {
+            if (ids.size() == k) {
+                break;
+            }
+            ids.add(entry.id);
+        }
+        return ids;
+    }
+
+    // Current decayed score, in event-weight units as of the given time
+    public double scoreAt(String id, long atNanos) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return 0;
+        }
+        return Math.exp(entry.logScore - LN2 * (atNanos - epochNanos) / halfLifeNanos);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static double logAdd(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    private static final class Entry {
+        private final String id;
+        private double logScore;
+
+        private Entry(String id, double logScore) {
+            this.id = id;
+            this.logScore = logScore;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.taktik.util;
+
+// Likes and comments per hour over the velocity window (or the video's age, if younger), log-damped
+public class EngagementVelocityScorer implements FeedScorer {
+
+    private static final double NANOS_PER_HOUR = 3_600_000_000_000.0;
+
+    private final double weight;
+    private final double commentWeight;
+    private final double windowHours;
+
+    public EngagementVelocityScorer(double weight, double commentWeight, double windowHours) {
+        this.weight = weight;
+        this.commentWeight = commentWeight;
+        this.windowHours = windowHours;
+    }
+
+    @Override
+    public String getName() {
+        return "velocity";
+    }
+
+    @Override
+    public void score(RankingFeatures features, long nowNanos) {
+        int count = features.getCount();
+        long[] createdAt = features.getCreatedAt();
+        int[] likes = features.getRecentLikes();
+        int[] comments = features.getRecentComments();
+        double[] scores = features.getScores();
+        for (int i = 0; i < count; i++) {
+            // At least an hour, so a brand-new video with one like does not dominate
+            double hours = Math.min(windowHours, Math.max(1.0, (nowNanos - createdAt[i]) / NANOS_PER_HOUR));
+            double engagement = likes[i] + commentWeight * comments[i];
+            scores[i] += weight * Math.log1p(engagement / hours);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.taktik.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Bounded LRU cache whose entries also expire a fixed time after they were stored.
+// Each entry carries tags (for a search result, the ids it contains) and invalidate(tag) drops every entry with
+// that tag, so a write to one record evicts only the results that show it. Values loaded before an invalidation
+// are not stored after it (a generation counter is checked on fill), and concurrent misses on one key share a
+// single load.
+// Thread-safe: bookkeeping synchronizes on the cache; loads run outside the lock.
+public class ExpiringLruCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<K>> keysByTag = new HashMap<>();
+    private final Map<K, CompletableFuture<V>> loading = new HashMap<>();
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    public ExpiringLruCache(int maxEntries, long ttlNanos) {
+        this(maxEntries, ttlNanos, System::nanoTime);
+    }
+
+    public ExpiringLruCache(int maxEntries, long ttlNanos, LongSupplier clock) {
+        if (maxEntries <= 0 || ttlNanos <= 0) {
+            throw new IllegalArgumentException("maxEntries and ttlNanos must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+    }
+
+    // The cached value, or the loader's result stored under the tags it reports
+    public V getOrLoad(K key, Supplier<V> loader, Function<? super V, ? extends Collection<String>> tagsOf) {
+        CompletableFuture<V> pending;
+        boolean owner = false;
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt - clock.getAsLong() > 0) {
+                hits++;
+                return entry.value;
+            }
+            if (entry != null) {
+                remove(key, entry);
+                expirations++;
+            }
+            misses++;
+            loadGeneration = generation;
+            pending = loading.get(key);
+            if (pending == null) {
+                pending = new CompletableFuture<>();
+                loading.put(key, pending);
+                owner = true;
+            }
+        }
+        if (!owner) {
+            try {
+                return pending.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                loading.remove(key);
+            }
+            pending.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            loading.remove(key);
+            if (value != null && generation == loadGeneration) {
+                store(key, value, tagsOf.apply(value));
+            }
+        }
+        pending.complete(value);
+        return value;
+    }
+
+    // Drop every entry stored with the tag; returns how many were dropped
+    public synchronized int invalidate(String tag) {
+        generation++;
+        Set<K> keys = keysByTag.remove(tag);
+        if (keys == null) {
+            return 0;
+        }
+        int dropped = 0;
+        for (K key : new HashSet<>(keys)) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                remove(key, entry);
+                dropped++;
+            }
+        }
+        invalidations += dropped;
+        return dropped;
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+        keysByTag.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    // Entries pushed out by the size limit
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    private void store(K key, V value, Collection<String> tags) {
+        Entry<V> old = entries.get(key);
+        if (old != null) {
+            remove(key, old);
+        }
+        Entry<V> entry = new Entry<>(value, clock.getAsLong() + ttlNanos, tags.toArray(new String[0]));
+        entries.put(key, entry);
+        for (String tag : entry.tags) {
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+        }
+
+        // Evict least recently used first, counting entries that had already expired as expirations
+        if (entries.size() > maxEntries) {
+            long now = clock.getAsLong();
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (it.hasNext() && entries.size() > maxEntries) {
+                Map.Entry<K, Entry<V>> eldest = it.next();
+                it.remove();
+                untag(eldest.getKey(), eldest.getValue());
+                if (eldest.getValue().expiresAt - now <= 0) {
+                    expirations++;
+                } else {
+                    evictions++;
+                }
+            }
+        }
+    }
+
+    private void remove(K key, Entry<V> entry) {
+        entries.remove(key);
+        untag(key, entry);
+    }
+
+    private void untag(K key, Entry<V> entry) {
+        for (String tag : entry.tags) {
+            Set<K> keys = keysByTag.get(tag);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+        final String[] tags;
+
+        Entry(V value, long expiresAt, String[] tags) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.taktik.util;
+
+// K-way merge of per-author RecentVideoLists into one newest-first page.
+// Uses a binary heap of source indices over primitive arrays and stops as soon as the page is full,
+// so the cost is O(k + limit * log k) for k followed authors regardless of how many videos they have.
+public class FeedMerger {
+
+    private final int[] pageOrdinals;
+    private final long[] pageCreatedAt;
+    private final int[] pageSources;
+    private int count;
+    private boolean exhaustedTruncatedSource;
+
+    public FeedMerger(int limit) {
+        this.pageOrdinals = new int[limit];
+        this.pageCreatedAt = new long[limit];
+        this.pageSources = new int[limit];
+    }
+
+    // Merge entries strictly older than the cursor (null = from the top) into this page.
+    // Stops early when a truncated source runs out, since its older videos are not in memory.
+    public FeedMerger merge(RecentVideoList[] sources, int sourceCount, KeysetCursor after, VideoOrdinals videoOrdinals) {
+        count = 0;
+        exhaustedTruncatedSource = false;
+
+        int[] positions = new int[sourceCount];
+        int[] heap = new int[sourceCount];
+        int heapSize = 0;
+
+        long afterNanos = after != null ? KeysetCursor.toEpochNanos(after.getCreatedAt()) : 0;
+        for (int s = 0; s < sourceCount; s++) {
+            RecentVideoList source = sources[s];
+            positions[s] = after != null ? source.indexAfter(afterNanos, after.getId(), videoOrdinals) : 0;
+            if (positions[s] < source.size()) {
+                heap[heapSize++] = s;
+            } else if (source.isTruncated()) {
+                // Everything this author has after the cursor lives only in the database
+                exhaustedTruncatedSource = true;
+                return this;
+            }
+        }
+        for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+            siftDown(heap, heapSize, i, sources, positions, videoOrdinals);
+        }
+
+        while (heapSize > 0 && count < pageOrdinals.length) {
+            int s = heap[0];
+            RecentVideoList source = sources[s];
+            pageOrdinals[count] = source.ordinalAt(positions[s]);
+            pageCreatedAt[count] = source.createdAtAt(positions[s]);
+            pageSources[count] = s;
+            count++;
+
+            positions[s]++;
+            if (positions[s] < source.size()) {
+                siftDown(heap, heapSize, 0, sources, positions, videoOrdinals);
+            } else if (source.isTruncated()) {
+                exhaustedTruncatedSource = true;
+                break;
+            } else {
+                heap[0] = heap[--heapSize];
+                siftDown(heap, heapSize, 0, sources, positions, videoOrdinals);
+            }
+        }
+        return this;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int ordinalAt(int index) {
+        return pageOrdinals[index];
+    }
+
+    public long createdAtAt(int index) {
+        return pageCreatedAt[index];
+    }
+
+    // Index of the source list the entry came from
+    public int sourceAt(int index) {
+        return pageSources[index];
+    }
+
+    // True when the page stopped short because older entries must come from the database
+    public boolean needsDatabase() {
+        return exhaustedTruncatedSource && count < pageOrdinals.length;
+    }
+
+    private static void siftDown(int[] heap, int heapSize, int i, RecentVideoList[] sources, int[] positions,
+                                 VideoOrdinals videoOrdinals) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int newest = left;
+            int right = left + 1;
+            if (right < heapSize && newer(heap[right], heap[left], sources, positions, videoOrdinals)) {
+                newest = right;
+            }
+            if (!newer(heap[newest], heap[i], sources, positions, videoOrdinals)) {
+                return;
+            }
+            int tmp = heap[i];
+            heap[i] = heap[newest];
+            heap[newest] = tmp;
+            i = newest;
+        }
+    }
+
+    private static boolean newer(int a, int b, RecentVideoList[] sources, int[] positions, VideoOrdinals videoOrdinals) {
+        long createdA = sources[a].createdAtAt(positions[a]);
+        long createdB = sources[b].createdAtAt(positions[b]);
+        if (createdA != createdB) {
+            return createdA > createdB;
+        }
+        return videoOrdinals.idOf(sources[a].ordinalAt(positions[a]))
+                .compareTo(videoOrdinals.idOf(sources[b].ordinalAt(positions[b]))) > 0;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.taktik.util;
+
+import java.util.List;
+
+// Scores a candidate set with every scorer and selects the top K.
+// Selection is a bounded min-heap of candidate indices kept in features.getOrder(), so ranking n candidates
+// costs O(n * scorers + n log k) with no allocation; ties keep the earlier (newer) candidate first.
+public class FeedRanker {
+
+    private final FeedScorer[] scorers;
+
+    public FeedRanker(List<FeedScorer> scorers) {
+        this.scorers = scorers.toArray(new FeedScorer[0]);
+    }
+
+    // Rank the features' candidates, leaving the best min(limit, count) indices in features.getOrder().
+    // Returns how many indices were written.
+    public int rank(RankingFeatures features, long nowNanos, int limit) {
+        for (FeedScorer scorer : scorers) {
+            scorer.score(features, nowNanos);
+        }
+
+        int count = features.getCount();
+        double[] scores = features.getScores();
+        int[] heap = features.getOrder();
+        int k = Math.min(limit, count);
+        if (k <= 0) {
+            return 0;
+        }
+
+        for (int i = 0; i < k; i++) {
+            heap[i] = i;
+        }
+        for (int i = (k >>> 1) - 1; i >= 0; i--) {
+            siftDown(heap, k, i, scores);
+        }
+        for (int i = k; i < count; i++) {
+            if (better(i, heap[0], scores)) {
+                heap[0] = i;
+                siftDown(heap, k, 0, scores);
+            }
+        }
+
+        // Heap-sort in place: repeatedly move the worst remaining entry to the end
+        for (int end = k - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, end, 0, scores);
+        }
+        return k;
+    }
+
+    public int getScorerCount() {
+        return scorers.length;
+    }
+
+    // Min-heap on rank: the root is the worst of the current top K
+    private static void siftDown(int[] heap, int size, int i, double[] scores) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && better(heap[left], heap[right], scores)) {
+                worst = right;
+            }
+            if (!better(heap[i], heap[worst], scores)) {
+                return;
+            }
+            int tmp = heap[i];
+            heap[i] = heap[worst];
+            heap[worst] = tmp;
+            i = worst;
+        }
+    }
+
+    private static boolean better(int a, int b, double[] scores) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b];
+        }
+        return a < b;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.taktik.util;
+
+// One ranking signal. Implementations add their weighted contribution to features.getScores()
+// for the first features.getCount() candidates, in a plain loop over the primitive feature arrays.
+// Every FeedScorer bean is picked up by FeedRankingService, so new signals plug in without touching the engine.
+public interface FeedScorer {
+
+    String getName();
+
+    void score(RankingFeatures features, long nowNanos);
+}
@@ -0,0 +1,26 @@
+package com.example.taktik.util;
+
+// Boost videos from authors the viewer follows and engages with
+public class FollowAffinityScorer implements FeedScorer {
+
+    private final double weight;
+
+    public FollowAffinityScorer(double weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return "affinity";
+    }
+
+    @Override
+    public void score(RankingFeatures features, long nowNanos) {
+        int count = features.getCount();
+        float[] affinity = features.getAffinity();
+        double[] scores = features.getScores();
+        for (int i = 0; i < count; i++) {
+            scores[i] += weight * affinity[i];
+        }
+    }
+}
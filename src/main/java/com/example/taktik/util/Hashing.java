@@ -0,0 +1,30 @@
+package com.example.taktik.util;
+
+import java.nio.charset.StandardCharsets;
+
+// Shared 64-bit string hashing for the probabilistic structures
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    // 64-bit FNV-1a over UTF-8 bytes with a seed, finished with a murmur3 mix
+    public static long hash64(String item, long seed) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001B3L;
+        }
+        return mix64(h);
+    }
+
+    // murmur3 fmix64 finalizer
+    public static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
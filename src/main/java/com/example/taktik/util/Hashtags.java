@@ -0,0 +1,96 @@
+package com.example.taktik.util;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Hashtag parsing for video descriptions.
+// A tag is '#' followed by a run of letters, digits and underscores, at the start of the text or after a
+// character that is none of those, so "a#b" and "##" hold no tags. The text is NFKC-normalized and tags are
+// lowercased, so #Dance, #DANCE and the full-width forms are one tag. A tag needs at least one letter ("#1"
+// is not a tag) and tags longer than MAX_TAG_LENGTH are dropped rather than truncated.
+public final class Hashtags {
+
+    public static final int MAX_TAG_LENGTH = 64;
+    // Tags kept per text; the rest of a tag-stuffed description is ignored
+    public static final int MAX_TAGS = 30;
+
+    private Hashtags() {}
+
+    // Distinct normalized tags in order of first appearance, without the '#'
+    public static Set<String> extract(String text) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (text == null || !mayContainHash(text)) {
+            return tags;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        int i = 0;
+        while (i < normalized.length() && tags.size() < MAX_TAGS) {
+            int hash = normalized.indexOf('#', i);
+            if (hash < 0) {
+                break;
+            }
+            int end = hash + 1;
+            while (end < normalized.length()) {
+                int cp = normalized.codePointAt(end);
+                if (!isTagChar(cp)) {
+                    break;
+                }
+                end += Character.charCount(cp);
+            }
+            boolean startsWord = hash == 0 || !isTagChar(normalized.codePointBefore(hash));
+            if (startsWord) {
+                String tag = validTag(normalized.substring(hash + 1, end));
+                if (tag != null) {
+                    tags.add(tag);
+                }
+            }
+            i = Math.max(end, hash + 1);
+        }
+        return tags;
+    }
+
+    // Normalized form of a tag given on its own (with or without a leading '#'), or null if it is not a valid tag
+    public static String normalize(String tag) {
+        if (tag == null) {
+            return null;
+        }
+        String normalized = Normalizer.normalize(tag.trim(), Normalizer.Form.NFKC);
+        if (normalized.startsWith("#")) {
+            normalized = normalized.substring(1);
+        }
+        for (int i = 0; i < normalized.length(); ) {
+            int cp = normalized.codePointAt(i);
+            if (!isTagChar(cp)) {
+                return null;
+            }
+            i += Character.charCount(cp);
+        }
+        return validTag(normalized);
+    }
+
+    private static String validTag(String body) {
+        if (body.isEmpty() || body.length() > MAX_TAG_LENGTH || body.codePoints().noneMatch(Character::isLetter)) {
+            return null;
+        }
+        return body.toLowerCase(Locale.ROOT);
+    }
+
+    // Skips normalizing text with no '#' or character that NFKC folds to '#' (full-width and small forms)
+    private static boolean mayContainHash(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '#' || c == '\uFF03' || c == '\uFE5F') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTagChar(int cp) {
+        return Character.isLetterOrDigit(cp) || cp == '_'
+                || Character.getType(cp) == Character.NON_SPACING_MARK
+                || Character.getType(cp) == Character.COMBINING_SPACING_MARK;
+    }
+}
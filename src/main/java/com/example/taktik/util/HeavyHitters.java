@@ -0,0 +1,93 @@
+package com.example.taktik.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Streaming top-K in fixed memory for many concurrent writers.
+// Every event goes into a shared lock-free Count-Min Sketch and into one of several Space-Saving summaries
+// picked by thread, so writers rarely contend on the same lock. A query merges the summaries' candidates
+// and reports each with its sketch estimate.
+public class HeavyHitters {
+
+    private final CountMinSketch sketch;
+    private final SpaceSaving[] stripes;
+
+    public HeavyHitters(int capacity, int sketchWidth, int sketchDepth, int stripeCount) {
+        this.sketch = new CountMinSketch(sketchWidth, sketchDepth);
+        this.stripes = new SpaceSaving[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new SpaceSaving(capacity);
+        }
+    }
+
+    public void offer(String key) {
+        sketch.add(key, 1);
+        SpaceSaving stripe = stripes[(int) (Thread.currentThread().threadId() % stripes.length)];
+        synchronized (stripe) {
+            stripe.offer(key, 1);
+        }
+    }
+
+    // The k keys with the highest estimated counts, highest first.
+    // The summaries only nominate candidates; counts come from the sketch, which never undercounts
+    // (a key can be under-tracked in a stripe where it was evicted) and overcounts by at most e/width * total.
+    public List<Hitter> top(int k) {
+        Set<String> candidates = new HashSet<>();
+        long total = 0;
+        for (SpaceSaving stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.getTotal();
+                stripe.forEach((key, count, error) -> candidates.add(key));
+            }
+        }
+
+        long error = (long) Math.ceil(Math.E * total / sketch.getWidth());
+        List<Hitter> hitters = new ArrayList<>(candidates.size());
+        for (String key : candidates) {
+            hitters.add(new Hitter(key, sketch.estimate(key), error));
+        }
+        hitters.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return hitters.size() > k ? new ArrayList<>(hitters.subList(0, k)) : hitters;
+    }
+
+    public long estimate(String key) {
+        return sketch.estimate(key);
+    }
+
+    public long getTotal() {
+        long total = 0;
+        for (SpaceSaving stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.getTotal();
+            }
+        }
+        return total;
+    }
+
+    // A reported key: count overestimates the true count by at most error
+    public static final class Hitter {
+        private final String key;
+        private final long count;
+        private final long error;
+
+        public Hitter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.taktik.util;
+
+import java.util.Arrays;
+
+// HyperLogLog distinct counter with 2^precision one-byte registers.
+// Precision 12 uses 4 KB and has a standard error of about 1.6%. Sketches of the same precision merge by
+// taking the register-wise max, so daily sketches roll up into any longer range without rescanning views.
+// Not thread-safe: callers synchronize.
+public class HyperLogLog {
+
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.precision = Integer.numberOfTrailingZeros(registers.length);
+        this.registers = registers;
+    }
+
+    // Add an item, returning true if the sketch changed
+    public boolean add(String item) {
+        long hash = Hashing.hash64(item, SEED);
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first set bit in the remaining bits; the sentinel bit caps it at 64 - precision + 1
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+            return true;
+        }
+        return false;
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Small-range correction: linear counting
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    // Fold another sketch of the same precision into this one
+    public void merge(HyperLogLog other) {
+        if (other.registers.length != registers.length) {
+            throw new IllegalArgumentException("Cannot merge sketches of different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public byte[] toBytes() {
+        return Arrays.copyOf(registers, registers.length);
+    }
+
+    // Restore a sketch written by toBytes; a missing or malformed payload yields an empty sketch
+    public static HyperLogLog fromBytes(byte[] data, int precision) {
+        if (data == null || data.length != 1 << precision) {
+            return new HyperLogLog(precision);
+        }
+        return new HyperLogLog(Arrays.copyOf(data, data.length));
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
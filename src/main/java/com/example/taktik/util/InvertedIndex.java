@@ -0,0 +1,708 @@
+package com.example.taktik.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over a title and a description per document, ranked with BM25.
+// Text is split on anything that is not a letter or digit, lowercased and stripped of accents. Each term's
+// postings are (doc, tf) pairs in doc order, varint delta-encoded into one growable byte array (about two
+// bytes per posting). Documents get increasing internal doc numbers and are never edited in place: an
+// update deletes the old doc and appends a new one, so postings only ever grow at the end. Deleted docs
+// are skipped at query time until compact() rewrites the postings without them.
+// Queries score document-at-a-time across the query terms' postings and keep the top hits in a heap,
+// skipping terms (MaxScore) and 128-posting blocks (block-max) that cannot reach the top.
+// Thread-safe: searches share a read lock, updates take the write lock.
+public class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // A title occurrence counts as this many description occurrences
+    private static final int TITLE_WEIGHT = 3;
+    private static final int MAX_TOKEN_LENGTH = 64;
+    private static final int SKIP_INTERVAL = 128;
+    private static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<String, Integer> docOf = new HashMap<>();
+
+    private String[] ids = new String[1024];
+    private int[] lengths = new int[1024];
+    private long[] live = new long[16];
+    private int maxDoc;
+    private int liveDocs;
+    private long totalLength;
+
+    // Add a document, replacing any earlier version with the same id
+    public void put(String id, String title, String description) {
+        Map<String, Integer> termFreqs = termFrequencies(title, description);
+        lock.writeLock().lock();
+        try {
+            Integer old = docOf.get(id);
+            if (old != null) {
+                delete(old);
+            }
+            append(id, termFreqs);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Add a document unless one with the same id is already indexed
+    public boolean putIfAbsent(String id, String title, String description) {
+        Map<String, Integer> termFreqs = termFrequencies(title, description);
+        lock.writeLock().lock();
+        try {
+            if (docOf.containsKey(id)) {
+                return false;
+            }
+            append(id, termFreqs);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docOf.remove(id);
+            if (doc == null) {
+                return false;
+            }
+            delete(doc);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(String id) {
+        lock.readLock().lock();
+        try {
+            return docOf.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of the best-matching documents for a query, best first, skipping the first offset hits
+    public List<String> search(String query, int offset, int limit) {
+        List<String> terms = distinct(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return searchLocked(terms, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Rewrite postings without deleted docs and renumber the live ones; returns the docs reclaimed
+    public int compact() {
+        lock.writeLock().lock();
+        try {
+            int reclaimed = maxDoc - liveDocs;
+            if (reclaimed == 0) {
+                return 0;
+            }
+            int[] remap = new int[maxDoc];
+            int next = 0;
+            for (int doc = 0; doc < maxDoc; doc++) {
+                if (isLive(doc)) {
+                    remap[doc] = next;
+                    ids[next] = ids[doc];
+                    lengths[next] = lengths[doc];
+                    docOf.put(ids[next], next);
+                    next++;
+                } else {
+                    remap[doc] = -1;
+                }
+            }
+            Arrays.fill(ids, next, maxDoc, null);
+            live = new long[Math.max(16, (ids.length + 63) >>> 6)];
+            for (int doc = 0; doc < next; doc++) {
+                live[doc >>> 6] |= 1L << doc;
+            }
+            maxDoc = next;
+
+            postings.values().removeIf(list -> !list.rewrite(remap, lengths));
+            return reclaimed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDeletedDocs() {
+        lock.readLock().lock();
+        try {
+            return maxDoc - liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Bytes held by encoded postings
+    public long getPostingBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (PostingList list : postings.values()) {
+                bytes += list.data.length;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Lowercased, accent-free runs of letters and digits
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < decomposed.length(); ) {
+            int cp = decomposed.codePointAt(i);
+            i += Character.charCount(cp);
+            int type = Character.getType(cp);
+            if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(cp)) {
+                if (token.length() < MAX_TOKEN_LENGTH) {
+                    token.appendCodePoint(fold(Character.toLowerCase(cp)));
+                }
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    // Letters NFKD leaves whole but users type without the stroke
+    private static int fold(int cp) {
+        switch (cp) {
+            case '\u0111': // đ
+                return 'd';
+            case '\u00f8': // ø
+                return 'o';
+            case '\u0142': // ł
+                return 'l';
+            default:
+                return cp;
+        }
+    }
+
+    private static Map<String, Integer> termFrequencies(String title, String description) {
+        Map<String, Integer> termFreqs = new LinkedHashMap<>();
+        for (String token : tokenize(title)) {
+            termFreqs.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(description)) {
+            termFreqs.merge(token, 1, Integer::sum);
+        }
+        return termFreqs;
+    }
+
+    private static List<String> distinct(List<String> tokens) {
+        List<String> terms = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            if (!terms.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    private void append(String id, Map<String, Integer> termFreqs) {
+        int doc = maxDoc++;
+        if (doc == ids.length) {
+            ids = Arrays.copyOf(ids, doc * 2);
+            lengths = Arrays.copyOf(lengths, doc * 2);
+        }
+        if ((doc >>> 6) == live.length) {
+            live = Arrays.copyOf(live, live.length * 2);
+        }
+        int length = 0;
+        for (int tf : termFreqs.values()) {
+            length += tf;
+        }
+        for (Map.Entry<String, Integer> e : termFreqs.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), term -> new PostingList()).add(doc, e.getValue(), length);
+        }
+        ids[doc] = id;
+        lengths[doc] = length;
+        live[doc >>> 6] |= 1L << doc;
+        docOf.put(id, doc);
+        liveDocs++;
+        totalLength += length;
+    }
+
+    private void delete(int doc) {
+        live[doc >>> 6] &= ~(1L << doc);
+        liveDocs--;
+        totalLength -= lengths[doc];
+    }
+
+    private boolean isLive(int doc) {
+        return (live[doc >>> 6] & (1L << doc)) != 0;
+    }
+
+    // MaxScore evaluation: cursors are ordered by their score upper bound, and once the heap is full the
+    // low-bound terms whose bounds together cannot beat the current k-th score stop producing candidates;
+    // they are only probed (skipping ahead) for docs found through the remaining terms
+    private List<String> searchLocked(List<String> terms, int offset, int limit) {
+        List<PostingCursor> found = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                PostingCursor cursor = new PostingCursor(list, idf(list.count));
+                cursor.next();
+                found.add(cursor);
+            }
+        }
+        if (found.isEmpty() || liveDocs == 0) {
+            return List.of();
+        }
+        found.sort((x, y) -> Float.compare(x.bound, y.bound));
+        PostingCursor[] cursors = found.toArray(new PostingCursor[0]);
+        int n = cursors.length;
+        // boundsUpTo[i]: most that terms 0..i can add to any doc's score
+        float[] boundsUpTo = new float[n];
+        for (int i = 0; i < n; i++) {
+            boundsUpTo[i] = cursors[i].bound + (i > 0 ? boundsUpTo[i - 1] : 0);
+        }
+
+        float avgLength = Math.max(1f, (float) totalLength / liveDocs);
+        // BM25 length normalization k1 * (1 - b + b * length / avgLength) as base + perLength * length
+        float normBase = K1 * (1 - B);
+        float normPerLength = K1 * B / avgLength;
+        TopHits top = new TopHits(offset + limit);
+        int firstEssential = 0;
+        // Docs up to here passed the last block-max check; it is not repeated until the scan moves past them
+        int checkedUpTo = -1;
+        while (firstEssential < n) {
+            int doc = NO_MORE_DOCS;
+            for (int i = firstEssential; i < n; i++) {
+                doc = Math.min(doc, cursors[i].doc);
+            }
+            if (doc == NO_MORE_DOCS) {
+                break;
+            }
+            if (top.isFull() && doc > checkedUpTo) {
+                // Block-max check: if every term's block around this doc together cannot lift any doc up to the
+                // end of the shortest of those blocks above the threshold, jump past that range unscored
+                float bound = 0;
+                int blockEnd = NO_MORE_DOCS;
+                for (int i = 0; i < n; i++) {
+                    PostingCursor cursor = cursors[i];
+                    if (cursor.seekBlock(doc)) {
+                        bound += cursor.blockBound(avgLength);
+                        blockEnd = Math.min(blockEnd, cursor.blockLastDoc());
+                    }
+                }
+                if (bound < top.threshold()) {
+                    if (blockEnd == NO_MORE_DOCS) {
+                        break;
+                    }
+                    for (int i = firstEssential; i < n; i++) {
+                        cursors[i].advance(blockEnd + 1);
+                    }
+                    continue;
+                }
+                checkedUpTo = blockEnd;
+            }
+            boolean docLive = isLive(doc);
+            float norm = normBase + normPerLength * lengths[doc];
+            float score = 0;
+            for (int i = firstEssential; i < n; i++) {
+                PostingCursor cursor = cursors[i];
+                if (cursor.doc == doc) {
+                    score += cursor.score(norm);
+                    cursor.next();
+                }
+            }
+            if (!docLive) {
+                continue;
+            }
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                if (top.isFull() && score + boundsUpTo[i] < top.threshold()) {
+                    break;
+                }
+                PostingCursor cursor = cursors[i];
+                if (cursor.advance(doc) == doc) {
+                    score += cursor.score(norm);
+                }
+            }
+            if (top.offer(doc, score) && top.isFull()) {
+                while (firstEssential < n && boundsUpTo[firstEssential] < top.threshold()) {
+                    firstEssential++;
+                }
+            }
+        }
+
+        int[] docs = top.sortedDocs();
+        List<String> result = new ArrayList<>(Math.max(0, docs.length - offset));
+        for (int i = offset; i < docs.length; i++) {
+            result.add(ids[docs[i]]);
+        }
+        return result;
+    }
+
+    private float idf(int docFreq) {
+        // Doc frequencies still count deleted docs until the next compaction
+        int n = Math.max(liveDocs, docFreq);
+        return (float) Math.log(1 + (n - docFreq + 0.5) / (docFreq + 0.5));
+    }
+
+    // One term's (doc, tf) pairs as varint deltas. Every SKIP_INTERVAL postings start a block with a skip
+    // entry (previous doc, byte offset). Each block also keeps its impacts: the (tf, doc length) pairs not
+    // dominated by another posting in the block (higher tf and shorter doc), usually only a handful. The
+    // best-scoring posting of a block is always among them, whatever the current average length.
+    private static final class PostingList {
+        private byte[] data = new byte[8];
+        private int size;
+        private int count;
+        private int lastDoc = -1;
+        private int maxTf;
+        private int[] skipDocs = new int[1];
+        private int[] skipOffsets = new int[1];
+        // Block b's impacts are [impactStarts[b], impactStarts[b + 1]), the last block's end at impactCount
+        private int[] impactStarts = new int[1];
+        private int[] impactTfs = new int[2];
+        private int[] impactLengths = new int[2];
+        private int impactCount;
+        private int skips;
+
+        private void add(int doc, int tf, int length) {
+            if (count % SKIP_INTERVAL == 0) {
+                if (skips == skipDocs.length) {
+                    skipDocs = Arrays.copyOf(skipDocs, skips * 2);
+                    skipOffsets = Arrays.copyOf(skipOffsets, skips * 2);
+                    impactStarts = Arrays.copyOf(impactStarts, skips * 2);
+                }
+                skipDocs[skips] = lastDoc;
+                skipOffsets[skips] = size;
+                impactStarts[skips] = impactCount;
+                skips++;
+            }
+            addImpact(tf, length);
+            if (size + 10 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + 10));
+            }
+            size = writeVarint(data, size, doc - lastDoc);
+            size = writeVarint(data, size, tf);
+            lastDoc = doc;
+            maxTf = Math.max(maxTf, tf);
+            count++;
+        }
+
+        // Add (tf, length) to the last block's impacts unless an existing one dominates it, dropping the
+        // ones it dominates
+        private void addImpact(int tf, int length) {
+            int start = impactStarts[skips - 1];
+            int kept = start;
+            for (int i = start; i < impactCount; i++) {
+                if (impactTfs[i] >= tf && impactLengths[i] <= length) {
+                    return;
+                }
+                if (impactTfs[i] > tf || impactLengths[i] < length) {
+                    impactTfs[kept] = impactTfs[i];
+                    impactLengths[kept] = impactLengths[i];
+                    kept++;
+                }
+            }
+            if (kept == impactTfs.length) {
+                impactTfs = Arrays.copyOf(impactTfs, kept * 2);
+                impactLengths = Arrays.copyOf(impactLengths, kept * 2);
+            }
+            impactTfs[kept] = tf;
+            impactLengths[kept] = length;
+            impactCount = kept + 1;
+        }
+
+        // Re-encode through a doc renumbering (-1 drops the doc); returns false if nothing is left
+        private boolean rewrite(int[] remap, int[] lengths) {
+            PostingCursor old = new PostingCursor(this, 0);
+            data = new byte[Math.max(8, size)];
+            size = 0;
+            count = 0;
+            lastDoc = -1;
+            maxTf = 0;
+            skipDocs = new int[1];
+            skipOffsets = new int[1];
+            impactStarts = new int[1];
+            impactTfs = new int[2];
+            impactLengths = new int[2];
+            impactCount = 0;
+            skips = 0;
+            // Lengths are already renumbered
+            while (old.next() != NO_MORE_DOCS) {
+                int doc = remap[old.doc];
+                if (doc >= 0) {
+                    add(doc, old.tf, lengths[doc]);
+                }
+            }
+            data = Arrays.copyOf(data, Math.max(8, size));
+            impactTfs = Arrays.copyOf(impactTfs, Math.max(2, impactCount));
+            impactLengths = Arrays.copyOf(impactLengths, Math.max(2, impactCount));
+            return count > 0;
+        }
+
+        private static int writeVarint(byte[] out, int pos, int value) {
+            while ((value & ~0x7F) != 0) {
+                out[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out[pos++] = (byte) value;
+            return pos;
+        }
+    }
+
+    private static final class PostingCursor {
+        private final byte[] data;
+        private final int size;
+        private final int[] skipDocs;
+        private final int[] skipOffsets;
+        private final int[] impactStarts;
+        private final int[] impactTfs;
+        private final int[] impactLengths;
+        private final int impactCount;
+        private final int skips;
+        private final int lastDoc;
+        private final float idf;
+        // Highest score this term can add to any doc: its largest tf at the shortest possible length
+        private final float bound;
+        private int pos;
+        // Postings read so far; the current doc is posting read - 1
+        private int read;
+        // Block looked at by the block-max check, which may run ahead of the decoded position
+        private int block;
+        private int doc = -1;
+        private int tf;
+
+        private PostingCursor(PostingList list, float idf) {
+            this.data = list.data;
+            this.size = list.size;
+            this.skipDocs = list.skipDocs;
+            this.skipOffsets = list.skipOffsets;
+            this.impactStarts = list.impactStarts;
+            this.impactTfs = list.impactTfs;
+            this.impactLengths = list.impactLengths;
+            this.impactCount = list.impactCount;
+            this.skips = list.skips;
+            this.lastDoc = list.lastDoc;
+            this.idf = idf;
+            this.bound = idf * list.maxTf * (K1 + 1) / (list.maxTf + K1 * (1 - B));
+        }
+
+        private float score(float norm) {
+            return idf * tf * (K1 + 1) / (tf + norm);
+        }
+
+        // Point the block-max check at the block that would hold target, without decoding anything; returns
+        // false if the postings end before target
+        private boolean seekBlock(int target) {
+            if (target > lastDoc) {
+                return false;
+            }
+            block = Math.max(block, (read - 1) / SKIP_INTERVAL);
+            while (block + 1 < skips && skipDocs[block + 1] < target) {
+                block++;
+            }
+            return true;
+        }
+
+        // Highest score any doc in the sought block can get from this term
+        private float blockBound(float avgLength) {
+            int end = block + 1 < skips ? impactStarts[block + 1] : impactCount;
+            float best = 0;
+            for (int i = impactStarts[block]; i < end; i++) {
+                int tf = impactTfs[i];
+                best = Math.max(best, tf / (tf + K1 * (1 - B + B * impactLengths[i] / avgLength)));
+            }
+            return idf * (K1 + 1) * best;
+        }
+
+        private int blockLastDoc() {
+            return block + 1 < skips ? skipDocs[block + 1] : lastDoc;
+        }
+
+        private int next() {
+            if (pos >= size) {
+                return doc = NO_MORE_DOCS;
+            }
+            doc += readVarint();
+            tf = readVarint();
+            read++;
+            return doc;
+        }
+
+        // Move to the first doc at or after target, jumping over whole blocks through the skip entries
+        private int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            // Last block whose preceding doc is below target; blocks only ever move the cursor forward
+            int lo = 0;
+            int hi = skips - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (skipDocs[mid] < target) {
+                    lo = mid;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            if (skipOffsets[lo] > pos) {
+                pos = skipOffsets[lo];
+                doc = skipDocs[lo];
+                read = lo * SKIP_INTERVAL;
+            }
+            while (doc < target) {
+                next();
+            }
+            return doc;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    // Min-heap of the best k (doc, score) pairs; on equal scores the newer (higher) doc wins
+    private static final class TopHits {
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        private TopHits(int k) {
+            docs = new int[k];
+            scores = new float[k];
+        }
+
+        // Returns true if the doc made it into the top k
+        private boolean offer(int doc, float score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+                return true;
+            }
+            if (docs.length > 0 && better(doc, score, docs[0], scores[0])) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isFull() {
+            return size == docs.length;
+        }
+
+        // Score of the current k-th hit; a new doc must beat it to get in
+        private float threshold() {
+            return scores[0];
+        }
+
+        // Docs best first; empties the heap
+        private int[] sortedDocs() {
+            int[] sorted = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                sorted[i] = docs[0];
+                docs[0] = docs[size - 1];
+                scores[0] = scores[size - 1];
+                size--;
+                siftDown(0);
+            }
+            return sorted;
+        }
+
+        private static boolean better(int doc, float score, int otherDoc, float otherScore) {
+            return score > otherScore || (score == otherScore && doc > otherDoc);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!better(docs[parent], scores[parent], docs[i], scores[i])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int worst = left;
+                int right = left + 1;
+                if (right < size && better(docs[left], scores[left], docs[right], scores[right])) {
+                    worst = right;
+                }
+                if (!better(docs[i], scores[i], docs[worst], scores[worst])) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
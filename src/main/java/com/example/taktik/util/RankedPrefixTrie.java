@@ -0,0 +1,439 @@
+package com.example.taktik.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Prefix completion over names, each with a score, returning the k highest-scoring names under a prefix.
+// A radix trie (compressed: chains of single-child nodes collapse into one edge label) keyed by the
+// lowercased name. Every node keeps its subtree's top k entries, best first, so a lookup is a walk down the
+// prefix plus a copy of at most k ids, independent of how many names share the prefix. The top lists are
+// maintained on every write: an insert offers the entry to each node on its path, a removal or score drop
+// rebuilds the affected nodes from their children's lists. Top lists are replaced, never edited in place.
+// Ties on score go to the alphabetically first name.
+// Thread-safe: lookups share a read lock, updates take the write lock.
+public class RankedPrefixTrie {
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    private final int k;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Node root = new Node(NO_CHARS);
+    private int nodeCount = 1;
+
+    public RankedPrefixTrie(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        this.k = k;
+    }
+
+    // Add a name, or rename and rescore an existing id
+    public void put(String id, String name, long score) {
+        lock.writeLock().lock();
+        try {
+            Entry existing = entries.get(id);
+            if (existing != null) {
+                if (existing.name.equals(name)) {
+                    rescore(existing, score);
+                    return;
+                }
+                removeEntry(existing);
+            }
+            insertEntry(new Entry(id, name, score));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Add a name unless the id is already present
+    public boolean putIfAbsent(String id, String name, long score) {
+        lock.writeLock().lock();
+        try {
+            if (entries.containsKey(id)) {
+                return false;
+            }
+            insertEntry(new Entry(id, name, score));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adjust an id's score; false if the id is not present
+    public boolean addScore(String id, long delta) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return false;
+            }
+            rescore(entry, entry.score + delta);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return false;
+            }
+            removeEntry(entry);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids of the highest-scoring names starting with prefix (case-insensitive), best first, at most min(limit, k)
+    public List<String> complete(CharSequence prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            int length = prefix.length();
+            while (i < length) {
+                node = node.child(fold(prefix.charAt(i)));
+                if (node == null) {
+                    return List.of();
+                }
+                char[] label = node.label;
+                for (int j = 0; j < label.length && i < length; j++, i++) {
+                    if (label[j] != fold(prefix.charAt(i))) {
+                        return List.of();
+                    }
+                }
+            }
+            Entry[] top = node.top;
+            int count = Math.min(Math.max(limit, 0), top.length);
+            String[] ids = new String[count];
+            for (int j = 0; j < count; j++) {
+                ids[j] = top[j].id;
+            }
+            return Arrays.asList(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getNodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    private void insertEntry(Entry entry) {
+        entries.put(entry.id, entry);
+        insert(root, entry.name, 0, entry);
+    }
+
+    private void removeEntry(Entry entry) {
+        entries.remove(entry.id);
+        remove(root, entry.name, 0, entry);
+    }
+
+    // name[i..] is what remains of the entry's name below node; names are folded to lowercase as they are read
+    private void insert(Node node, String name, int i, Entry entry) {
+        if (i == name.length()) {
+            node.own = append(node.own, entry);
+        } else {
+            int slot = node.find(fold(name.charAt(i)));
+            if (slot < 0) {
+                Node leaf = new Node(foldedRange(name, i));
+                leaf.own = new Entry[] {entry};
+                leaf.top = leaf.own;
+                node.insertChild(-slot - 1, leaf);
+                nodeCount++;
+            } else {
+                Node child = node.children[slot];
+                int common = commonPrefix(child.label, name, i);
+                if (common < child.label.length) {
+                    child = split(child, common);
+                    node.children[slot] = child;
+                }
+                insert(child, name, i + common, entry);
+            }
+        }
+        offer(node, entry);
+    }
+
+    // Returns false if the entry was not found below node
+    private boolean remove(Node node, String name, int i, Entry entry) {
+        if (i == name.length()) {
+            int at = indexOf(node.own, entry);
+            if (at < 0) {
+                return false;
+            }
+            node.own = without(node.own, at);
+        } else {
+            int slot = node.find(fold(name.charAt(i)));
+            if (slot < 0) {
+                return false;
+            }
+            Node child = node.children[slot];
+            if (commonPrefix(child.label, name, i) < child.label.length
+                    || !remove(child, name, i + child.label.length, entry)) {
+                return false;
+            }
+            // Keep the trie compressed: drop empty leaves and fold single-child chains back into one edge
+            if (child.own.length == 0 && child.children.length == 0) {
+                node.removeChild(slot);
+                nodeCount--;
+            } else if (child.own.length == 0 && child.children.length == 1) {
+                Node grandchild = child.children[0];
+                grandchild.label = concat(child.label, grandchild.label);
+                node.children[slot] = grandchild;
+                nodeCount--;
+            }
+        }
+        if (indexOf(node.top, entry) >= 0) {
+            rebuildTop(node);
+        }
+        return true;
+    }
+
+    private void rescore(Entry entry, long score) {
+        long previous = entry.score;
+        if (score == previous) {
+            return;
+        }
+        Node node = root;
+        int i = 0;
+        String name = entry.name;
+        // The path is at most one node per character; walk it top-down, rescoring after collecting it
+        Node[] path = new Node[name.length() + 1];
+        int depth = 0;
+        path[depth++] = node;
+        while (i < name.length()) {
+            node = node.children[node.find(fold(name.charAt(i)))];
+            i += node.label.length;
+            path[depth++] = node;
+        }
+        entry.score = score;
+        // Bottom-up, so a rebuilt node sees its children's updated lists
+        for (int d = depth - 1; d >= 0; d--) {
+            Node n = path[d];
+            int at = indexOf(n.top, entry);
+            if (at < 0) {
+                offer(n, entry);
+            } else if (score > previous) {
+                // A rise cannot let any other entry in; only the order within the list changes
+                Entry[] top = n.top.clone();
+                Arrays.sort(top, RankedPrefixTrie::compare);
+                n.top = top;
+            } else {
+                rebuildTop(n);
+            }
+        }
+    }
+
+    // Add entry to node's top list if it belongs there
+    private void offer(Node node, Entry entry) {
+        Entry[] top = node.top;
+        int size = top.length;
+        if (size == k && compare(entry, top[size - 1]) >= 0) {
+            return;
+        }
+        int at = 0;
+        while (at < size && compare(top[at], entry) < 0) {
+            at++;
+        }
+        int newSize = Math.min(size + 1, k);
+        Entry[] updated = new Entry[newSize];
+        System.arraycopy(top, 0, updated, 0, at);
+        updated[at] = entry;
+        System.arraycopy(top, at, updated, at + 1, newSize - at - 1);
+        node.top = updated;
+    }
+
+    // Recompute a node's top list from its own entries and its children's top lists
+    private void rebuildTop(Node node) {
+        Entry[] best = new Entry[k];
+        int size = 0;
+        for (Entry entry : node.own) {
+            size = insertBounded(best, size, entry);
+        }
+        for (Node child : node.children) {
+            // Children's lists are sorted: once one entry misses, the rest of that list does too
+            for (Entry entry : child.top) {
+                if (size == k && compare(entry, best[k - 1]) >= 0) {
+                    break;
+                }
+                size = insertBounded(best, size, entry);
+            }
+        }
+        node.top = size == 0 ? NO_ENTRIES : Arrays.copyOf(best, size);
+    }
+
+    // Insert into a sorted array holding at most k entries; returns the new size
+    private int insertBounded(Entry[] best, int size, Entry entry) {
+        if (size == k && compare(entry, best[size - 1]) >= 0) {
+            return size;
+        }
+        int at = size == k ? k - 1 : size;
+        while (at > 0 && compare(best[at - 1], entry) > 0) {
+            best[at] = best[at - 1];
+            at--;
+        }
+        best[at] = entry;
+        return Math.min(size + 1, k);
+    }
+
+    private Node split(Node child, int at) {
+        Node parent = new Node(Arrays.copyOfRange(child.label, 0, at));
+        child.label = Arrays.copyOfRange(child.label, at, child.label.length);
+        parent.children = new Node[] {child};
+        parent.top = child.top;
+        nodeCount++;
+        return parent;
+    }
+
+    // Higher score first, then name, then id
+    private static int compare(Entry a, Entry b) {
+        if (a.score != b.score) {
+            return a.score > b.score ? -1 : 1;
+        }
+        int byName = a.name.compareTo(b.name);
+        return byName != 0 ? byName : a.id.compareTo(b.id);
+    }
+
+    private static int commonPrefix(char[] label, String name, int from) {
+        int n = Math.min(label.length, name.length() - from);
+        int i = 0;
+        while (i < n && label[i] == fold(name.charAt(from + i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static char[] foldedRange(String name, int from) {
+        char[] folded = new char[name.length() - from];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = fold(name.charAt(from + i));
+        }
+        return folded;
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(c);
+    }
+
+    private static int indexOf(Entry[] list, Entry entry) {
+        for (int i = 0; i < list.length; i++) {
+            if (list[i] == entry) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Entry[] append(Entry[] list, Entry entry) {
+        Entry[] updated = Arrays.copyOf(list, list.length + 1);
+        updated[list.length] = entry;
+        return updated;
+    }
+
+    private static Entry[] without(Entry[] list, int at) {
+        if (list.length == 1) {
+            return NO_ENTRIES;
+        }
+        Entry[] updated = new Entry[list.length - 1];
+        System.arraycopy(list, 0, updated, 0, at);
+        System.arraycopy(list, at + 1, updated, at, list.length - at - 1);
+        return updated;
+    }
+
+    private static char[] concat(char[] a, char[] b) {
+        char[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    private static final class Entry {
+        final String id;
+        final String name;
+        long score;
+
+        Entry(String id, String name, long score) {
+            this.id = id;
+            this.name = name;
+            this.score = score;
+        }
+    }
+
+    // Children are kept sorted by the first character of their labels, in exactly-sized arrays
+    private static final class Node {
+        char[] label;
+        Node[] children = NO_NODES;
+        Entry[] own = NO_ENTRIES;
+        Entry[] top = NO_ENTRIES;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+
+        Node child(char c) {
+            int slot = find(c);
+            return slot >= 0 ? children[slot] : null;
+        }
+
+        // Binary search on first characters; -(insertion point) - 1 when absent
+        int find(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char first = children[mid].label[0];
+                if (first < c) {
+                    low = mid + 1;
+                } else if (first > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -low - 1;
+        }
+
+        void insertChild(int at, Node child) {
+            Node[] updated = new Node[children.length + 1];
+            System.arraycopy(children, 0, updated, 0, at);
+            updated[at] = child;
+            System.arraycopy(children, at, updated, at + 1, children.length - at);
+            children = updated;
+        }
+
+        void removeChild(int at) {
+            Node[] updated = new Node[children.length - 1];
+            System.arraycopy(children, 0, updated, 0, at);
+            System.arraycopy(children, at + 1, updated, at, children.length - at - 1);
+            children = updated;
+        }
+    }
+}
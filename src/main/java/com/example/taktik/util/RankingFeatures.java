@@ -0,0 +1,83 @@
+package com.example.taktik.util;
+
+import java.util.Arrays;
+
+// Reusable struct-of-arrays workspace for ranking one candidate set.
+// Feature, score and order arrays are sized once and reused across requests so scoring loops do not allocate.
+// Not thread-safe: use one instance per thread.
+public class RankingFeatures {
+
+    private int count;
+    private long[] createdAt;      // epoch nanos
+    private long[] viewCount;
+    private int[] recentLikes;     // likes inside the velocity window
+    private int[] recentComments;  // comments inside the velocity window
+    private float[] affinity;      // viewer -> author affinity, 0 for strangers
+    private double[] scores;
+    private int[] order;
+
+    public RankingFeatures(int capacity) {
+        allocate(Math.max(capacity, 16));
+    }
+
+    // Start a new candidate set, growing the arrays only if it is larger than any seen before
+    public void reset(int candidateCount) {
+        if (candidateCount > createdAt.length) {
+            allocate(Math.max(candidateCount, createdAt.length * 2));
+        }
+        count = candidateCount;
+        Arrays.fill(scores, 0, candidateCount, 0.0);
+    }
+
+    public void set(int index, long createdAtNanos, long views, int likes, int comments, float authorAffinity) {
+        createdAt[index] = createdAtNanos;
+        viewCount[index] = views;
+        recentLikes[index] = likes;
+        recentComments[index] = comments;
+        affinity[index] = authorAffinity;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long[] getCreatedAt() {
+        return createdAt;
+    }
+
+    public long[] getViewCount() {
+        return viewCount;
+    }
+
+    public int[] getRecentLikes() {
+        return recentLikes;
+    }
+
+    public int[] getRecentComments() {
+        return recentComments;
+    }
+
+    public float[] getAffinity() {
+        return affinity;
+    }
+
+    // Scores accumulated by the scorers; only the first getCount() entries are meaningful
+    public double[] getScores() {
+        return scores;
+    }
+
+    // Candidate indices in ranked order after FeedRanker.rank
+    public int[] getOrder() {
+        return order;
+    }
+
+    private void allocate(int capacity) {
+        createdAt = new long[capacity];
+        viewCount = new long[capacity];
+        recentLikes = new int[capacity];
+        recentComments = new int[capacity];
+        affinity = new float[capacity];
+        scores = new double[capacity];
+        order = new int[capacity];
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.taktik.util;
+
+// Exponential decay on video age: weight at upload, half of it after one half-life
+public class RecencyDecayScorer implements FeedScorer {
+
+    private final double weight;
+    private final double decayPerNano;
+
+    public RecencyDecayScorer(double weight, double halfLifeHours) {
+        this.weight = weight;
+        this.decayPerNano = Math.log(2) / (halfLifeHours * 3_600_000_000_000.0);
+    }
+
+    @Override
+    public String getName() {
+        return "recency";
+    }
+
+    @Override
+    public void score(RankingFeatures features, long nowNanos) {
+        int count = features.getCount();
+        long[] createdAt = features.getCreatedAt();
+        double[] scores = features.getScores();
+        for (int i = 0; i < count; i++) {
+            long age = Math.max(0, nowNanos - createdAt[i]);
+            scores[i] += weight * Math.exp(-decayPerNano * age);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.taktik.util;
+
+import java.util.Arrays;
+
+// Immutable newest-first list of one author's most recent videos as parallel primitive arrays.
+// Updates return a new list, so readers can merge snapshots without locking.
+public final class RecentVideoList {
+
+    public static final RecentVideoList EMPTY = new RecentVideoList(new int[0], new long[0], false);
+
+    private final int[] ordinals;
+    private final long[] createdAt; // epoch nanos
+    private final boolean truncated; // older videos exist that are not in the list
+
+    public RecentVideoList(int[] ordinals, long[] createdAt, boolean truncated) {
+        this.ordinals = ordinals;
+        this.createdAt = createdAt;
+        this.truncated = truncated;
+    }
+
+    // Copy with a video inserted in order, dropping the oldest entry beyond capacity
+    public RecentVideoList with(int ordinal, long createdAtNanos, int capacity, VideoOrdinals videoOrdinals) {
+        for (int ord : ordinals) {
+            if (ord == ordinal) {
+                return this;
+            }
+        }
+        String videoId = videoOrdinals.idOf(ordinal);
+        int pos = 0;
+        while (pos < ordinals.length
+                && KeysetCursor.compareKeys(createdAt[pos], videoOrdinals.idOf(ordinals[pos]), createdAtNanos, videoId) > 0) {
+            pos++;
+        }
+        if (pos >= capacity) {
+            return truncated ? this : new RecentVideoList(ordinals, createdAt, true);
+        }
+
+        int newSize = Math.min(ordinals.length + 1, capacity);
+        int[] newOrdinals = new int[newSize];
+        long[] newCreatedAt = new long[newSize];
+        System.arraycopy(ordinals, 0, newOrdinals, 0, pos);
+        System.arraycopy(createdAt, 0, newCreatedAt, 0, pos);
+        newOrdinals[pos] = ordinal;
+        newCreatedAt[pos] = createdAtNanos;
+        System.arraycopy(ordinals, pos, newOrdinals, pos + 1, newSize - pos - 1);
+        System.arraycopy(createdAt, pos, newCreatedAt, pos + 1, newSize - pos - 1);
+
+        return new RecentVideoList(newOrdinals, newCreatedAt, truncated || ordinals.length + 1 > capacity);
+    }
+
+    // Copy without the given video
+    public RecentVideoList without(int ordinal) {
+        for (int i = 0; i < ordinals.length; i++) {
+            if (ordinals[i] == ordinal) {
+                int[] newOrdinals = new int[ordinals.length - 1];
+                long[] newCreatedAt = new long[ordinals.length - 1];
+                System.arraycopy(ordinals, 0, newOrdinals, 0, i);
+                System.arraycopy(createdAt, 0, newCreatedAt, 0, i);
+                System.arraycopy(ordinals, i + 1, newOrdinals, i, ordinals.length - i - 1);
+                System.arraycopy(createdAt, i + 1, newCreatedAt, i, ordinals.length - i - 1);
+                return new RecentVideoList(newOrdinals, newCreatedAt, truncated);
+            }
+        }
+        return this;
+    }
+
+    // Index of the first entry strictly older than the given key
+    public int indexAfter(long afterNanos, String afterId, VideoOrdinals videoOrdinals) {
+        int low = 0;
+        int high = ordinals.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (KeysetCursor.compareKeys(createdAt[mid], videoOrdinals.idOf(ordinals[mid]), afterNanos, afterId) >= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int size() {
+        return ordinals.length;
+    }
+
+    public int ordinalAt(int index) {
+        return ordinals[index];
+    }
+
+    public long createdAtAt(int index) {
+        return createdAt[index];
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public String toString() {
+        return "RecentVideoList" + Arrays.toString(ordinals) + (truncated ? "+" : "");
+    }
+}
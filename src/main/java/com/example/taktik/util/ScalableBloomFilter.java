@@ -0,0 +1,172 @@
+package com.example.taktik.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Scalable Bloom filter (Almeida et al.): a chain of fixed-size slices where each new slice holds twice as
+// many items at half the false-positive rate, so the overall rate stays bounded as the set grows.
+// A byte cap bounds memory: when a new slice would exceed it, the oldest slices are dropped, so the filter
+// forgets the oldest items first instead of growing without limit.
+// Not thread-safe: callers synchronize.
+public class ScalableBloomFilter {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final double TIGHTENING = 0.5;
+
+    private final int initialCapacity;
+    private final double falsePositiveRate;
+    private final int maxBytes;
+    private final Deque<Slice> slices = new ArrayDeque<>(); // oldest first
+    private int nextSliceIndex;
+
+    public ScalableBloomFilter(int initialCapacity, double falsePositiveRate, int maxBytes) {
+        this.initialCapacity = initialCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+    }
+
+    // Add an item, returning false if it was (probably) already present
+    public boolean add(String item) {
+        long h1 = Hashing.hash64(item, 0x9E3779B97F4A7C15L);
+        long h2 = Hashing.hash64(item, 0xC2B2AE3D27D4EB4FL) | 1;
+        if (contains(h1, h2)) {
+            return false;
+        }
+        Slice current = slices.peekLast();
+        if (current == null || current.count >= current.capacity) {
+            current = addSlice();
+        }
+        current.add(h1, h2);
+        return true;
+    }
+
+    public boolean mightContain(String item) {
+        return contains(Hashing.hash64(item, 0x9E3779B97F4A7C15L), Hashing.hash64(item, 0xC2B2AE3D27D4EB4FL) | 1);
+    }
+
+    public int getSizeInBytes() {
+        int bytes = 0;
+        for (Slice slice : slices) {
+            bytes += slice.words.length * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    public int getSliceCount() {
+        return slices.size();
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(9 + slices.size() * 16 + getSizeInBytes());
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(nextSliceIndex);
+        buffer.putInt(slices.size());
+        for (Slice slice : slices) {
+            buffer.putInt(slice.capacity);
+            buffer.putInt(slice.count);
+            buffer.putInt(slice.hashCount);
+            buffer.putInt(slice.words.length);
+            for (long word : slice.words) {
+                buffer.putLong(word);
+            }
+        }
+        return buffer.array();
+    }
+
+    // Restore a filter written by toBytes; an unreadable payload yields an empty filter
+    public static ScalableBloomFilter fromBytes(byte[] data, int initialCapacity, double falsePositiveRate, int maxBytes) {
+        ScalableBloomFilter filter = new ScalableBloomFilter(initialCapacity, falsePositiveRate, maxBytes);
+        if (data == null || data.length < 9 || data[0] != FORMAT_VERSION) {
+            return filter;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        buffer.get();
+        filter.nextSliceIndex = buffer.getInt();
+        int sliceCount = buffer.getInt();
+        for (int s = 0; s < sliceCount; s++) {
+            int capacity = buffer.getInt();
+            int count = buffer.getInt();
+            int hashCount = buffer.getInt();
+            long[] words = new long[buffer.getInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = buffer.getLong();
+            }
+            filter.slices.addLast(new Slice(capacity, count, hashCount, words));
+        }
+        filter.enforceCap(0);
+        return filter;
+    }
+
+    private boolean contains(long h1, long h2) {
+        for (Slice slice : slices) {
+            if (slice.contains(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Slice addSlice() {
+        int index = nextSliceIndex++;
+        long capacity = (long) initialCapacity << Math.min(index, 20);
+        double rate = falsePositiveRate * (1 - TIGHTENING) * Math.pow(TIGHTENING, index);
+        long bits = (long) Math.ceil(-capacity * Math.log(rate) / (Math.log(2) * Math.log(2)));
+        long words = Math.max(1, (bits + 63) >>> 6);
+
+        // Stop growing once a single slice would blow the cap on its own; reuse the largest size that fits
+        int maxWords = Math.max(1, maxBytes / Long.BYTES);
+        if (words > maxWords) {
+            words = maxWords;
+            capacity = Math.max(1, (long) (words * 64L * Math.log(2) * Math.log(2) / -Math.log(rate)));
+            nextSliceIndex--;
+        }
+        int hashCount = (int) Math.max(1, Math.round(-Math.log(rate) / Math.log(2)));
+
+        enforceCap((int) words * Long.BYTES);
+        Slice slice = new Slice((int) Math.min(capacity, Integer.MAX_VALUE), 0, hashCount, new long[(int) words]);
+        slices.addLast(slice);
+        return slice;
+    }
+
+    // Drop the oldest slices until the filter plus reservedBytes fits in the cap
+    private void enforceCap(int reservedBytes) {
+        while (!slices.isEmpty() && getSizeInBytes() + reservedBytes > maxBytes) {
+            slices.removeFirst();
+        }
+    }
+
+    private static final class Slice {
+        private final int capacity;
+        private int count;
+        private final int hashCount;
+        private final long[] words;
+        private final long bitCount;
+
+        private Slice(int capacity, int count, int hashCount, long[] words) {
+            this.capacity = capacity;
+            this.count = count;
+            this.hashCount = hashCount;
+            this.words = words;
+            this.bitCount = (long) words.length * 64;
+        }
+
+        private void add(long h1, long h2) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                words[(int) (bit >>> 6)] |= 1L << bit;
+            }
+            count++;
+        }
+
+        private boolean contains(long h1, long h2) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
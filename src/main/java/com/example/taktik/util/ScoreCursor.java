@@ -0,0 +1,62 @@
+package com.example.taktik.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque (score, id) cursor for keyset pagination over relevance-ranked results, best first.
+// Also carries how many results were already served, so callers can enforce a hard cap on paging depth.
+public class ScoreCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final double score;
+    private final String id;
+    private final int served;
+
+    public ScoreCursor(double score, String id, int served) {
+        this.score = score;
+        this.id = id;
+        this.served = served;
+    }
+
+    // Encode cursor as URL-safe base64 so clients treat it as opaque; the score round-trips exactly
+    public String encode() {
+        String raw = served + SEPARATOR + score + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decode cursor sent back by a client, null/blank means "first page"
+    public static ScoreCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            if (first <= 0 || second <= first + 1 || second == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            int served = Integer.parseInt(raw.substring(0, first));
+            double score = Double.parseDouble(raw.substring(first + 1, second));
+            if (served < 0 || Double.isNaN(score)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ScoreCursor(score, raw.substring(second + 1), served);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getServed() {
+        return served;
+    }
+}
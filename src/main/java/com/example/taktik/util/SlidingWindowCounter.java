@@ -0,0 +1,56 @@
+package com.example.taktik.util;
+
+import java.util.Arrays;
+
+// Ring of fixed-width time buckets with a running total, giving O(1) sums over the last
+// bucketCount * bucketNanos. Buckets that fall out of the window are subtracted as time advances.
+// Not thread-safe: callers synchronize.
+public class SlidingWindowCounter {
+
+    private final int[] buckets;
+    private final long bucketNanos;
+    private long headBucket; // absolute index (time / bucketNanos) of the newest bucket
+    private long total;
+
+    public SlidingWindowCounter(int bucketCount, long bucketNanos) {
+        this.buckets = new int[bucketCount];
+        this.bucketNanos = bucketNanos;
+    }
+
+    public void add(long atNanos, int amount) {
+        long bucket = atNanos / bucketNanos;
+        if (bucket < headBucket - buckets.length + 1) {
+            return; // older than the window
+        }
+        advanceTo(bucket);
+        buckets[slot(bucket)] += amount;
+        total += amount;
+    }
+
+    // Sum over the window ending at the given time
+    public long sum(long atNanos) {
+        advanceTo(atNanos / bucketNanos);
+        return total;
+    }
+
+    private void advanceTo(long bucket) {
+        if (bucket <= headBucket) {
+            return;
+        }
+        if (bucket - headBucket >= buckets.length) {
+            Arrays.fill(buckets, 0);
+            total = 0;
+        } else {
+            for (long b = headBucket + 1; b <= bucket; b++) {
+                int slot = slot(b);
+                total -= buckets[slot];
+                buckets[slot] = 0;
+            }
+        }
+        headBucket = bucket;
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) buckets.length);
+    }
+}
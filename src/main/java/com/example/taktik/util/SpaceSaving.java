@@ -0,0 +1,122 @@
+package com.example.taktik.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Space-Saving summary (Metwally et al.) over a fixed number of counters.
+// Any key with true count above total / capacity is guaranteed to be tracked; a tracked key's count
+// overestimates its true count by at most its recorded error. Counters sit in an indexed min-heap,
+// so each offer is O(log capacity). Not thread-safe: callers synchronize.
+public class SpaceSaving {
+
+    private final Counter[] heap;
+    private final Map<String, Counter> counters;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        this.heap = new Counter[capacity];
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(String key, long amount) {
+        total += amount;
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count += amount;
+            siftDown(counter.heapIndex);
+            return;
+        }
+        if (size < heap.length) {
+            counter = new Counter(key, amount, 0);
+            counter.heapIndex = size;
+            heap[size++] = counter;
+            counters.put(key, counter);
+            siftUp(counter.heapIndex);
+            return;
+        }
+        // Take over the smallest counter: the newcomer inherits its count as error
+        counter = heap[0];
+        counters.remove(counter.key);
+        counter.key = key;
+        counter.error = counter.count;
+        counter.count += amount;
+        counters.put(key, counter);
+        siftDown(0);
+    }
+
+    // Visit tracked keys with (count, error)
+    public void forEach(CounterVisitor visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.visit(heap[i].key, heap[i].count, heap[i].error);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getCapacity() {
+        return heap.length;
+    }
+
+    @FunctionalInterface
+    public interface CounterVisitor {
+        void visit(String key, long count, long error);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent].count <= heap[i].count) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < size && heap[right].count < heap[left].count) {
+                smallest = right;
+            }
+            if (heap[i].count <= heap[smallest].count) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Counter tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+        heap[a].heapIndex = a;
+        heap[b].heapIndex = b;
+    }
+
+    private static final class Counter {
+        private String key;
+        private long count;
+        private long error;
+        private int heapIndex;
+
+        private Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
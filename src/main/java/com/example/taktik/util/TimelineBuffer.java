@@ -0,0 +1,152 @@
+package com.example.taktik.util;
+
+// Bounded, newest-first buffer of (videoId, authorId, createdAt) entries backing a home timeline
+// or one author's recent videos.
+// It always holds every timeline entry newer than its floor, so a read that runs past the last
+// buffered entry can safely continue from the database after that entry.
+public class TimelineBuffer {
+
+    private final int capacity;
+    private final String[] videoIds;
+    private final String[] authorIds;
+    private final long[] createdAt; // epoch nanos, see KeysetCursor.toEpochNanos
+
+    private int size;
+
+    // Entries at or below the floor may be missing from the buffer
+    private boolean hasFloor;
+    private long floorCreatedAt;
+    private String floorVideoId;
+
+    public TimelineBuffer(int capacity) {
+        this.capacity = capacity;
+        this.videoIds = new String[capacity];
+        this.authorIds = new String[capacity];
+        this.createdAt = new long[capacity];
+    }
+
+    // Insert an entry in timeline order, evicting the oldest entry when full
+    public synchronized void add(String videoId, String authorId, long createdAtNanos) {
+        if (isAtOrBelowFloor(createdAtNanos, videoId)) {
+            return;
+        }
+
+        int pos = insertionPoint(createdAtNanos, videoId);
+        if (pos < size && createdAt[pos] == createdAtNanos && videoIds[pos].equals(videoId)) {
+            return; // already present
+        }
+
+        if (size == capacity) {
+            if (pos == size) {
+                raiseFloor(createdAtNanos, videoId);
+                return;
+            }
+            raiseFloor(createdAt[size - 1], videoIds[size - 1]);
+        }
+
+        System.arraycopy(videoIds, pos, videoIds, pos + 1, size - pos);
+        System.arraycopy(authorIds, pos, authorIds, pos + 1, size - pos);
+        System.arraycopy(createdAt, pos, createdAt, pos + 1, size - pos);
+        videoIds[pos] = videoId;
+        authorIds[pos] = authorId;
+        createdAt[pos] = createdAtNanos;
+        size++;
+    }
+
+    // Declare that entries at or below this key may be missing, dropping any buffered ones
+    public synchronized void raiseFloor(long createdAtNanos, String videoId) {
+        if (!hasFloor || KeysetCursor.compareKeys(createdAtNanos, videoId, floorCreatedAt, floorVideoId) > 0) {
+            hasFloor = true;
+            floorCreatedAt = createdAtNanos;
+            floorVideoId = videoId;
+        }
+        while (size > 0 && isAtOrBelowFloor(createdAt[size - 1], videoIds[size - 1])) {
+            size--;
+            videoIds[size] = null;
+            authorIds[size] = null;
+        }
+    }
+
+    // Drop every entry from one author (unfollow)
+    public synchronized void removeAuthor(String authorId) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (!authorIds[i].equals(authorId)) {
+                videoIds[kept] = videoIds[i];
+                authorIds[kept] = authorIds[i];
+                createdAt[kept] = createdAt[i];
+                kept++;
+            }
+        }
+        for (int i = kept; i < size; i++) {
+            videoIds[i] = null;
+            authorIds[i] = null;
+        }
+        size = kept;
+    }
+
+    // Drop a single video (deleted)
+    public synchronized void removeVideo(String videoId) {
+        for (int i = 0; i < size; i++) {
+            if (videoIds[i].equals(videoId)) {
+                System.arraycopy(videoIds, i + 1, videoIds, i, size - i - 1);
+                System.arraycopy(authorIds, i + 1, authorIds, i, size - i - 1);
+                System.arraycopy(createdAt, i + 1, createdAt, i, size - i - 1);
+                size--;
+                videoIds[size] = null;
+                authorIds[size] = null;
+                return;
+            }
+        }
+    }
+
+    // Copy up to limit entries strictly older than the cursor (null cursor = from the top) into the
+    // output arrays, returning how many were copied
+    public synchronized int page(KeysetCursor after, int limit, String[] outIds, long[] outCreatedAt) {
+        int start = 0;
+        if (after != null) {
+            long afterNanos = KeysetCursor.toEpochNanos(after.getCreatedAt());
+            start = insertionPoint(afterNanos, after.getId());
+            if (start < size && createdAt[start] == afterNanos && videoIds[start].equals(after.getId())) {
+                start++;
+            }
+        }
+
+        int count = Math.max(0, Math.min(size - start, limit));
+        System.arraycopy(videoIds, start, outIds, 0, count);
+        System.arraycopy(createdAt, start, outCreatedAt, 0, count);
+        return count;
+    }
+
+    // True when older entries may exist outside the buffer
+    public synchronized boolean isTruncated() {
+        return hasFloor;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private boolean isAtOrBelowFloor(long createdAtNanos, String videoId) {
+        return hasFloor && KeysetCursor.compareKeys(createdAtNanos, videoId, floorCreatedAt, floorVideoId) <= 0;
+    }
+
+    // First index whose key is not newer than the given key
+    private int insertionPoint(long createdAtNanos, String videoId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (KeysetCursor.compareKeys(createdAt[mid], videoIds[mid], createdAtNanos, videoId) > 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.taktik.util;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Interns String video ids as dense int ordinals so in-memory indexes can use primitive arrays.
+// Ordinals are never reused; a deleted video simply leaves its slot unused.
+@Component
+public class VideoOrdinals {
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private volatile String[] ids = new String[1024];
+    private int next;
+
+    // Get the ordinal for a video id, assigning a new one on first sight
+    public int intern(String videoId) {
+        Integer ordinal = ordinals.get(videoId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (this) {
+            ordinal = ordinals.get(videoId);
+            if (ordinal != null) {
+                return ordinal;
+            }
+            if (next == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            int assigned = next++;
+            ids[assigned] = videoId;
+            ordinals.put(videoId, assigned);
+            return assigned;
+        }
+    }
+
+    // Get the ordinal for a known video id, or -1 if it was never interned
+    public int find(String videoId) {
+        Integer ordinal = ordinals.get(videoId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public String idOf(int ordinal) {
+        return ids[ordinal];
+    }
+
+    public int size() {
+        return ordinals.size();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.taktik.util;
+
+// Log-damped lifetime view count
+public class ViewCountScorer implements FeedScorer {
+
+    private final double weight;
+
+    public ViewCountScorer(double weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String getName() {
+        return "views";
+    }
+
+    @Override
+    public void score(RankingFeatures features, long nowNanos) {
+        int count = features.getCount();
+        long[] views = features.getViewCount();
+        double[] scores = features.getScores();
+        for (int i = 0; i < count; i++) {
+            scores[i] += weight * Math.log1p(views[i]);
+        }
+    }
+}
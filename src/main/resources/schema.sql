@@ -0,0 +1,15 @@
+-- Schema objects Hibernate cannot express from the entity mappings.
+-- Runs after Hibernate's ddl-auto (spring.jpa.defer-datasource-initialization) and must stay idempotent.
+
+-- Full-text search over comment content: a generated tsvector kept in sync by Postgres, with a GIN index.
+-- The 'simple' configuration lowercases without stemming or stop words, so it works for any language.
+ALTER TABLE comment ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(content, ''))) STORED;
+CREATE INDEX IF NOT EXISTS idx_comment_search ON comment USING gin (search_vector);
+
+-- Trigram indexes for fuzzy search and substring LIKE on videos and usernames (VideoRepository.fuzzySearchRows,
+-- UserRepository.fuzzySearchRows and the LIKE fallbacks). Indexed on lower(...) to match how the queries fold case.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_video_title_trgm ON video USING gin (lower(title) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_video_description_trgm ON video USING gin (lower(description) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING gin (lower(username) gin_trgm_ops);
@@ -0,0 +1,74 @@
+package com.example.taktik.service;
+
+import com.example.taktik.model.Comment;
+import com.example.taktik.repository.CommentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CommentServiceTests {
+
+	private CommentRepository commentRepository;
+	private CommentService commentService;
+
+	@BeforeEach
+	void setUp() {
+		commentRepository = mock(CommentRepository.class);
+		commentService = new CommentService();
+		ReflectionTestUtils.setField(commentService, "commentRepository", commentRepository);
+	}
+
+	@Test
+	void groupsReplyPreviewsForAPageInTwoQueries() {
+		when(commentRepository.findFirstReplyIds(anyCollection(), anyInt())).thenReturn(List.of(
+				new Object[] {"p1", "r1"}, new Object[] {"p2", "r2"}, new Object[] {"p1", "r3"}));
+		when(commentRepository.findAllWithUserByIdIn(anyCollection())).thenReturn(List.of(
+				reply("r1", 1), reply("r2", 2), reply("r3", 3)));
+
+		Map<String, List<Comment>> previews = commentService.getReplyPreviews(List.of("p1", "p2", "p3"), 2);
+
+		assertEquals(List.of("r1", "r3"), previews.get("p1").stream().map(Comment::getId).toList());
+		assertEquals(List.of("r2"), previews.get("p2").stream().map(Comment::getId).toList());
+		assertFalse(previews.containsKey("p3"));
+		verify(commentRepository, times(1)).findFirstReplyIds(anyCollection(), anyInt());
+		verify(commentRepository, times(1)).findAllWithUserByIdIn(anyCollection());
+	}
+
+	@Test
+	void skipsEntityFetchWhenNoParentHasReplies() {
+		when(commentRepository.findFirstReplyIds(anyCollection(), anyInt())).thenReturn(List.of());
+
+		assertTrue(commentService.getReplyPreviews(Set.of("p1"), 3).isEmpty());
+		verify(commentRepository, never()).findAllWithUserByIdIn(anyCollection());
+	}
+
+	@Test
+	void issuesNoQueryForAnEmptyPage() {
+		assertTrue(commentService.getReplyPreviews(List.of(), 3).isEmpty());
+		verifyNoInteractions(commentRepository);
+	}
+
+	private static Comment reply(String id, int minute) {
+		Comment comment = new Comment();
+		comment.setId(id);
+		comment.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, minute));
+		return comment;
+	}
+}
@@ -0,0 +1,71 @@
+package com.example.taktik.service;
+
+import com.example.taktik.dto.CommentDTO;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommentTreeTests {
+
+	private static final Timestamp NOW = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 12, 0));
+
+	private final DTOMapperService mapper = new DTOMapperService();
+
+	@Test
+	void assemblesRowsInAnyOrderIntoOrderedTree() {
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(row("c2", "c1", 2, 1));
+		rows.add(row("b2", "a", 1, 2));
+		rows.add(row("a", null, 0, 1));
+		rows.add(row("b1", "a", 1, 1));
+		rows.add(row("c1", "b1", 2, 1));
+
+		List<CommentDTO> roots = mapper.convertToCommentTree(rows, 3);
+
+		assertEquals(1, roots.size());
+		CommentDTO root = roots.get(0);
+		assertEquals("a", root.getId());
+		assertEquals("user-a", root.getUser().getUsername());
+		assertEquals(NOW.toLocalDateTime(), root.getCreatedAt());
+		assertEquals(List.of("b1", "b2"), root.getReplies().stream().map(CommentDTO::getId).toList());
+		assertEquals("c1", root.getReplies().get(0).getReplies().get(0).getId());
+		assertTrue(root.getReplies().get(1).getReplies().isEmpty());
+	}
+
+	@Test
+	void leavesRepliesUnloadedAtMaxDepthAndDropsOrphans() {
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(row("a", null, 0, 1));
+		rows.add(row("b", "a", 1, 1));
+		rows.add(row("x", "missing", 1, 2));
+
+		List<CommentDTO> roots = mapper.convertToCommentTree(rows, 1);
+
+		CommentDTO root = roots.get(0);
+		assertEquals(1, root.getReplies().size());
+		assertNull(root.getReplies().get(0).getReplies());
+	}
+
+	@Test
+	void keepsRootsInRankOrder() {
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(row("older", null, 0, 2));
+		rows.add(row("newer", null, 0, 1));
+
+		List<CommentDTO> roots = mapper.convertToCommentTree(rows, 0);
+
+		assertEquals(List.of("newer", "older"), roots.stream().map(CommentDTO::getId).toList());
+	}
+
+	private static Object[] row(String id, String parentId, int depth, long rank) {
+		return new Object[] {id, parentId, "text " + id, NOW, NOW, depth, rank,
+				"u-" + id, "user-" + id, null, null, NOW, NOW, 0L, null};
+	}
+}
@@ -0,0 +1,52 @@
+package com.example.taktik.service;
+
+import com.example.taktik.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FeedFanoutPolicyTests {
+
+	private UserRepository userRepository;
+	private FeedFanoutPolicy policy;
+
+	@BeforeEach
+	void setUp() {
+		userRepository = mock(UserRepository.class);
+		policy = new FeedFanoutPolicy();
+		ReflectionTestUtils.setField(policy, "userRepository", userRepository);
+		ReflectionTestUtils.setField(policy, "followerThreshold", 100L);
+		ReflectionTestUtils.setField(policy, "demoteRatio", 0.9);
+	}
+
+	@Test
+	void switchesAtTheThresholdAndBackOnlyBelowTheDemoteThreshold() {
+		assertTrue(switchesAt(100));
+		assertTrue(policy.isPullAuthor("a"));
+
+		// Hovering around the threshold keeps the author in pull mode
+		assertFalse(switchesAt(99));
+		assertFalse(switchesAt(100));
+		assertFalse(switchesAt(90));
+		assertTrue(policy.isPullAuthor("a"));
+
+		assertTrue(switchesAt(89));
+		assertFalse(policy.isPullAuthor("a"));
+		assertFalse(switchesAt(99));
+	}
+
+	@Test
+	void ignoresMissingAuthors() {
+		assertFalse(policy.onFollowerCountChanged("missing"));
+	}
+
+	private boolean switchesAt(long followers) {
+		when(userRepository.findFollowerCount("a")).thenReturn(followers);
+		return policy.onFollowerCountChanged("a");
+	}
+}
@@ -0,0 +1,116 @@
+package com.example.taktik.service;
+
+import com.example.taktik.model.Video;
+import com.example.taktik.model.VideoTag;
+import com.example.taktik.repository.VideoRepository;
+import com.example.taktik.repository.VideoTagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HashtagServiceTests {
+
+	private VideoTagRepository videoTagRepository;
+	private HashtagService hashtagService;
+
+	@BeforeEach
+	void setUp() {
+		videoTagRepository = mock(VideoTagRepository.class);
+		hashtagService = new HashtagService();
+		ReflectionTestUtils.setField(hashtagService, "videoTagRepository", videoTagRepository);
+		ReflectionTestUtils.setField(hashtagService, "videoRepository", mock(VideoRepository.class));
+	}
+
+	@Test
+	void ranksTagsByNewVideosInTheWindow() {
+		hashtagService.onVideoCreated(video("v1", "#dance #music"));
+		hashtagService.onVideoCreated(video("v2", "#dance"));
+		hashtagService.onVideoCreated(video("v3", "#Dance #cooking"));
+
+		List<HashtagService.TagCount> top = hashtagService.getTrending("1h", 2);
+		assertEquals(List.of("dance", "cooking"), top.stream().map(HashtagService.TagCount::getTag).toList());
+		assertEquals(3, top.get(0).getCount());
+		assertThrows(IllegalArgumentException.class, () -> hashtagService.getTrending("7d", 2));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void updateStoresOnlyTheDifference() {
+		Video video = video("v1", "now #music and #travel");
+		when(videoTagRepository.findByVideoId("v1")).thenReturn(List.of(
+				new VideoTag("v1", "music", video.getCreatedAt()), new VideoTag("v1", "dance", video.getCreatedAt())));
+
+		hashtagService.onVideoUpdated(video);
+
+		ArgumentCaptor<List<VideoTag>> deleted = ArgumentCaptor.forClass(List.class);
+		ArgumentCaptor<List<VideoTag>> saved = ArgumentCaptor.forClass(List.class);
+		verify(videoTagRepository).deleteAll(deleted.capture());
+		verify(videoTagRepository).saveAll(saved.capture());
+		assertEquals(List.of("dance"), deleted.getValue().stream().map(VideoTag::getTag).toList());
+		assertEquals(List.of("travel"), saved.getValue().stream().map(VideoTag::getTag).toList());
+	}
+
+	@Test
+	void deletingAVideoTakesBackItsTagUses() {
+		Video video = video("v1", "#dance");
+		hashtagService.onVideoCreated(video);
+		when(videoTagRepository.findByVideoId("v1")).thenReturn(List.of(new VideoTag("v1", "dance", video.getCreatedAt())));
+
+		hashtagService.onVideoDeleted("v1");
+
+		verify(videoTagRepository).deleteByVideoId("v1");
+		assertTrue(hashtagService.getTrending("24h", 10).isEmpty());
+	}
+
+	@Test
+	void countsTagUsesOnlyOnceTheirTransactionCommits() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			hashtagService.onVideoCreated(video("v1", "#dance"));
+			assertTrue(hashtagService.getTrending("1h", 10).isEmpty());
+
+			TransactionSynchronizationUtils.triggerAfterCommit();
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertEquals(1, hashtagService.getTrending("1h", 10).size());
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			hashtagService.onVideoCreated(video("v2", "#dance"));
+			// Rolled back: the synchronizations are dropped without afterCommit
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertEquals(1, hashtagService.getTrending("1h", 10).get(0).getCount());
+	}
+
+	@Test
+	void createWithoutTagsWritesNothing() {
+		hashtagService.onVideoCreated(video("v1", "no tags here"));
+		verify(videoTagRepository, never()).saveAll(anyList());
+	}
+
+	private static Video video(String id, String description) {
+		Video video = new Video();
+		video.setId(id);
+		video.setDescription(description);
+		video.setCreatedAt(LocalDateTime.now());
+		return video;
+	}
+}
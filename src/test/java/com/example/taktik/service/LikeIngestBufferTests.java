@@ -0,0 +1,215 @@
+package com.example.taktik.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LikeIngestBufferTests {
+
+	private JdbcTemplate jdbcTemplate;
+	private LikedSetCache likedSetCache;
+	private TrendingService trendingService;
+	private LikeIngestBuffer buffer;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		likedSetCache = mock(LikedSetCache.class);
+		trendingService = mock(TrendingService.class);
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> allChanged(inv.getArgument(1)));
+		buffer = new LikeIngestBuffer();
+		ReflectionTestUtils.setField(buffer, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(buffer, "likedSetCache", likedSetCache);
+		ReflectionTestUtils.setField(buffer, "trendingService", trendingService);
+		ReflectionTestUtils.setField(buffer, "transactionTemplate", new TransactionTemplate(mock(PlatformTransactionManager.class)));
+	}
+
+	@Test
+	void acknowledgesAtOnceWithReadYourWrites() {
+		assertTrue(buffer.submit("u1", "v1", true));
+		assertFalse(buffer.submit("u1", "v1", true)); // already liked
+
+		assertTrue(buffer.isLiked("u1", "v1"));
+		assertEquals(1, buffer.getPendingLikeDelta("v1"));
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+	}
+
+	@Test
+	void collapsesLikeThenUnlikeIntoNothing() {
+		buffer.submit("u1", "v1", true);
+		buffer.submit("u1", "v1", false);
+		buffer.submit("u2", "v1", true);
+
+		buffer.flush();
+
+		assertEquals(1, buffer.getCollapsed());
+		verify(jdbcTemplate, never()).batchUpdate(startsWith("DELETE"), anyList());
+		assertEquals(1, buffer.getInserted());
+		verify(likedSetCache).onLiked("u2", "v1");
+		assertEquals(0, buffer.getPendingLikeDelta("v1"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void flushesOneBatchPerStatementWithCounterDeltas() {
+		when(likedSetCache.hasLiked("u3", "v2")).thenReturn(true);
+		buffer.submit("u1", "v1", true);
+		buffer.submit("u2", "v1", true);
+		buffer.submit("u3", "v2", false);
+
+		buffer.flush();
+
+		ArgumentCaptor<List<Object[]>> videoCounts = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate).batchUpdate(startsWith("UPDATE video"), videoCounts.capture());
+		assertArrayEquals(new Object[] {2L, "v1"}, videoCounts.getValue().get(0));
+		assertArrayEquals(new Object[] {-1L, "v2"}, videoCounts.getValue().get(1));
+		assertEquals(2, buffer.getInserted());
+		assertEquals(1, buffer.getDeleted());
+	}
+
+	@Test
+	void skippedInsertsAreNotCachedOrTrended() {
+		// The conditional insert for u2 finds its user or video gone and writes nothing
+		when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenReturn(new int[] {1, 0});
+		buffer.submit("u1", "v1", true);
+		buffer.submit("u2", "v1", true);
+
+		buffer.flush();
+
+		verify(likedSetCache).onLiked("u1", "v1");
+		verify(likedSetCache, never()).onLiked("u2", "v1");
+		verify(trendingService, times(1)).onLike("v1");
+		assertEquals(1, buffer.getInserted());
+	}
+
+	@Test
+	void committedDeltasStopCountingBeforeTheCachesCatchUp() {
+		List<Long> deltasSeen = new ArrayList<>();
+		doAnswer(inv -> {
+			// The counter column already holds the like; the overlay must not add it again
+			deltasSeen.add(buffer.getPendingLikeDelta("v1"));
+			assertTrue(buffer.isLiked("u1", "v1"));
+			return null;
+		}).when(likedSetCache).onLiked("u1", "v1");
+		buffer.submit("u1", "v1", true);
+
+		buffer.flush();
+
+		assertEquals(List.of(0L), deltasSeen);
+	}
+
+	@Test
+	void keepsIntentsWhenFlushFails() {
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("db down"));
+		buffer.submit("u1", "v1", true);
+
+		buffer.flush();
+
+		assertEquals(1, buffer.getFailedFlushes());
+		assertTrue(buffer.isLiked("u1", "v1"));
+		assertEquals(1, buffer.getPendingLikeDelta("v1"));
+	}
+
+	// Synthetic storm: many threads toggling likes on one video while flushes run; every user's final
+	// state must be written exactly once, whatever batch their taps landed in
+	@Test
+	void stormOfTapsOnOneVideo() throws Exception {
+		Map<String, Boolean> stored = new ConcurrentHashMap<>();
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+			String sql = inv.getArgument(0);
+			List<Object[]> rows = inv.getArgument(1);
+			for (Object[] row : rows) {
+				if (sql.startsWith("INSERT")) {
+					stored.put((String) row[1], true);
+				} else if (sql.startsWith("DELETE")) {
+					stored.remove((String) row[0]);
+				}
+			}
+			return allChanged(rows);
+		});
+		when(likedSetCache.hasLiked(anyString(), eq("viral"))).thenAnswer(inv -> stored.containsKey(inv.<String>getArgument(0)));
+
+		int threads = 8;
+		int users = 2_000;
+		int tapsPerThread = 25_000;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread flusher = new Thread(() -> {
+			while (running.get()) {
+				buffer.flush();
+			}
+		});
+		flusher.start();
+		List<Future<?>> tasks = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			int offset = t;
+			tasks.add(pool.submit(() -> {
+				start.await();
+				for (int i = 0; i < tapsPerThread; i++) {
+					// Each user is tapped by one thread only, so the expected final state is known
+					buffer.toggle("user-" + ((i * threads + offset) % users), "viral");
+				}
+				return null;
+			}));
+		}
+		long started = System.nanoTime();
+		start.countDown();
+		for (Future<?> task : tasks) {
+			task.get();
+		}
+		double seconds = (System.nanoTime() - started) / 1e9;
+		running.set(false);
+		flusher.join();
+		buffer.flush();
+		pool.shutdown();
+		pool.awaitTermination(10, TimeUnit.SECONDS);
+
+		long taps = (long) threads * tapsPerThread;
+		System.out.printf("Like storm: %d taps in %.2fs (%.0f taps/s), %d flushes, %d rows written%n",
+				taps, seconds, taps / seconds, buffer.getFlushCount(), buffer.getInserted() + buffer.getDeleted());
+		for (int u = 0; u < users; u++) {
+			// Every user received tapsPerThread * threads / users toggles: even, so back to unliked
+			assertFalse(stored.containsKey("user-" + u), "user-" + u);
+		}
+		assertEquals(0, buffer.getPendingLikeDelta("viral"));
+		assertTrue(buffer.getInserted() + buffer.getDeleted() < taps / 2);
+	}
+
+	private static int[] allChanged(List<Object[]> rows) {
+		int[] counts = new int[rows.size()];
+		Arrays.fill(counts, 1);
+		return counts;
+	}
+}
@@ -0,0 +1,174 @@
+package com.example.taktik.service;
+
+import com.example.taktik.repository.UserRepository;
+import com.example.taktik.repository.VideoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// Likes go through LikeService.submit* into the ingest buffer and reach the table in its flush. The unique
+// constraint and per-statement atomicity are Postgres's to guarantee and are assumed here: the likes map
+// stands in for the table, with each batched statement applied atomically. What these tests check is the
+// service's side: counters move only by the rows a flush actually changed, including when another writer's
+// statement lands between a tap and the flush that writes it.
+class LikeServiceTests {
+
+	private final Map<String, String> likes = new ConcurrentHashMap<>(); // "user|video" -> like id
+	private final Map<String, AtomicLong> videoLikeCounts = new ConcurrentHashMap<>();
+	private final Map<String, AtomicLong> userLikeCounts = new ConcurrentHashMap<>();
+	private JdbcTemplate jdbcTemplate;
+	private LikeIngestBuffer buffer;
+	private LikeService likeService;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class, withSettings().stubOnly());
+		VideoRepository videoRepository = mock(VideoRepository.class, withSettings().stubOnly());
+		UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+		LikedSetCache likedSetCache = mock(LikedSetCache.class, withSettings().stubOnly());
+
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> apply(inv.getArgument(0), inv.getArgument(1)));
+		when(likedSetCache.hasLiked(anyString(), anyString()))
+				.thenAnswer(inv -> likes.containsKey(inv.getArgument(0) + "|" + inv.getArgument(1)));
+		when(videoRepository.existsById(anyString())).thenAnswer(inv -> !"missing".equals(inv.getArgument(0)));
+		when(userRepository.existsById(anyString())).thenReturn(true);
+
+		buffer = new LikeIngestBuffer();
+		ReflectionTestUtils.setField(buffer, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(buffer, "transactionTemplate", new TransactionTemplate(mock(PlatformTransactionManager.class)));
+		ReflectionTestUtils.setField(buffer, "likedSetCache", likedSetCache);
+		ReflectionTestUtils.setField(buffer, "trendingService", mock(TrendingService.class, withSettings().stubOnly()));
+
+		likeService = new LikeService();
+		ReflectionTestUtils.setField(likeService, "videoRepository", videoRepository);
+		ReflectionTestUtils.setField(likeService, "userRepository", userRepository);
+		ReflectionTestUtils.setField(likeService, "likedSetCache", likedSetCache);
+		ReflectionTestUtils.setField(likeService, "likeIngestBuffer", buffer);
+	}
+
+	@Test
+	void likeWhoseInsertLosesToAnotherWriterCountsNothing() {
+		assertTrue(likeService.submitToggle("u1", "v1"));
+		// Another writer inserts the same like between the tap and the flush
+		likes.put("u1|v1", "other");
+
+		buffer.flush();
+
+		assertEquals(1, likes.size());
+		assertEquals(0, count(videoLikeCounts, "v1"));
+		assertEquals(0, count(userLikeCounts, "u1"));
+		assertEquals(0, buffer.getPendingLikeDelta("v1"));
+	}
+
+	@Test
+	void unlikeWhoseDeleteLosesToAnotherWriterCountsNothing() {
+		likeService.submitLike("u1", "v1");
+		buffer.flush();
+		assertFalse(likeService.submitToggle("u1", "v1"));
+		// Another writer removes the like between the tap and the flush
+		likes.remove("u1|v1");
+
+		buffer.flush();
+
+		assertTrue(likes.isEmpty());
+		assertEquals(1, count(videoLikeCounts, "v1"));
+		assertEquals(1, count(userLikeCounts, "u1"));
+	}
+
+	@Test
+	void missingUserOrVideoIsNotFoundAndBuffersNothing() {
+		RuntimeException e = assertThrows(RuntimeException.class, () -> likeService.submitToggle("u1", "missing"));
+
+		assertEquals("User or video not found", e.getMessage());
+		assertEquals(0, buffer.getPendingVideoCount());
+		assertEquals(0, buffer.getPendingLikeDelta("missing"));
+	}
+
+	@Test
+	void parallelTogglesAndFlushesKeepCountersEqualToRows() throws Exception {
+		int users = 5;
+		int togglesPerUser = 100;
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread flusher = new Thread(() -> {
+			while (running.get()) {
+				buffer.flush();
+			}
+		});
+		flusher.start();
+		List<Future<?>> tasks = new ArrayList<>();
+		for (int u = 0; u < users; u++) {
+			String userId = "u" + u;
+			for (int t = 0; t < togglesPerUser; t++) {
+				tasks.add(pool.submit(() -> {
+					start.await();
+					return likeService.submitToggle(userId, "v1");
+				}));
+			}
+		}
+		start.countDown();
+		for (Future<?> task : tasks) {
+			task.get();
+		}
+		running.set(false);
+		flusher.join();
+		buffer.flush();
+		pool.shutdown();
+
+		// Concurrent taps by one user may coalesce, so the final state is not fixed; the counters must match it
+		assertEquals(likes.size(), count(videoLikeCounts, "v1"));
+		for (int u = 0; u < users; u++) {
+			long expected = likes.containsKey("u" + u + "|v1") ? 1 : 0;
+			assertEquals(expected, count(userLikeCounts, "u" + u));
+		}
+		assertEquals(0, buffer.getPendingLikeDelta("v1"));
+	}
+
+	// Each batched statement applied atomically row by row, returning the rows each one changed
+	private int[] apply(String sql, List<Object[]> rows) {
+		int[] counts = new int[rows.size()];
+		for (int i = 0; i < rows.size(); i++) {
+			Object[] row = rows.get(i);
+			if (sql.startsWith("INSERT")) {
+				counts[i] = likes.putIfAbsent(row[1] + "|" + row[2], (String) row[0]) == null ? 1 : 0;
+			} else if (sql.startsWith("DELETE")) {
+				counts[i] = likes.remove(row[0] + "|" + row[1]) != null ? 1 : 0;
+			} else {
+				Map<String, AtomicLong> counters = sql.startsWith("UPDATE video") ? videoLikeCounts : userLikeCounts;
+				counters.computeIfAbsent((String) row[1], id -> new AtomicLong()).addAndGet((Long) row[0]);
+				counts[i] = 1;
+			}
+		}
+		return counts;
+	}
+
+	private static long count(Map<String, AtomicLong> counters, String id) {
+		AtomicLong counter = counters.get(id);
+		return counter != null ? counter.get() : 0;
+	}
+}
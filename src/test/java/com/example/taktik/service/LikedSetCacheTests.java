@@ -0,0 +1,110 @@
+package com.example.taktik.service;
+
+import com.example.taktik.repository.LikeRepository;
+import com.example.taktik.util.VideoOrdinals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LikedSetCacheTests {
+
+	private LikeRepository likeRepository;
+	private LikedSetCache cache;
+
+	@BeforeEach
+	void setUp() {
+		likeRepository = mock(LikeRepository.class);
+		cache = new LikedSetCache();
+		ReflectionTestUtils.setField(cache, "likeRepository", likeRepository);
+		ReflectionTestUtils.setField(cache, "videoOrdinals", new VideoOrdinals());
+		ReflectionTestUtils.setField(cache, "maxLikesPerUser", 3);
+		ReflectionTestUtils.setField(cache, "idleMinutes", 30L);
+	}
+
+	@Test
+	void answersPagesFromOneLoadAndTracksChanges() {
+		when(likeRepository.findAllLikedVideoIds(eq("u1"), any(Pageable.class))).thenReturn(List.of("v1", "v3"));
+
+		assertEquals(Set.of("v1", "v3"), cache.getLikedAmong("u1", List.of("v1", "v2", "v3")));
+		cache.onLiked("u1", "v2");
+		cache.onUnliked("u1", "v1");
+		assertEquals(Set.of("v2", "v3"), cache.getLikedAmong("u1", List.of("v1", "v2", "v3")));
+		assertTrue(cache.hasLiked("u1", "v2"));
+		assertFalse(cache.hasLiked("u1", "never-seen"));
+
+		verify(likeRepository, times(1)).findAllLikedVideoIds(eq("u1"), any(Pageable.class));
+		verify(likeRepository, never()).findLikedVideoIds(anyString(), anyCollection());
+		assertEquals(4, cache.getHits());
+		assertEquals(2, cache.getMemoryStats("u1").getTotalLikes());
+	}
+
+	@Test
+	void fallsBackToInQueryForUsersOverTheCap() {
+		when(likeRepository.findAllLikedVideoIds(eq("u1"), any(Pageable.class))).thenReturn(List.of("a", "b", "c", "d"));
+		when(likeRepository.findLikedVideoIds(eq("u1"), anyCollection())).thenReturn(List.of("b"));
+
+		assertEquals(Set.of("b"), cache.getLikedAmong("u1", List.of("a", "b")));
+		assertEquals(Set.of("b"), cache.getLikedAmong("u1", List.of("a", "b")));
+
+		verify(likeRepository, times(1)).findAllLikedVideoIds(eq("u1"), any(Pageable.class));
+		verify(likeRepository, times(2)).findLikedVideoIds(eq("u1"), anyCollection());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	void likesOfUncachedUsersAreIgnored() {
+		cache.onLiked("u1", "v1");
+
+		assertEquals(0, cache.getResidentUserCount());
+	}
+
+	@Test
+	void loadRacedByAWriteIsNotKept() {
+		when(likeRepository.findAllLikedVideoIds(eq("u1"), any(Pageable.class))).thenAnswer(inv -> {
+			cache.onLiked("u1", "v2"); // lands after the query read its rows
+			return List.of("v1");
+		}).thenReturn(List.of("v1", "v2"));
+
+		assertTrue(cache.hasLiked("u1", "v1"));
+		assertEquals(0, cache.getResidentUserCount());
+		assertTrue(cache.hasLiked("u1", "v2"));
+		assertEquals(1, cache.getResidentUserCount());
+		verify(likeRepository, times(2)).findAllLikedVideoIds(eq("u1"), any(Pageable.class));
+	}
+
+	@Test
+	void reportsBytesPerLikeForSpreadOrdinals() {
+		VideoOrdinals ordinals = (VideoOrdinals) ReflectionTestUtils.getField(cache, "videoOrdinals");
+		// Push the user's likes into different 65536-wide chunks, as globally interned ids usually are
+		for (int i = 0; i < 3 * 65536; i++) {
+			ordinals.intern("other" + i);
+		}
+		when(likeRepository.findAllLikedVideoIds(eq("u1"), any(Pageable.class))).thenReturn(List.of("v1"));
+		cache.hasLiked("u1", "v1");
+		for (int i = 3 * 65536; i < 4 * 65536; i++) {
+			ordinals.intern("other" + i);
+		}
+		cache.onLiked("u1", "v2");
+
+		LikedSetCache.MemoryStats stats = cache.getMemoryStats("u1");
+		assertEquals(1.0, stats.getLikesPerContainer());
+		assertTrue(stats.getBytesPerLike() > 20, "bytes per like " + stats.getBytesPerLike());
+	}
+}
@@ -0,0 +1,96 @@
+package com.example.taktik.service;
+
+import com.example.taktik.model.SeenFilter;
+import com.example.taktik.repository.SeenFilterRepository;
+import com.example.taktik.util.ScalableBloomFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SeenVideoServiceTests {
+
+	private SeenFilterRepository seenFilterRepository;
+	private SeenVideoService service;
+
+	@BeforeEach
+	void setUp() {
+		seenFilterRepository = mock(SeenFilterRepository.class);
+		when(seenFilterRepository.findById(anyString())).thenReturn(Optional.empty());
+		service = new SeenVideoService();
+		ReflectionTestUtils.setField(service, "seenFilterRepository", seenFilterRepository);
+		ReflectionTestUtils.setField(service, "initialCapacity", 1000);
+		ReflectionTestUtils.setField(service, "falsePositiveRate", 0.01);
+		ReflectionTestUtils.setField(service, "maxBytesPerUser", 65536);
+		ReflectionTestUtils.setField(service, "idleMinutes", 30L);
+		ReflectionTestUtils.setField(service, "maxPendingPerUser", 2);
+	}
+
+	@Test
+	void marksForAColdUserAreQueuedAndReplayedAfterTheLoad() {
+		ScalableBloomFilter saved = ScalableBloomFilter.fromBytes(null, 1000, 0.01, 65536);
+		saved.add("v0");
+		when(seenFilterRepository.findById("u1")).thenReturn(Optional.of(new SeenFilter("u1", saved.toBytes())));
+
+		service.markSeen("u1", "v1");
+		service.markSeen("u1", "v2");
+
+		verify(seenFilterRepository, never()).findById(anyString());
+		assertEquals(0, service.getResidentUserCount());
+		assertEquals(1, service.getPendingUserCount());
+
+		service.loadPending();
+
+		assertEquals(0, service.getPendingUserCount());
+		assertTrue(service.hasSeen("u1", "v0"));
+		assertTrue(service.hasSeen("u1", "v1"));
+		assertTrue(service.hasSeen("u1", "v2"));
+		verify(seenFilterRepository, times(1)).findById("u1");
+	}
+
+	@Test
+	void readsApplyQueuedMarksAndResidentMarksSkipTheQueue() {
+		service.markSeen("u1", "v1");
+
+		assertTrue(service.hasSeen("u1", "v1"));
+		service.markSeen("u1", "v2");
+
+		assertEquals(0, service.getPendingUserCount());
+		assertTrue(service.hasSeen("u1", "v2"));
+		verify(seenFilterRepository, times(1)).findById("u1");
+	}
+
+	@Test
+	void queuedMarksAreCappedPerUser() {
+		service.markSeen("u1", "v1");
+		service.markSeen("u1", "v2");
+		service.markSeen("u1", "v3");
+
+		service.loadPending();
+
+		assertEquals(1, service.getDroppedMarks());
+		assertFalse(service.hasSeen("u1", "v3"));
+	}
+
+	@Test
+	void failedLoadsKeepMarksQueued() {
+		when(seenFilterRepository.findById("u1")).thenThrow(new RuntimeException("down"));
+		service.markSeen("u1", "v1");
+
+		service.loadPending();
+
+		assertEquals(1, service.getPendingUserCount());
+		assertEquals(0, service.getResidentUserCount());
+	}
+}
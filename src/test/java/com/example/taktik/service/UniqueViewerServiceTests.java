@@ -0,0 +1,73 @@
+package com.example.taktik.service;
+
+import com.example.taktik.util.HyperLogLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UniqueViewerServiceTests {
+
+	private JdbcTemplate jdbcTemplate;
+	private UniqueViewerService service;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		service = new UniqueViewerService();
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(service, "transactionTemplate", new TransactionTemplate(mock(PlatformTransactionManager.class)));
+		ReflectionTestUtils.setField(service, "batchSize", 500);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void flushDropsUnknownVideosAndUpsertsTheRestInOneBatch() {
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class))).thenReturn(List.of("v1"));
+		service.recordView("v1", "alice");
+		service.recordView("v1", "bob");
+		service.recordView("nope", "alice");
+
+		service.flush();
+
+		ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+		// The daily row and the all-time row of v1, nothing for the unknown id
+		assertEquals(2, rows.getValue().size());
+		for (Object[] row : rows.getValue()) {
+			assertEquals("v1", row[1]);
+			assertEquals(2, HyperLogLog.fromBytes((byte[]) row[3], UniqueViewerService.PRECISION).estimate());
+		}
+		assertEquals(1, service.getDroppedSketches());
+		assertEquals(0, service.getPendingSketchCount());
+	}
+
+	@Test
+	void failedFlushKeepsSketchesPending() {
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class))).thenReturn(List.of("v1"));
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("down"));
+		service.recordView("v1", "alice");
+
+		service.flush();
+
+		assertEquals(1, service.getPendingSketchCount());
+		assertEquals(1, service.getFailedFlushes());
+		verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+	}
+}
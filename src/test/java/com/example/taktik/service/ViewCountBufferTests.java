@@ -0,0 +1,91 @@
+package com.example.taktik.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ViewCountBufferTests {
+
+	private JdbcTemplate jdbcTemplate;
+	private ViewCountBuffer buffer;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		buffer = new ViewCountBuffer();
+		ReflectionTestUtils.setField(buffer, "jdbcTemplate", jdbcTemplate);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void flushesOneBatchedDeltaPerVideo() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		for (int t = 0; t < 4; t++) {
+			pool.submit(() -> {
+				for (int i = 0; i < 1_000; i++) {
+					buffer.increment(i % 4 == 0 ? "b" : "a");
+				}
+			});
+		}
+		pool.shutdown();
+		pool.awaitTermination(10, TimeUnit.SECONDS);
+
+		assertEquals(3_000, buffer.getPending("a"));
+		buffer.flush();
+
+		ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+		assertEquals(2, batch.getValue().size());
+		assertArrayEquals(new Object[] {3_000L, "a"}, batch.getValue().get(0));
+		assertArrayEquals(new Object[] {1_000L, "b"}, batch.getValue().get(1));
+		assertEquals(0, buffer.getPendingViewCount());
+		assertEquals(4_000, buffer.getFlushedViews());
+	}
+
+	@Test
+	void retiresIdleVideosAndSkipsEmptyFlushes() {
+		buffer.increment("a");
+		buffer.flush();
+		buffer.flush(); // "a" idle: retired
+		buffer.flush();
+
+		verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+		assertEquals(0, buffer.getPendingVideoCount());
+	}
+
+	@Test
+	void keepsDeltasWhenFlushFails() {
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("db down"));
+		buffer.increment("a");
+		buffer.increment("a");
+
+		buffer.flush();
+
+		assertEquals(2, buffer.getPending("a"));
+		assertEquals(1, buffer.getFailedFlushes());
+	}
+
+	@Test
+	void noDatabaseCallWithoutViews() {
+		buffer.flush();
+
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+	}
+}
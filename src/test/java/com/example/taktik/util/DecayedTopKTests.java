@@ -0,0 +1,60 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DecayedTopKTests {
+
+	private static final long HOUR = 3_600_000_000_000L;
+
+	@Test
+	void ranksByWeightedEvents() {
+		DecayedTopK topK = new DecayedTopK(10, 6, 0);
+		topK.add("a", 1, HOUR);
+		topK.add("b", 1, HOUR);
+		topK.add("b", 1, HOUR);
+		topK.add("c", 5, HOUR);
+
+		assertEquals(List.of("c", "b", "a"), topK.top(3));
+		assertEquals(List.of("c"), topK.top(1));
+	}
+
+	@Test
+	void oldBurstDecaysBelowFreshActivity() {
+		DecayedTopK topK = new DecayedTopK(10, 6, 0);
+		for (int i = 0; i < 100; i++) {
+			topK.add("old", 1, 0);
+		}
+		// 48 hours = 8 half-lives: 100 old views are now worth ~0.4
+		topK.add("new", 1, 48 * HOUR);
+
+		assertEquals(List.of("new", "old"), topK.top(2));
+		assertEquals(100.0 / 256, topK.scoreAt("old", 48 * HOUR), 1e-6);
+	}
+
+	@Test
+	void evictsLowestWhenFull() {
+		DecayedTopK topK = new DecayedTopK(2, 6, 0);
+		topK.add("a", 3, 0);
+		topK.add("b", 2, 0);
+		topK.add("c", 1, 0); // not better than the lowest, ignored
+		assertEquals(List.of("a", "b"), topK.top(5));
+
+		topK.add("d", 1, 12 * HOUR); // two half-lives later, worth 4 at the start
+		assertEquals(List.of("d", "a"), topK.top(5));
+		assertEquals(2, topK.size());
+	}
+
+	@Test
+	void removesEntries() {
+		DecayedTopK topK = new DecayedTopK(10, 6, 0);
+		topK.add("a", 1, 0);
+		topK.add("b", 2, 0);
+		topK.remove("b");
+
+		assertEquals(List.of("a"), topK.top(10));
+	}
+}
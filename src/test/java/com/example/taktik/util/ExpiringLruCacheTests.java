@@ -0,0 +1,104 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExpiringLruCacheTests {
+
+	private static final Function<List<String>, List<String>> IDS = ids -> ids;
+
+	@Test
+	void servesHitsUntilTheTtlRunsOut() {
+		AtomicLong clock = new AtomicLong();
+		ExpiringLruCache<String, List<String>> cache = new ExpiringLruCache<>(10, 100, clock::get);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.getOrLoad("q", () -> List.of("v" + loads.incrementAndGet()), IDS);
+		clock.set(99);
+		assertEquals(List.of("v1"), cache.getOrLoad("q", () -> List.of("v" + loads.incrementAndGet()), IDS));
+		clock.set(100);
+		assertEquals(List.of("v2"), cache.getOrLoad("q", () -> List.of("v" + loads.incrementAndGet()), IDS));
+
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertEquals(1, cache.getExpirations());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedPastTheSizeLimit() {
+		ExpiringLruCache<String, List<String>> cache = new ExpiringLruCache<>(2, 1_000, () -> 0);
+		cache.getOrLoad("a", () -> List.of("1"), IDS);
+		cache.getOrLoad("b", () -> List.of("2"), IDS);
+		cache.getOrLoad("a", () -> List.of("stale"), IDS);
+		cache.getOrLoad("c", () -> List.of("3"), IDS);
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertEquals(List.of("1"), cache.getOrLoad("a", () -> List.of("reloaded"), IDS));
+		assertEquals(List.of("reloaded"), cache.getOrLoad("b", () -> List.of("reloaded"), IDS));
+	}
+
+	@Test
+	void invalidatesOnlyEntriesCarryingTheTag() {
+		ExpiringLruCache<String, List<String>> cache = new ExpiringLruCache<>(10, 1_000, () -> 0);
+		cache.getOrLoad("dance", () -> List.of("v1", "v2"), IDS);
+		cache.getOrLoad("music", () -> List.of("v3"), IDS);
+
+		assertEquals(1, cache.invalidate("v2"));
+		assertEquals(0, cache.invalidate("v2"));
+		assertEquals(List.of("v3"), cache.getOrLoad("music", () -> List.of("reloaded"), IDS));
+		assertEquals(List.of("v1"), cache.getOrLoad("dance", () -> List.of("v1"), IDS));
+	}
+
+	@Test
+	void doesNotStoreAValueLoadedAcrossAnInvalidation() {
+		ExpiringLruCache<String, List<String>> cache = new ExpiringLruCache<>(10, 1_000, () -> 0);
+		cache.getOrLoad("q", () -> {
+			cache.invalidate("v1"); // a write lands while the search is running
+			return List.of("v1");
+		}, IDS);
+
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		ExpiringLruCache<String, List<String>> cache = new ExpiringLruCache<>(10, TimeUnit.MINUTES.toNanos(1));
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			Future<?>[] results = new Future<?>[4];
+			for (int i = 0; i < results.length; i++) {
+				results[i] = pool.submit(() -> cache.getOrLoad("q", () -> {
+					loads.incrementAndGet();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return List.of("v1");
+				}, IDS));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			for (Future<?> result : results) {
+				assertEquals(List.of("v1"), result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(1, loads.get());
+	}
+}
@@ -0,0 +1,80 @@
+package com.example.taktik.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Feed page latency as a function of followed-author count: one k-way merge over in-memory author lists.
+// Run with: java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main FeedMergerBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedMergerBenchmark {
+
+	private static final int VIDEOS_PER_AUTHOR = 100;
+	private static final int PAGE_SIZE = 21;
+
+	@Param({"10", "100", "1000", "5000"})
+	public int followedAuthors;
+
+	private VideoOrdinals videoOrdinals;
+	private RecentVideoList[] sources;
+	private KeysetCursor secondPage;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		videoOrdinals = new VideoOrdinals();
+		sources = new RecentVideoList[followedAuthors];
+		long now = KeysetCursor.toEpochNanos(LocalDateTime.now());
+
+		for (int a = 0; a < followedAuthors; a++) {
+			int[] ordinals = new int[VIDEOS_PER_AUTHOR];
+			long[] createdAt = new long[VIDEOS_PER_AUTHOR];
+			long t = now - random.nextInt(3_600) * 1_000_000_000L;
+			for (int i = 0; i < VIDEOS_PER_AUTHOR; i++) {
+				ordinals[i] = videoOrdinals.intern("video-" + a + "-" + i);
+				createdAt[i] = t;
+				t -= (1 + random.nextInt(86_400)) * 1_000_000_000L;
+			}
+			sources[a] = new RecentVideoList(ordinals, createdAt, true);
+		}
+
+		FeedMerger first = new FeedMerger(PAGE_SIZE).merge(sources, sources.length, null, videoOrdinals);
+		int last = first.getCount() - 1;
+		secondPage = new KeysetCursor(KeysetCursor.fromEpochNanos(first.createdAtAt(last)),
+				videoOrdinals.idOf(first.ordinalAt(last)));
+	}
+
+	@Benchmark
+	public FeedMerger firstPage() {
+		return new FeedMerger(PAGE_SIZE).merge(sources, sources.length, null, videoOrdinals);
+	}
+
+	@Benchmark
+	public FeedMerger nextPage() {
+		return new FeedMerger(PAGE_SIZE).merge(sources, sources.length, secondPage, videoOrdinals);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(FeedMergerBenchmark.class.getSimpleName()).build()).run();
+	}
+}
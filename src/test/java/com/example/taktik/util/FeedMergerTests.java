@@ -0,0 +1,87 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeedMergerTests {
+
+	private final VideoOrdinals videoOrdinals = new VideoOrdinals();
+
+	@Test
+	void mergesNewestFirstAcrossAuthors() {
+		RecentVideoList[] sources = {
+				list(false, "a3", 300, "a1", 100),
+				list(false, "b4", 400, "b2", 200),
+		};
+
+		FeedMerger page = new FeedMerger(3).merge(sources, 2, null, videoOrdinals);
+
+		assertEquals(List.of("b4", "a3", "b2"), ids(page));
+		assertEquals(1, page.sourceAt(0));
+		assertFalse(page.needsDatabase());
+	}
+
+	@Test
+	void resumesAfterCursor() {
+		RecentVideoList[] sources = {
+				list(false, "a3", 300, "a1", 100),
+				list(false, "b4", 400, "b2", 200),
+		};
+		KeysetCursor after = new KeysetCursor(KeysetCursor.fromEpochNanos(300), "a3");
+
+		FeedMerger page = new FeedMerger(10).merge(sources, 2, after, videoOrdinals);
+
+		assertEquals(List.of("b2", "a1"), ids(page));
+	}
+
+	@Test
+	void stopsWhenTruncatedSourceRunsOut() {
+		RecentVideoList[] sources = {
+				list(true, "a3", 300),
+				list(false, "b4", 400, "b2", 200),
+		};
+
+		FeedMerger page = new FeedMerger(10).merge(sources, 2, null, videoOrdinals);
+
+		assertEquals(List.of("b4", "a3"), ids(page));
+		assertTrue(page.needsDatabase());
+	}
+
+	@Test
+	void recentListKeepsCapacity() {
+		RecentVideoList list = RecentVideoList.EMPTY;
+		list = list.with(videoOrdinals.intern("v1"), 100, 2, videoOrdinals);
+		list = list.with(videoOrdinals.intern("v3"), 300, 2, videoOrdinals);
+		list = list.with(videoOrdinals.intern("v2"), 200, 2, videoOrdinals);
+
+		assertEquals(2, list.size());
+		assertEquals("v3", videoOrdinals.idOf(list.ordinalAt(0)));
+		assertEquals("v2", videoOrdinals.idOf(list.ordinalAt(1)));
+		assertTrue(list.isTruncated());
+	}
+
+	private RecentVideoList list(boolean truncated, Object... idsAndTimes) {
+		int n = idsAndTimes.length / 2;
+		int[] ordinals = new int[n];
+		long[] createdAt = new long[n];
+		for (int i = 0; i < n; i++) {
+			ordinals[i] = videoOrdinals.intern((String) idsAndTimes[2 * i]);
+			createdAt[i] = (Integer) idsAndTimes[2 * i + 1];
+		}
+		return new RecentVideoList(ordinals, createdAt, truncated);
+	}
+
+	private List<String> ids(FeedMerger page) {
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < page.getCount(); i++) {
+			ids.add(videoOrdinals.idOf(page.ordinalAt(i)));
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,77 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeedRankerTests {
+
+	private static final long HOUR = 3_600_000_000_000L;
+	private static final long NOW = 1_000 * HOUR;
+
+	@Test
+	void selectsTopKByScore() {
+		FeedRanker ranker = new FeedRanker(List.of(new ViewCountScorer(1.0)));
+		RankingFeatures features = new RankingFeatures(4);
+		long[] views = {5, 500, 50, 5000, 0};
+		features.reset(views.length);
+		for (int i = 0; i < views.length; i++) {
+			features.set(i, NOW, views[i], 0, 0, 0f);
+		}
+
+		int ranked = ranker.rank(features, NOW, 3);
+
+		assertEquals(3, ranked);
+		assertArrayEquals(new int[] {3, 1, 2}, Arrays.copyOf(features.getOrder(), ranked));
+	}
+
+	@Test
+	void tiesKeepCandidateOrder() {
+		FeedRanker ranker = new FeedRanker(List.of(new FollowAffinityScorer(1.0)));
+		RankingFeatures features = new RankingFeatures(4);
+		features.reset(4);
+		for (int i = 0; i < 4; i++) {
+			features.set(i, NOW, 0, 0, 0, 1f);
+		}
+
+		int ranked = ranker.rank(features, NOW, 4);
+
+		assertArrayEquals(new int[] {0, 1, 2, 3}, Arrays.copyOf(features.getOrder(), ranked));
+	}
+
+	@Test
+	void combinesRecencyVelocityAndAffinity() {
+		FeedRanker ranker = new FeedRanker(List.of(
+				new RecencyDecayScorer(1.0, 12),
+				new EngagementVelocityScorer(1.0, 2.0, 24),
+				new FollowAffinityScorer(1.0)));
+		RankingFeatures features = new RankingFeatures(4);
+		features.reset(3);
+		features.set(0, NOW - 48 * HOUR, 0, 0, 0, 0f);   // old, quiet stranger
+		features.set(1, NOW - 2 * HOUR, 0, 40, 10, 0f);  // fresh and busy
+		features.set(2, NOW - 2 * HOUR, 0, 0, 0, 1f);    // fresh, followed author
+
+		ranker.rank(features, NOW, 3);
+
+		assertEquals(1, features.getOrder()[0]);
+		assertEquals(0, features.getOrder()[2]);
+		assertTrue(features.getScores()[2] > features.getScores()[0]);
+	}
+
+	@Test
+	void resetGrowsAndClearsScores() {
+		RankingFeatures features = new RankingFeatures(16);
+		features.reset(2);
+		features.getScores()[0] = 42;
+		features.reset(100);
+
+		assertEquals(100, features.getCount());
+		assertEquals(0.0, features.getScores()[0]);
+		assertTrue(features.getOrder().length >= 100);
+	}
+}
@@ -0,0 +1,44 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashtagsTests {
+
+	@Test
+	void extractsDistinctNormalizedTagsInOrder() {
+		Set<String> tags = Hashtags.extract("Sunset run #Fitness #fitness,#running_club! \uFF03Caf\u00e9 #2024goals");
+
+		assertEquals(List.of("fitness", "running_club", "caf\u00e9", "2024goals"), List.copyOf(tags));
+	}
+
+	@Test
+	void ignoresHashesThatAreNotTags() {
+		assertTrue(Hashtags.extract("issue #1, C# and a#b, ## or # alone").isEmpty());
+		assertTrue(Hashtags.extract(null).isEmpty());
+		assertTrue(Hashtags.extract("#" + "a".repeat(Hashtags.MAX_TAG_LENGTH + 1)).isEmpty());
+	}
+
+	@Test
+	void capsTagsPerText() {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			text.append("#tag").append(i).append(' ');
+		}
+		assertEquals(Hashtags.MAX_TAGS, Hashtags.extract(text.toString()).size());
+	}
+
+	@Test
+	void normalizesStandaloneTags() {
+		assertEquals("dance", Hashtags.normalize("#Dance"));
+		assertEquals("dance", Hashtags.normalize("DANCE"));
+		assertNull(Hashtags.normalize("two words"));
+		assertNull(Hashtags.normalize("#"));
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.taktik.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// View ingest throughput with every available core offering skewed (Zipf-like) traffic.
+// Override the thread count with -t, e.g. -t 1 for the single-writer baseline.
+// Run with: java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main HeavyHittersBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class HeavyHittersBenchmark {
+
+	private static final int DISTINCT_VIDEOS = 100_000;
+	private static final int STREAM_LENGTH = 1 << 16;
+
+	@State(Scope.Benchmark)
+	public static class Shared {
+		HeavyHitters hitters;
+		String[] ids;
+
+		@Setup
+		public void setUp() {
+			hitters = new HeavyHitters(1000, 65536, 4, Runtime.getRuntime().availableProcessors());
+			ids = new String[DISTINCT_VIDEOS];
+			for (int i = 0; i < DISTINCT_VIDEOS; i++) {
+				ids[i] = "video-" + i;
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Stream {
+		int[] indices;
+		int position;
+
+		@Setup
+		public void setUp() {
+			Random random = new Random(Thread.currentThread().threadId());
+			indices = new int[STREAM_LENGTH];
+			for (int i = 0; i < STREAM_LENGTH; i++) {
+				// Inverse power law: low ids are much more frequent
+				indices[i] = (int) (DISTINCT_VIDEOS * Math.pow(random.nextDouble(), 3));
+			}
+		}
+	}
+
+	@Benchmark
+	public void offer(Shared shared, Stream stream) {
+		shared.hitters.offer(shared.ids[stream.indices[stream.position++ & (STREAM_LENGTH - 1)]]);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(HeavyHittersBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHittersTests {
+
+	@Test
+	void spaceSavingKeepsFrequentKeys() {
+		SpaceSaving summary = new SpaceSaving(10);
+		for (int round = 0; round < 100; round++) {
+			summary.offer("hot", 1);
+			summary.offer("cold-" + round, 1);
+		}
+
+		Map<String, Long> counts = new HashMap<>();
+		summary.forEach((key, count, error) -> counts.put(key, count));
+		assertEquals(10, summary.size());
+		assertEquals(100, counts.get("hot"));
+		assertEquals(200, summary.getTotal());
+	}
+
+	@Test
+	void sketchNeverUndercounts() {
+		CountMinSketch sketch = new CountMinSketch(256, 4);
+		Map<String, Integer> exact = new HashMap<>();
+		Random random = new Random(7);
+		for (int i = 0; i < 10_000; i++) {
+			String key = "k" + random.nextInt(2_000);
+			sketch.add(key, 1);
+			exact.merge(key, 1, Integer::sum);
+		}
+		for (Map.Entry<String, Integer> e : exact.entrySet()) {
+			assertTrue(sketch.estimate(e.getKey()) >= e.getValue());
+		}
+	}
+
+	@Test
+	void sketchSeparatesKeysWithEqualStringHashCodes() {
+		CountMinSketch sketch = new CountMinSketch(1 << 16, 4);
+		assertEquals("Aa".hashCode(), "BB".hashCode());
+		sketch.add("Aa", 1_000);
+
+		assertEquals(0, sketch.estimate("BB"));
+	}
+
+	@Test
+	void findsHottestAcrossThreads() throws Exception {
+		HeavyHitters hitters = new HeavyHitters(50, 4096, 4, 4);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		List<Future<?>> tasks = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			int seed = t;
+			tasks.add(pool.submit(() -> {
+				Random random = new Random(seed);
+				for (int i = 0; i < 20_000; i++) {
+					// 30% of traffic goes to three videos, the rest spreads over 10k
+					int r = random.nextInt(100);
+					hitters.offer(r < 15 ? "v1" : r < 25 ? "v2" : r < 30 ? "v3" : "tail-" + random.nextInt(10_000));
+				}
+			}));
+		}
+		for (Future<?> task : tasks) {
+			task.get();
+		}
+		pool.shutdown();
+
+		List<HeavyHitters.Hitter> top = hitters.top(3);
+		assertEquals(List.of("v1", "v2", "v3"), top.stream().map(HeavyHitters.Hitter::getKey).toList());
+		assertEquals(80_000, hitters.getTotal());
+		long v1 = top.get(0).getCount();
+		assertTrue(v1 >= 12_000 - 1_000 && v1 <= 12_000 + 1_000 + top.get(0).getError());
+	}
+}
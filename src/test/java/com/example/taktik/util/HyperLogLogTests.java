@@ -0,0 +1,65 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTests {
+
+	@Test
+	void estimatesDistinctCountWithinFewPercent() {
+		for (int n : new int[] {100, 1_000, 50_000, 500_000}) {
+			HyperLogLog hll = new HyperLogLog(12);
+			for (int i = 0; i < n; i++) {
+				hll.add("viewer-" + i);
+				hll.add("viewer-" + i); // repeats never count twice
+			}
+			double error = Math.abs(hll.estimate() - n) / (double) n;
+			assertTrue(error < 0.05, n + " viewers estimated as " + hll.estimate());
+		}
+	}
+
+	@Test
+	void repeatedViewerDoesNotChangeSketch() {
+		HyperLogLog hll = new HyperLogLog(12);
+		assertTrue(hll.add("u1"));
+		assertFalse(hll.add("u1"));
+		assertEquals(1, hll.estimate());
+	}
+
+	@Test
+	void mergeEqualsUnionOfDays() {
+		HyperLogLog monday = new HyperLogLog(12);
+		HyperLogLog tuesday = new HyperLogLog(12);
+		HyperLogLog both = new HyperLogLog(12);
+		for (int i = 0; i < 20_000; i++) {
+			monday.add("viewer-" + i);
+			both.add("viewer-" + i);
+		}
+		for (int i = 10_000; i < 30_000; i++) {
+			tuesday.add("viewer-" + i);
+			both.add("viewer-" + i);
+		}
+
+		monday.merge(tuesday);
+
+		assertEquals(both.estimate(), monday.estimate());
+		assertTrue(Math.abs(monday.estimate() - 30_000) < 1_500);
+	}
+
+	@Test
+	void roundTripsThroughBytes() {
+		HyperLogLog hll = new HyperLogLog(12);
+		for (int i = 0; i < 5_000; i++) {
+			hll.add("viewer-" + i);
+		}
+		byte[] data = hll.toBytes();
+		assertEquals(4096, data.length);
+
+		HyperLogLog restored = HyperLogLog.fromBytes(data, 12);
+		assertEquals(hll.estimate(), restored.estimate());
+		assertEquals(0, HyperLogLog.fromBytes(new byte[3], 12).estimate());
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.taktik.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Search latency over a synthetic corpus of short titles and descriptions drawn from a Zipf-distributed
+// vocabulary, so the head terms appear in a large share of the documents. Queries mix head and tail terms.
+// Run with: java -Xmx4g -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main InvertedIndexBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InvertedIndexBenchmark {
+
+	private static final int VOCABULARY = 50_000;
+	private static final int QUERIES = 1024;
+	private static final int PAGE_SIZE = 20;
+
+	@Param({"1000000", "3000000"})
+	public int documents;
+
+	private InvertedIndex index;
+	private String[] words;
+	private double[] cumulative;
+	private String[] queries;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(42);
+		words = new String[VOCABULARY];
+		cumulative = new double[VOCABULARY];
+		double total = 0;
+		for (int i = 0; i < VOCABULARY; i++) {
+			words[i] = "w" + Integer.toString(i, 36);
+			total += 1.0 / (i + 1);
+			cumulative[i] = total;
+		}
+		for (int i = 0; i < VOCABULARY; i++) {
+			cumulative[i] /= total;
+		}
+
+		index = new InvertedIndex();
+		for (int d = 0; d < documents; d++) {
+			index.put("v" + d, text(random, 3 + random.nextInt(6)), text(random, 5 + random.nextInt(20)));
+		}
+
+		queries = new String[QUERIES];
+		for (int q = 0; q < QUERIES; q++) {
+			queries[q] = text(random, 1 + random.nextInt(3));
+		}
+		System.out.println("Index: " + index.size() + " docs, " + index.getTermCount() + " terms, "
+				+ index.getPostingBytes() / (1024 * 1024) + " MB of postings");
+	}
+
+	@Benchmark
+	public List<String> search() {
+		String query = queries[next++ & (QUERIES - 1)];
+		return index.search(query, 0, PAGE_SIZE);
+	}
+
+	private String text(Random random, int length) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			int word = Arrays.binarySearch(cumulative, random.nextDouble());
+			text.append(words[word < 0 ? -word - 1 : word]).append(' ');
+		}
+		return text.toString();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(InvertedIndexBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTests {
+
+	@Test
+	void tokenizesWithCaseAndAccentFolding() {
+		assertEquals(List.of("pho", "ha", "noi", "dac", "biet", "2024"),
+				InvertedIndex.tokenize("Phở HÀ-NỘI: đặc biệt (2024)!"));
+		assertTrue(InvertedIndex.tokenize("  ,.; ").isEmpty());
+	}
+
+	@Test
+	void ranksTitleMatchesAboveDescriptionMatches() {
+		InvertedIndex index = new InvertedIndex();
+		index.put("desc", "Morning routine", "a quick cat video from the park");
+		index.put("title", "Cat compilation", "funny moments");
+		index.put("none", "Cooking pasta", "quick dinner");
+
+		assertEquals(List.of("title", "desc"), index.search("cat", 0, 10));
+	}
+
+	@Test
+	void prefersDocumentsMatchingMoreQueryTerms() {
+		InvertedIndex index = new InvertedIndex();
+		index.put("one", "Street food tour", "");
+		index.put("both", "Street food in Hanoi", "");
+		index.put("other", "Hanoi skyline", "");
+
+		assertEquals("both", index.search("hanoi street food", 0, 10).get(0));
+		assertEquals(3, index.search("hanoi street food", 0, 10).size());
+	}
+
+	@Test
+	void updatesReplaceAndRemovesDropDocuments() {
+		InvertedIndex index = new InvertedIndex();
+		index.put("v1", "Guitar lesson", "");
+		index.put("v2", "Guitar solo", "");
+
+		index.put("v1", "Piano lesson", "");
+		assertEquals(List.of("v2"), index.search("guitar", 0, 10));
+		assertEquals(List.of("v1"), index.search("piano", 0, 10));
+
+		assertTrue(index.remove("v2"));
+		assertFalse(index.remove("v2"));
+		assertTrue(index.search("guitar", 0, 10).isEmpty());
+		assertEquals(1, index.size());
+		assertEquals(2, index.getDeletedDocs());
+	}
+
+	@Test
+	void compactionKeepsResultsAndReclaimsDeletedDocs() {
+		InvertedIndex index = new InvertedIndex();
+		for (int i = 0; i < 5000; i++) {
+			index.put("v" + i, "video " + i, i % 2 == 0 ? "even dance" : "odd song");
+		}
+		for (int i = 0; i < 5000; i += 3) {
+			index.remove("v" + i);
+		}
+		List<String> before = index.search("dance", 0, 50);
+
+		assertEquals(1667, index.compact());
+		assertEquals(0, index.getDeletedDocs());
+		assertEquals(before, index.search("dance", 0, 50));
+		assertEquals(List.of("v4"), index.search("4", 0, 10));
+		assertTrue(index.search("0", 0, 10).isEmpty());
+
+		index.put("v4", "renamed", "");
+		assertTrue(index.search("4", 0, 10).isEmpty());
+	}
+
+	@Test
+	void pagesThroughHitsWithoutOverlap() {
+		InvertedIndex index = new InvertedIndex();
+		for (int i = 0; i < 30; i++) {
+			index.put("v" + i, "skate " + "trick ".repeat(i % 5), "");
+		}
+
+		List<String> all = index.search("skate trick", 0, 30);
+		assertEquals(30, all.size());
+		assertEquals(all.subList(10, 20), index.search("skate trick", 10, 10));
+		assertEquals(all.subList(25, 30), index.search("skate trick", 25, 10));
+	}
+
+	@Test
+	void putIfAbsentKeepsExistingVersion() {
+		InvertedIndex index = new InvertedIndex();
+		index.put("v1", "fresh title", "");
+
+		assertFalse(index.putIfAbsent("v1", "stale title", ""));
+		assertTrue(index.search("stale", 0, 10).isEmpty());
+		assertTrue(index.putIfAbsent("v2", "stale title", ""));
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.taktik.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Typeahead latency over synthetic usernames with heavy-tailed follower counts. Each query is a 1-4 character
+// prefix of a random existing username, as typed keystroke by keystroke into a search box.
+// Run with: java -Xmx4g -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main RankedPrefixTrieBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RankedPrefixTrieBenchmark {
+
+	private static final int QUERIES = 4096;
+	private static final int K = 10;
+	private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789_.";
+
+	@Param({"1000000", "5000000"})
+	public int users;
+
+	private RankedPrefixTrie trie;
+	private String[] prefixes;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(42);
+		trie = new RankedPrefixTrie(K);
+		String[] sample = new String[QUERIES];
+		for (int u = 0; u < users; u++) {
+			String name = username(random);
+			// Pareto-like: most users have a handful of followers, a few have millions
+			long followers = (long) (1 / Math.pow(1 - random.nextDouble(), 1.2));
+			trie.put("u" + u, name, followers);
+			if (u < QUERIES) {
+				sample[u] = name;
+			}
+		}
+		prefixes = new String[QUERIES];
+		for (int q = 0; q < QUERIES; q++) {
+			String name = sample[random.nextInt(QUERIES)];
+			prefixes[q] = name.substring(0, Math.min(name.length(), 1 + random.nextInt(4)));
+		}
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		System.out.println("Trie: " + trie.size() + " users, " + trie.getNodeCount() + " nodes, ~"
+				+ (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024) + " MB heap in use");
+	}
+
+	@Benchmark
+	public List<String> complete() {
+		return trie.complete(prefixes[next++ & (QUERIES - 1)], K);
+	}
+
+	@Benchmark
+	public boolean follow() {
+		return trie.addScore("u" + (next++ % users), 1);
+	}
+
+	private static String username(Random random) {
+		StringBuilder name = new StringBuilder();
+		int length = 4 + random.nextInt(12);
+		for (int i = 0; i < length; i++) {
+			// Letters dominate; digits, '_' and '.' are rarer
+			int c = random.nextInt(8) == 0 ? random.nextInt(ALPHABET.length()) : random.nextInt(26);
+			name.append(ALPHABET.charAt(c));
+		}
+		return name.toString();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RankedPrefixTrieBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,130 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankedPrefixTrieTests {
+
+	@Test
+	void ranksCompletionsByScoreAndCapsAtK() {
+		RankedPrefixTrie trie = new RankedPrefixTrie(2);
+		trie.put("u1", "anna", 10);
+		trie.put("u2", "annabel", 300);
+		trie.put("u3", "Anne", 50);
+		trie.put("u4", "bob", 1000);
+
+		assertEquals(List.of("u2", "u3"), trie.complete("ann", 10));
+		assertEquals(List.of("u2"), trie.complete("ANN", 1));
+		assertEquals(List.of("u3"), trie.complete("anne", 10));
+		assertEquals(List.of("u4", "u2"), trie.complete("", 10));
+		assertTrue(trie.complete("annx", 10).isEmpty());
+		assertTrue(trie.complete("c", 10).isEmpty());
+	}
+
+	@Test
+	void renameMovesTheUserAndPrunesOldNodes() {
+		RankedPrefixTrie trie = new RankedPrefixTrie(5);
+		trie.put("u1", "carla", 5);
+		int nodes = trie.getNodeCount();
+		trie.put("u2", "carlos", 7);
+
+		trie.put("u2", "diego", 7);
+		assertEquals(List.of("u1"), trie.complete("car", 5));
+		assertEquals(List.of("u2"), trie.complete("die", 5));
+
+		assertTrue(trie.remove("u2"));
+		assertFalse(trie.remove("u2"));
+		assertEquals(nodes, trie.getNodeCount());
+		assertEquals(1, trie.size());
+	}
+
+	@Test
+	void scoreChangesReorderAndRefillTopLists() {
+		RankedPrefixTrie trie = new RankedPrefixTrie(2);
+		trie.put("u1", "sam", 3);
+		trie.put("u2", "sara", 2);
+		trie.put("u3", "sasha", 1);
+
+		assertTrue(trie.addScore("u3", 5));
+		assertEquals(List.of("u3", "u1"), trie.complete("sa", 2));
+
+		trie.addScore("u3", -10);
+		assertEquals(List.of("u1", "u2"), trie.complete("sa", 2));
+		assertFalse(trie.addScore("missing", 1));
+	}
+
+	@Test
+	void putIfAbsentKeepsExistingName() {
+		RankedPrefixTrie trie = new RankedPrefixTrie(3);
+		trie.put("u1", "fresh", 1);
+
+		assertFalse(trie.putIfAbsent("u1", "stale", 1));
+		assertTrue(trie.complete("stale", 3).isEmpty());
+	}
+
+	@Test
+	void matchesBruteForceUnderRandomUpdates() {
+		Random random = new Random(7);
+		RankedPrefixTrie trie = new RankedPrefixTrie(4);
+		Map<String, String> names = new HashMap<>();
+		Map<String, Long> scores = new HashMap<>();
+
+		for (int step = 0; step < 5000; step++) {
+			String id = "u" + random.nextInt(300);
+			int action = random.nextInt(10);
+			if (action < 5) {
+				String name = randomName(random);
+				long score = random.nextInt(20);
+				trie.put(id, name, score);
+				names.put(id, name);
+				scores.put(id, score);
+			} else if (action < 8) {
+				long delta = random.nextInt(11) - 5;
+				assertEquals(names.containsKey(id), trie.addScore(id, delta));
+				scores.computeIfPresent(id, (key, score) -> score + delta);
+			} else {
+				assertEquals(names.remove(id) != null, trie.remove(id));
+				scores.remove(id);
+			}
+
+			String typed = randomName(random);
+			String prefix = typed.substring(0, random.nextInt(typed.length() + 1));
+			assertEquals(expected(names, scores, prefix, 4), trie.complete(prefix, 4), "prefix " + prefix);
+		}
+		assertEquals(names.size(), trie.size());
+	}
+
+	private static List<String> expected(Map<String, String> names, Map<String, Long> scores, String prefix, int k) {
+		List<String> ids = new ArrayList<>();
+		for (Map.Entry<String, String> entry : names.entrySet()) {
+			if (entry.getValue().toLowerCase().startsWith(prefix.toLowerCase())) {
+				ids.add(entry.getKey());
+			}
+		}
+		ids.sort(Comparator.<String>comparingLong(scores::get).reversed()
+				.thenComparing(names::get)
+				.thenComparing(Comparator.naturalOrder()));
+		return ids.subList(0, Math.min(k, ids.size()));
+	}
+
+	// Short names over a small alphabet so prefixes are heavily shared and nodes split and merge often
+	private static String randomName(Random random) {
+		StringBuilder name = new StringBuilder();
+		int length = 1 + random.nextInt(5);
+		for (int i = 0; i < length; i++) {
+			char c = (char) ('a' + random.nextInt(3));
+			name.append(random.nextInt(4) == 0 ? Character.toUpperCase(c) : c);
+		}
+		return name.toString();
+	}
+}
@@ -0,0 +1,76 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoaringBitmapTests {
+
+	@Test
+	void matchesHashSetUnderRandomAddsAndRemoves() {
+		RoaringBitmap bitmap = new RoaringBitmap();
+		Set<Integer> expected = new HashSet<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 200_000; i++) {
+			// Mostly one dense chunk, so containers cross the array/bitmap threshold both ways
+			int value = random.nextInt(10) == 0 ? random.nextInt(1 << 24) : random.nextInt(12_000);
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(value), bitmap.remove(value));
+			} else {
+				assertEquals(expected.add(value), bitmap.add(value));
+			}
+		}
+
+		assertEquals(expected.size(), bitmap.getCardinality());
+		for (int value = 0; value < 20_000; value++) {
+			assertEquals(expected.contains(value), bitmap.contains(value));
+		}
+		for (int value : expected) {
+			assertTrue(bitmap.contains(value));
+		}
+	}
+
+	@Test
+	void removingEverythingEmptiesTheBitmap() {
+		RoaringBitmap bitmap = new RoaringBitmap();
+		for (int i = 0; i < 10_000; i++) {
+			bitmap.add(i * 7);
+		}
+		for (int i = 0; i < 10_000; i++) {
+			assertTrue(bitmap.remove(i * 7));
+		}
+
+		assertEquals(0, bitmap.getCardinality());
+		assertFalse(bitmap.contains(0));
+		assertFalse(bitmap.remove(-1));
+	}
+
+	@Test
+	void sparseOrdinalsCostAboutTwoBytesEach() {
+		RoaringBitmap bitmap = new RoaringBitmap();
+		for (int i = 0; i < 1_000; i++) {
+			bitmap.add(i * 97);
+		}
+
+		assertTrue(bitmap.getSizeInBytes() < 4 * 1_000, "bytes: " + bitmap.getSizeInBytes());
+	}
+
+	@Test
+	void denseChunkSwitchesToBitmap() {
+		RoaringBitmap bitmap = new RoaringBitmap();
+		for (int i = 0; i < 65_536; i++) {
+			bitmap.add(i);
+		}
+
+		assertEquals(65_536, bitmap.getCardinality());
+		assertTrue(bitmap.getSizeInBytes() < 9_000, "bytes: " + bitmap.getSizeInBytes());
+		assertThrows(IllegalArgumentException.class, () -> bitmap.add(-5));
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScalableBloomFilterTests {
+
+	@Test
+	void growsAndKeepsFalsePositiveRateLow() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01, 1 << 20);
+		for (int i = 0; i < 5_000; i++) {
+			filter.add("seen-" + i);
+		}
+		for (int i = 0; i < 5_000; i++) {
+			assertTrue(filter.mightContain("seen-" + i));
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (filter.mightContain("other-" + i)) {
+				falsePositives++;
+			}
+		}
+		assertTrue(filter.getSliceCount() > 1);
+		assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+	}
+
+	@Test
+	void staysWithinByteCapByForgettingOldestItems() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01, 4096);
+		for (int i = 0; i < 20_000; i++) {
+			filter.add("v" + i);
+		}
+
+		assertTrue(filter.getSizeInBytes() <= 4096);
+		assertTrue(filter.mightContain("v19999"));
+	}
+
+	@Test
+	void roundTripsThroughBytes() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(10, 0.01, 65536);
+		for (int i = 0; i < 100; i++) {
+			filter.add("v" + i);
+		}
+
+		ScalableBloomFilter restored = ScalableBloomFilter.fromBytes(filter.toBytes(), 10, 0.01, 65536);
+
+		assertEquals(filter.getSliceCount(), restored.getSliceCount());
+		for (int i = 0; i < 100; i++) {
+			assertTrue(restored.mightContain("v" + i));
+		}
+		assertFalse(restored.add("v42"));
+		assertTrue(restored.add("new"));
+	}
+
+	@Test
+	void unreadableBytesGiveEmptyFilter() {
+		ScalableBloomFilter filter = ScalableBloomFilter.fromBytes(new byte[] {9, 9, 9}, 10, 0.01, 65536);
+
+		assertEquals(0, filter.getSliceCount());
+		assertFalse(filter.mightContain("anything"));
+	}
+}
@@ -0,0 +1,29 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScoreCursorTests {
+
+	@Test
+	void roundTripsScoresExactly() {
+		// A real similarity widened to double, as Postgres returns it for the keyset comparison
+		double score = (double) 0.41666666f;
+		ScoreCursor cursor = ScoreCursor.decode(new ScoreCursor(score, "a|b", 40).encode());
+
+		assertEquals(score, cursor.getScore());
+		assertEquals("a|b", cursor.getId());
+		assertEquals(40, cursor.getServed());
+	}
+
+	@Test
+	void treatsBlankAsFirstPageAndRejectsGarbage() {
+		assertNull(ScoreCursor.decode(" "));
+		assertThrows(IllegalArgumentException.class, () -> ScoreCursor.decode("not-a-cursor"));
+		assertThrows(IllegalArgumentException.class,
+				() -> ScoreCursor.decode(new ScoreCursor(0.5, "id", -1).encode()));
+	}
+}
@@ -0,0 +1,42 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SlidingWindowCounterTests {
+
+	private static final long MINUTE = 60_000_000_000L;
+	private static final long START = 1_000_000 * MINUTE;
+
+	@Test
+	void sumsEventsInsideWindow() {
+		SlidingWindowCounter counter = new SlidingWindowCounter(60, MINUTE);
+		counter.add(START, 1);
+		counter.add(START + 10 * MINUTE, 2);
+		counter.add(START + 59 * MINUTE, 3);
+
+		assertEquals(6, counter.sum(START + 59 * MINUTE));
+		assertEquals(5, counter.sum(START + 60 * MINUTE)); // first minute slid out
+		assertEquals(3, counter.sum(START + 70 * MINUTE));
+	}
+
+	@Test
+	void clearsAfterLongIdleGap() {
+		SlidingWindowCounter counter = new SlidingWindowCounter(60, MINUTE);
+		counter.add(START, 5);
+		counter.add(START + 500 * MINUTE, 1);
+
+		assertEquals(1, counter.sum(START + 500 * MINUTE));
+	}
+
+	@Test
+	void ignoresEventsOlderThanWindow() {
+		SlidingWindowCounter counter = new SlidingWindowCounter(60, MINUTE);
+		counter.add(START + 100 * MINUTE, 1);
+		counter.add(START, 7);
+		counter.add(START + 90 * MINUTE, 2); // late but still inside the window
+
+		assertEquals(3, counter.sum(START + 100 * MINUTE));
+	}
+}
@@ -0,0 +1,56 @@
+package com.example.taktik.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimelineBufferTests {
+
+	@Test
+	void keepsNewestFirstAndEvictsOldest() {
+		TimelineBuffer timeline = new TimelineBuffer(3);
+		timeline.add("v1", "a", 100);
+		timeline.add("v3", "b", 300);
+		timeline.add("v2", "a", 200);
+		timeline.add("v4", "b", 400);
+
+		assertEquals(List.of("v4", "v3", "v2"), page(timeline, null));
+		assertTrue(timeline.isTruncated());
+	}
+
+	@Test
+	void ignoresEntriesBelowFloor() {
+		TimelineBuffer timeline = new TimelineBuffer(2);
+		timeline.add("v2", "a", 200);
+		timeline.add("v3", "a", 300);
+		timeline.add("v4", "a", 400);
+		timeline.add("v1", "b", 100);
+
+		assertEquals(List.of("v4", "v3"), page(timeline, null));
+	}
+
+	@Test
+	void pagesAfterCursorAndPrunesAuthor() {
+		TimelineBuffer timeline = new TimelineBuffer(10);
+		timeline.add("v1", "a", 100);
+		timeline.add("v2", "b", 200);
+		timeline.add("v3", "a", 300);
+		timeline.removeAuthor("b");
+
+		KeysetCursor after = new KeysetCursor(KeysetCursor.fromEpochNanos(300), "v3");
+
+		assertEquals(List.of("v1"), page(timeline, after));
+		assertFalse(timeline.isTruncated());
+	}
+
+	private List<String> page(TimelineBuffer timeline, KeysetCursor after) {
+		String[] ids = new String[10];
+		int count = timeline.page(after, ids.length, ids, new long[ids.length]);
+		return Arrays.asList(ids).subList(0, count);
+	}
+}